@@ -0,0 +1,171 @@
+package com.billsplit.security;
+
+import com.billsplit.repository.UserRepository;
+import com.billsplit.service.TokenVersionService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost per request of JwtAuthenticationFilter for a returning session, with the database
+ * stubbed out so only the in-process work is measured. The legacy variant replays the
+ * previous sequence, which rebuilt the key and parser, checked the HS512 signature twice
+ * and then loaded the user by email; the uncached filter checks the signature once and
+ * the cached filter only hashes the token. Both build the principal from the claims and
+ * check the token version against a warm cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtFilterBenchmark {
+    
+    private static final String SECRET = "benchmark-secret-benchmark-secret-benchmark-secret-benchmark-secret";
+    
+    private String token;
+    private HttpServletRequest request;
+    private HttpServletResponse response;
+    private JwtAuthenticationFilter cachedFilter;
+    private JwtAuthenticationFilter uncachedFilter;
+    private UserDetailsService userDetailsService;
+    private final FilterChain chain = (req, res) -> { };
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        UserPrincipal principal = new UserPrincipal(1L, "Ann", "ann@example.com", "hash");
+        userDetailsService = username -> principal;
+        
+        TokenVersionService tokenVersionService = new TokenVersionService(10_000, 300);
+        setField(tokenVersionService, "userRepository", Proxy.newProxyInstance(
+                UserRepository.class.getClassLoader(),
+                new Class<?>[]{UserRepository.class},
+                (proxy, method, args) -> method.getName().equals("findTokenVersionById") ? Optional.of(0L) : null));
+        
+        JwtTokenProvider cachedProvider = new JwtTokenProvider(SECRET, 86_400_000, 10_000, 300);
+        JwtTokenProvider uncachedProvider = new JwtTokenProvider(SECRET, 86_400_000, 0, 300);
+        token = cachedProvider.generateToken(principal);
+        cachedFilter = createFilter(cachedProvider, tokenVersionService);
+        uncachedFilter = createFilter(uncachedProvider, tokenVersionService);
+        request = createRequest("Bearer " + token);
+        response = (HttpServletResponse) Proxy.newProxyInstance(
+                HttpServletResponse.class.getClassLoader(),
+                new Class<?>[]{HttpServletResponse.class},
+                (proxy, method, args) -> method.getReturnType() == boolean.class ? false : null);
+    }
+    
+    @TearDown(Level.Invocation)
+    public void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+    
+    // The previous doFilterInternal body, minus the OncePerRequestFilter bookkeeping
+    @Benchmark
+    public Object legacyFilter() {
+        String header = request.getHeader("Authorization");
+        String jwt = header.substring(7);
+        if (legacyValidateToken(jwt)) {
+            UserDetails userDetails = userDetailsService.loadUserByUsername(legacyGetUsernameFromToken(jwt));
+            UsernamePasswordAuthenticationToken authentication =
+                new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+            authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            SecurityContextHolder.getContext().setAuthentication(authentication);
+        }
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+    
+    @Benchmark
+    public Object uncachedFilter() throws Exception {
+        uncachedFilter.doFilter(request, response, chain);
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+    
+    @Benchmark
+    public Object cachedFilter() throws Exception {
+        cachedFilter.doFilter(request, response, chain);
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+    
+    private static boolean legacyValidateToken(String token) {
+        try {
+            Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes()))
+                .build()
+                .parseClaimsJws(token);
+            return true;
+        } catch (JwtException | IllegalArgumentException e) {
+            return false;
+        }
+    }
+    
+    private static String legacyGetUsernameFromToken(String token) {
+        Claims claims = Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes()))
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+        return claims.getSubject();
+    }
+    
+    private static JwtAuthenticationFilter createFilter(JwtTokenProvider tokenProvider, TokenVersionService tokenVersionService) {
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter();
+        setField(filter, "tokenProvider", tokenProvider);
+        setField(filter, "tokenVersionService", tokenVersionService);
+        return filter;
+    }
+    
+    private static void setField(Object target, String name, Object value) {
+        Field field = ReflectionUtils.findField(target.getClass(), name);
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, target, value);
+    }
+    
+    // Just enough of a request for OncePerRequestFilter and WebAuthenticationDetailsSource
+    private static HttpServletRequest createRequest(String authorization) {
+        Map<String, Object> attributes = new HashMap<>();
+        return (HttpServletRequest) Proxy.newProxyInstance(
+                HttpServletRequest.class.getClassLoader(),
+                new Class<?>[]{HttpServletRequest.class},
+                (proxy, method, args) -> {
+                    String name = method.getName();
+                    if (name.equals("getHeader")) {
+                        return "Authorization".equalsIgnoreCase((String) args[0]) ? authorization : null;
+                    } else if (name.equals("getAttribute")) {
+                        return attributes.get((String) args[0]);
+                    } else if (name.equals("setAttribute")) {
+                        attributes.put((String) args[0], args[1]);
+                        return null;
+                    } else if (name.equals("removeAttribute")) {
+                        attributes.remove((String) args[0]);
+                        return null;
+                    } else if (name.equals("getDispatcherType")) {
+                        return DispatcherType.REQUEST;
+                    } else if (name.equals("getRemoteAddr")) {
+                        return "127.0.0.1";
+                    } else if (method.getReturnType() == boolean.class) {
+                        return false;
+                    }
+                    return null;
+                });
+    }
+}
@@ -0,0 +1,76 @@
+package com.billsplit.service;
+
+import com.billsplit.dto.ExpenseRequest;
+import com.billsplit.entity.Expense;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Equal and weighted largest-remainder splits and custom-share validation from
+ * ExpenseService, over 2 to 10,000 participants. All are pure computations, so no
+ * database is involved.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExpenseSplitBenchmark {
+    
+    @Param({"2", "10", "100", "1000", "10000"})
+    private int participants;
+    
+    private BigDecimal amount;
+    private List<ExpenseRequest.ExpenseShareRequest> shareRequests;
+    private List<ExpenseRequest.PendingShareRequest> pendingShareRequests;
+    private List<ExpenseRequest.ExpenseShareRequest> weightedShareRequests;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        amount = new BigDecimal("1234567.89");
+        
+        // Custom shares: three quarters members, one quarter pending, summing to the amount
+        long[] split = ExpenseSplitCalculator.splitEqually(amount, participants, 0);
+        int memberCount = Math.max(1, participants * 3 / 4);
+        shareRequests = new ArrayList<>();
+        pendingShareRequests = new ArrayList<>();
+        for (int i = 0; i < participants; i++) {
+            BigDecimal share = BigDecimal.valueOf(split[i], 2);
+            if (i < memberCount) {
+                shareRequests.add(new ExpenseRequest.ExpenseShareRequest((long) i + 1, share));
+            } else {
+                pendingShareRequests.add(new ExpenseRequest.PendingShareRequest("pending" + i + "@example.com", share));
+            }
+        }
+        
+        // Weighted shares with uneven weights, so most quotas have a fractional remainder
+        weightedShareRequests = new ArrayList<>(participants);
+        for (int i = 0; i < participants; i++) {
+            ExpenseRequest.ExpenseShareRequest share = new ExpenseRequest.ExpenseShareRequest((long) i + 1, null);
+            share.setWeight(BigDecimal.valueOf(1 + i % 7, 1));
+            weightedShareRequests.add(share);
+        }
+    }
+    
+    @Benchmark
+    public long[] splitEqually() {
+        return ExpenseSplitCalculator.splitEqually(amount, participants - participants / 4, participants / 4);
+    }
+    
+    @Benchmark
+    public long[] splitWeighted() {
+        return ExpenseSplitCalculator.splitProportionally(amount, Expense.SplitType.WEIGHTED, weightedShareRequests, null);
+    }
+    
+    @Benchmark
+    public void validateCustomShares(Blackhole blackhole) {
+        ExpenseSplitCalculator.validateCustomShares(amount, shareRequests, pendingShareRequests);
+        blackhole.consume(shareRequests);
+    }
+}
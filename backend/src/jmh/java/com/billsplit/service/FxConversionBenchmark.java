@@ -0,0 +1,72 @@
+package com.billsplit.service;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Converting a group's per-currency ledger columns into its base currency, as
+ * SettlementService does before settling, for 2 to 10,000 members and three foreign
+ * currencies. The per-value variant converts each balance on its own with BigDecimal,
+ * as a baseline; run with -prof gc to compare allocation rates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FxConversionBenchmark {
+    
+    private static final String[] CURRENCIES = {"EUR", "JPY", "GBP"};
+    
+    @Param({"2", "10", "100", "1000", "10000"})
+    private int members;
+    
+    private FxRateSnapshot rates;
+    private long[][] columns;
+    private long[] column;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        rates = new FxRateSnapshot(1, "USD", Map.of(
+                "EUR", new BigDecimal("0.861234"),
+                "JPY", new BigDecimal("148.502113"),
+                "GBP", new BigDecimal("0.752917")), LocalDateTime.now());
+        Random random = new Random(42);
+        columns = new long[CURRENCIES.length][members];
+        for (long[] currencyColumn : columns) {
+            for (int i = 0; i < members; i++) {
+                currencyColumn[i] = random.nextInt(2_000_001) - 1_000_000;
+            }
+        }
+        column = new long[members];
+    }
+    
+    @Benchmark
+    public long convertColumns() {
+        long total = 0;
+        for (int c = 0; c < CURRENCIES.length; c++) {
+            System.arraycopy(columns[c], 0, column, 0, members);
+            rates.convertInPlace(column, members, CURRENCIES[c], "USD");
+            total += column[members - 1];
+        }
+        return total;
+    }
+    
+    @Benchmark
+    public long convertEachValue() {
+        long total = 0;
+        for (int c = 0; c < CURRENCIES.length; c++) {
+            for (int i = 0; i < members; i++) {
+                BigDecimal amount = BigDecimal.valueOf(columns[c][i], 2);
+                total += rates.convert(amount, CURRENCIES[c], "USD").unscaledValue().longValue();
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,46 @@
+package com.billsplit.service;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exact solver latency per number of non-zero balances, used to choose
+ * app.settlement.exact.max-balances. Runs with a budget large enough never to cut it short.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+public class MinimumTransactionSolverBenchmark {
+    
+    @Param({"4", "8", "12", "14", "16", "18", "20", "22"})
+    private int balances;
+    
+    private long[] cents;
+    private MinimumTransactionSolver solver;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(7);
+        cents = new long[balances];
+        long sum = 0;
+        for (int i = 0; i < balances - 1; i++) {
+            do {
+                cents[i] = random.nextInt(20_001) - 10_000;
+            } while (cents[i] == 0);
+            sum += cents[i];
+        }
+        cents[balances - 1] = sum == 0 ? 1 : -sum;
+        solver = new MinimumTransactionSolver(30, 600_000L);
+    }
+    
+    @Benchmark
+    public List<int[]> partition() {
+        return solver.partition(cents);
+    }
+}
@@ -0,0 +1,282 @@
+package com.billsplit.service;
+
+import com.billsplit.dto.SettlementTransaction;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Greedy settlement over group sizes from 2 to 10,000 members. The legacy variant is
+ * the previous BigDecimal / Map.Entry implementation, kept as a baseline; run with
+ * -prof gc to compare allocation rates.
+ *
+ * The balance variants load a group's balances from an in-memory H2 database holding
+ * five expenses and one settlement per member: the original two SUM queries per member
+ * plus a settlement walk, the single grouped query that replaced them, and the ledger
+ * lookup used today. H2 runs in-process, so every query of the per-member loop would
+ * also pay a network round trip against PostgreSQL.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SettlementBenchmark {
+    
+    @Param({"2", "10", "100", "1000", "10000"})
+    private int members;
+    
+    private long[] userIds;
+    private long[] cents;
+    private Map<Long, String> userNames;
+    private Map<Long, BigDecimal> legacyBalances;
+    
+    private Connection connection;
+    private PreparedStatement totalOwedByUser;
+    private PreparedStatement totalPaidByUser;
+    private PreparedStatement settlementsByGroup;
+    private PreparedStatement netBalancesByGroup;
+    private PreparedStatement ledgerBalancesByGroup;
+    
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        Random random = new Random(42);
+        userIds = new long[members];
+        cents = new long[members];
+        userNames = new HashMap<>();
+        long sum = 0;
+        for (int i = 0; i < members; i++) {
+            userIds[i] = i + 1;
+            cents[i] = random.nextInt(200_001) - 100_000;
+            sum += cents[i];
+            userNames.put(userIds[i], "User " + userIds[i]);
+        }
+        cents[members - 1] -= sum;
+        
+        legacyBalances = new HashMap<>();
+        for (int i = 0; i < members; i++) {
+            legacyBalances.put(userIds[i], BigDecimal.valueOf(cents[i], 2));
+        }
+        
+        setUpDatabase();
+    }
+    
+    private void setUpDatabase() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:settlement-benchmark-" + members
+                + ";QUERY_CACHE_SIZE=0");
+        try (Statement statement = connection.createStatement()) {
+            // The columns and indexes the balance queries use, as in the migrations
+            statement.execute("CREATE TABLE expenses (id BIGINT PRIMARY KEY, group_id BIGINT NOT NULL, " +
+                    "paid_by BIGINT NOT NULL, amount DECIMAL(10,2) NOT NULL, deleted_at TIMESTAMP)");
+            statement.execute("CREATE TABLE expense_shares (id BIGINT PRIMARY KEY, expense_id BIGINT NOT NULL, " +
+                    "user_id BIGINT NOT NULL, amount_owed DECIMAL(10,2) NOT NULL)");
+            statement.execute("CREATE TABLE settlements (id BIGINT PRIMARY KEY, group_id BIGINT NOT NULL, " +
+                    "from_user_id BIGINT NOT NULL, to_user_id BIGINT NOT NULL, amount DECIMAL(10,2) NOT NULL, " +
+                    "settled_at TIMESTAMP NOT NULL)");
+            statement.execute("CREATE TABLE group_balances (group_id BIGINT NOT NULL, user_id BIGINT NOT NULL, " +
+                    "net_cents BIGINT NOT NULL, PRIMARY KEY (group_id, user_id))");
+            statement.execute("CREATE INDEX idx_expenses_group_id ON expenses(group_id)");
+            statement.execute("CREATE INDEX idx_expenses_paid_by ON expenses(paid_by)");
+            statement.execute("CREATE INDEX idx_expense_shares_expense_id ON expense_shares(expense_id)");
+            statement.execute("CREATE INDEX idx_expense_shares_user_id ON expense_shares(user_id)");
+            statement.execute("CREATE INDEX idx_settlements_group_id ON settlements(group_id)");
+        }
+        
+        // Each expense is shared equally by its payer and three other members
+        Random random = new Random(7);
+        try (PreparedStatement expense = connection.prepareStatement("INSERT INTO expenses VALUES (?, 1, ?, ?, NULL)");
+             PreparedStatement share = connection.prepareStatement("INSERT INTO expense_shares VALUES (?, ?, ?, ?)");
+             PreparedStatement settlement = connection.prepareStatement(
+                     "INSERT INTO settlements VALUES (?, 1, ?, ?, ?, CURRENT_TIMESTAMP)")) {
+            long shareId = 0;
+            for (int e = 0; e < members * 5; e++) {
+                long payer = userIds[random.nextInt(members)];
+                BigDecimal shareAmount = BigDecimal.valueOf(100 + random.nextInt(10_000), 2);
+                expense.setLong(1, e + 1);
+                expense.setLong(2, payer);
+                expense.setBigDecimal(3, shareAmount.multiply(BigDecimal.valueOf(4)));
+                expense.addBatch();
+                for (int s = 0; s < 4; s++) {
+                    share.setLong(1, ++shareId);
+                    share.setLong(2, e + 1);
+                    share.setLong(3, s == 0 ? payer : userIds[random.nextInt(members)]);
+                    share.setBigDecimal(4, shareAmount);
+                    share.addBatch();
+                }
+            }
+            for (int i = 0; i < members; i++) {
+                settlement.setLong(1, i + 1);
+                settlement.setLong(2, userIds[i]);
+                settlement.setLong(3, userIds[(i + 1) % members]);
+                settlement.setBigDecimal(4, BigDecimal.valueOf(100 + random.nextInt(5_000), 2));
+                settlement.addBatch();
+            }
+            expense.executeBatch();
+            share.executeBatch();
+            settlement.executeBatch();
+        }
+        
+        totalOwedByUser = connection.prepareStatement("SELECT COALESCE(SUM(es.amount_owed), 0) FROM expense_shares es " +
+                "JOIN expenses e ON e.id = es.expense_id WHERE e.group_id = ? AND es.user_id = ? AND e.deleted_at IS NULL");
+        totalPaidByUser = connection.prepareStatement("SELECT COALESCE(SUM(e.amount), 0) FROM expenses e " +
+                "WHERE e.group_id = ? AND e.paid_by = ? AND e.deleted_at IS NULL");
+        settlementsByGroup = connection.prepareStatement("SELECT s.from_user_id, s.to_user_id, s.amount FROM settlements s " +
+                "WHERE s.group_id = ? ORDER BY s.settled_at DESC");
+        netBalancesByGroup = connection.prepareStatement("SELECT b.user_id, COALESCE(SUM(b.amount), 0) FROM (" +
+                "SELECT e.paid_by AS user_id, e.amount AS amount FROM expenses e " +
+                "WHERE e.group_id = ? AND e.deleted_at IS NULL " +
+                "UNION ALL " +
+                "SELECT es.user_id, -es.amount_owed FROM expense_shares es JOIN expenses e ON e.id = es.expense_id " +
+                "WHERE e.group_id = ? AND e.deleted_at IS NULL " +
+                "UNION ALL " +
+                "SELECT s.from_user_id, s.amount FROM settlements s WHERE s.group_id = ? " +
+                "UNION ALL " +
+                "SELECT s.to_user_id, -s.amount FROM settlements s WHERE s.group_id = ?" +
+                ") b GROUP BY b.user_id");
+        ledgerBalancesByGroup = connection.prepareStatement("SELECT user_id, net_cents FROM group_balances WHERE group_id = ?");
+        
+        try (PreparedStatement balance = connection.prepareStatement("INSERT INTO group_balances VALUES (1, ?, ?)")) {
+            for (Map.Entry<Long, BigDecimal> entry : balancesGroupedQuery().entrySet()) {
+                balance.setLong(1, entry.getKey());
+                balance.setLong(2, entry.getValue().movePointRight(2).longValueExact());
+                balance.addBatch();
+            }
+            balance.executeBatch();
+        }
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDownDatabase() throws SQLException {
+        connection.close();
+    }
+    
+    @Benchmark
+    public List<SettlementTransaction> optimizeSettlements() {
+        return SettlementService.optimizeSettlements(userIds, cents, userNames);
+    }
+    
+    @Benchmark
+    public SettlementEngine.Plan engineOnly() {
+        return SettlementEngine.settleGreedy(cents);
+    }
+    
+    @Benchmark
+    public List<SettlementTransaction> legacyBigDecimal() {
+        // The legacy algorithm mutates entry values, so work on a fresh copy each time
+        return legacyOptimizeSettlements(new HashMap<>(legacyBalances));
+    }
+    
+    @Benchmark
+    public Map<Long, BigDecimal> balancesPerMemberLoop() throws SQLException {
+        // Two SUM queries per member, then every settlement applied in Java
+        Map<Long, BigDecimal> balances = new HashMap<>();
+        for (long userId : userIds) {
+            BigDecimal totalOwed = sum(totalOwedByUser, userId);
+            BigDecimal totalPaid = sum(totalPaidByUser, userId);
+            balances.put(userId, totalPaid.subtract(totalOwed));
+        }
+        settlementsByGroup.setLong(1, 1);
+        try (ResultSet rows = settlementsByGroup.executeQuery()) {
+            while (rows.next()) {
+                long fromUserId = rows.getLong(1);
+                long toUserId = rows.getLong(2);
+                BigDecimal amount = rows.getBigDecimal(3);
+                if (balances.containsKey(fromUserId)) {
+                    balances.put(fromUserId, balances.get(fromUserId).add(amount));
+                }
+                if (balances.containsKey(toUserId)) {
+                    balances.put(toUserId, balances.get(toUserId).subtract(amount));
+                }
+            }
+        }
+        return balances;
+    }
+    
+    @Benchmark
+    public Map<Long, BigDecimal> balancesGroupedQuery() throws SQLException {
+        Map<Long, BigDecimal> balances = new HashMap<>();
+        for (int i = 1; i <= 4; i++) {
+            netBalancesByGroup.setLong(i, 1);
+        }
+        try (ResultSet rows = netBalancesByGroup.executeQuery()) {
+            while (rows.next()) {
+                balances.put(rows.getLong(1), rows.getBigDecimal(2));
+            }
+        }
+        return balances;
+    }
+    
+    @Benchmark
+    public Map<Long, Long> balancesLedgerLookup() throws SQLException {
+        Map<Long, Long> balances = new HashMap<>();
+        ledgerBalancesByGroup.setLong(1, 1);
+        try (ResultSet rows = ledgerBalancesByGroup.executeQuery()) {
+            while (rows.next()) {
+                balances.put(rows.getLong(1), rows.getLong(2));
+            }
+        }
+        return balances;
+    }
+    
+    private static BigDecimal sum(PreparedStatement query, long userId) throws SQLException {
+        query.setLong(1, 1);
+        query.setLong(2, userId);
+        try (ResultSet rows = query.executeQuery()) {
+            rows.next();
+            return rows.getBigDecimal(1);
+        }
+    }
+    
+    private List<SettlementTransaction> legacyOptimizeSettlements(Map<Long, BigDecimal> balances) {
+        List<SettlementTransaction> transactions = new ArrayList<>();
+        List<Map.Entry<Long, BigDecimal>> creditors = new ArrayList<>();
+        List<Map.Entry<Long, BigDecimal>> debtors = new ArrayList<>();
+        for (Map.Entry<Long, BigDecimal> entry : balances.entrySet()) {
+            if (entry.getValue().compareTo(BigDecimal.ZERO) > 0) {
+                creditors.add(entry);
+            } else if (entry.getValue().compareTo(BigDecimal.ZERO) < 0) {
+                debtors.add(entry);
+            }
+        }
+        creditors.sort((a, b) -> b.getValue().compareTo(a.getValue()));
+        debtors.sort((a, b) -> a.getValue().compareTo(b.getValue()));
+        
+        int creditorIndex = 0;
+        int debtorIndex = 0;
+        while (creditorIndex < creditors.size() && debtorIndex < debtors.size()) {
+            Map.Entry<Long, BigDecimal> creditor = creditors.get(creditorIndex);
+            Map.Entry<Long, BigDecimal> debtor = debtors.get(debtorIndex);
+            BigDecimal creditorAmount = creditor.getValue();
+            BigDecimal debtorAmount = debtor.getValue().abs();
+            BigDecimal debtorOriginalValue = debtor.getValue();
+            BigDecimal transactionAmount = creditorAmount.min(debtorAmount);
+            
+            if (transactionAmount.compareTo(BigDecimal.ZERO) > 0) {
+                transactions.add(new SettlementTransaction(debtor.getKey(), userNames.get(debtor.getKey()),
+                        creditor.getKey(), userNames.get(creditor.getKey()), transactionAmount));
+                creditor.setValue(creditorAmount.subtract(transactionAmount));
+                debtor.setValue(debtorOriginalValue.add(transactionAmount));
+                BigDecimal epsilon = new BigDecimal("0.01");
+                if (creditor.getValue().abs().compareTo(epsilon) < 0) {
+                    creditorIndex++;
+                }
+                if (debtor.getValue().abs().compareTo(epsilon) < 0) {
+                    debtorIndex++;
+                }
+            } else {
+                creditorIndex++;
+                debtorIndex++;
+            }
+        }
+        return transactions;
+    }
+}
@@ -23,6 +23,9 @@ import java.util.Map;
 @Tag(name = "Authentication", description = "Authentication management APIs")
 public class AuthController {
     
+    // Replacement for the caller's token after a change that revoked it
+    static final String ACCESS_TOKEN_HEADER = "X-Access-Token";
+    
     @Autowired
     private AuthService authService;
     
@@ -62,7 +65,9 @@ public class AuthController {
     @Operation(summary = "Update user profile")
     public ResponseEntity<User> updateProfile(@Valid @RequestBody UpdateProfileRequest updateRequest) {
         User updatedUser = authService.updateProfile(updateRequest);
-        return ResponseEntity.ok(updatedUser);
+        return ResponseEntity.ok()
+                .header(ACCESS_TOKEN_HEADER, authService.issueToken(updatedUser))
+                .body(updatedUser);
     }
     
     @PutMapping("/password")
@@ -72,7 +77,9 @@ public class AuthController {
         authService.updatePassword(updateRequest);
         Map<String, String> response = new HashMap<>();
         response.put("message", "Password updated successfully");
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok()
+                .header(ACCESS_TOKEN_HEADER, authService.issueToken(authService.getCurrentUser()))
+                .body(response);
     }
 }
 
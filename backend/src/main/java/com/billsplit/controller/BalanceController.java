@@ -0,0 +1,31 @@
+package com.billsplit.controller;
+
+import com.billsplit.dto.CounterpartyBalanceDTO;
+import com.billsplit.service.BalanceService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/balances")
+@Tag(name = "Balances", description = "Cross-group balance APIs")
+@PreAuthorize("hasRole('USER')")
+public class BalanceController {
+    
+    @Autowired
+    private BalanceService balanceService;
+    
+    @GetMapping("/me")
+    @Operation(summary = "Get net balances with each counterparty across all of the user's groups")
+    public ResponseEntity<List<CounterpartyBalanceDTO>> getMyBalances() {
+        List<CounterpartyBalanceDTO> balances = balanceService.getMyBalances();
+        return ResponseEntity.ok(balances);
+    }
+}
@@ -0,0 +1,42 @@
+package com.billsplit.controller;
+
+import com.billsplit.service.FxRateService;
+import com.billsplit.service.FxRateSnapshot;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/currencies")
+@Tag(name = "Currencies", description = "Supported currencies and exchange rates")
+@PreAuthorize("hasRole('USER')")
+public class CurrencyController {
+    
+    @Autowired
+    private FxRateService fxRateService;
+    
+    @GetMapping
+    @Operation(summary = "List supported currencies with their rates against the pivot currency")
+    public ResponseEntity<Map<String, Object>> getCurrencies() {
+        FxRateSnapshot rates = fxRateService.current();
+        Map<String, BigDecimal> unitsPerPivot = new LinkedHashMap<>();
+        for (String currency : rates.getCurrencies()) {
+            unitsPerPivot.put(currency, rates.getUnitsPerPivot(currency));
+        }
+        
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("pivotCurrency", rates.getPivotCurrency());
+        response.put("loadedAt", rates.getLoadedAt());
+        response.put("rates", unitsPerPivot);
+        return ResponseEntity.ok(response);
+    }
+}
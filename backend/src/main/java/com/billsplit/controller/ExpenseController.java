@@ -1,17 +1,30 @@
 package com.billsplit.controller;
 
+import com.billsplit.dto.CursorPage;
+import com.billsplit.dto.ExpenseDetailsDTO;
 import com.billsplit.dto.ExpenseRequest;
+import com.billsplit.dto.RecurringExpenseRequest;
 import com.billsplit.entity.Expense;
 import com.billsplit.entity.ExpenseShare;
+import com.billsplit.entity.RecurringExpense;
+import com.billsplit.service.ExpenseImportService;
 import com.billsplit.service.ExpenseService;
+import com.billsplit.service.RecurringExpenseService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 @RestController
@@ -20,9 +33,17 @@ import java.util.List;
 @PreAuthorize("hasRole('USER')")
 public class ExpenseController {
     
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+    
     @Autowired
     private ExpenseService expenseService;
     
+    @Autowired
+    private ExpenseImportService expenseImportService;
+    
+    @Autowired
+    private RecurringExpenseService recurringExpenseService;
+    
     @PostMapping
     @Operation(summary = "Create a new expense")
     public ResponseEntity<Expense> createExpense(@Valid @RequestBody ExpenseRequest expenseRequest) {
@@ -31,12 +52,71 @@ public class ExpenseController {
     }
     
     @GetMapping("/group/{groupId}")
+    @PreAuthorize("hasRole('USER') and @membership.isMember(#groupId)")
     @Operation(summary = "Get expenses for a group")
     public ResponseEntity<List<Expense>> getGroupExpenses(@PathVariable Long groupId) {
         List<Expense> expenses = expenseService.getGroupExpenses(groupId);
         return ResponseEntity.ok(expenses);
     }
     
+    @GetMapping(value = "/group/{groupId}", params = "limit")
+    @PreAuthorize("hasRole('USER') and @membership.isMember(#groupId)")
+    @Operation(summary = "Get one page of group expenses, newest first (pass nextCursor as 'cursor' for the next page)")
+    public ResponseEntity<CursorPage<Expense>> getGroupExpensesPage(@PathVariable Long groupId,
+                                                                    @RequestParam(required = false) String cursor,
+                                                                    @RequestParam int limit) {
+        CursorPage<Expense> page = expenseService.getGroupExpensesPage(groupId, cursor, limit);
+        return ResponseEntity.ok(page);
+    }
+    
+    @GetMapping("/group/{groupId}/with-shares")
+    @PreAuthorize("hasRole('USER') and @membership.isMember(#groupId)")
+    @Operation(summary = "Get expenses for a group with their shares embedded")
+    public ResponseEntity<List<ExpenseDetailsDTO>> getGroupExpensesWithShares(@PathVariable Long groupId) {
+        List<ExpenseDetailsDTO> expenses = expenseService.getGroupExpensesWithShares(groupId);
+        return ResponseEntity.ok(expenses);
+    }
+    
+    @PostMapping(value = "/group/{groupId}/import", consumes = {"text/csv", "application/x-ndjson"})
+    @PreAuthorize("hasRole('USER') and @membership.isMember(#groupId)")
+    @Operation(summary = "Bulk import expenses from CSV or NDJSON; streams an NDJSON result per row, then a summary line")
+    public void importExpenses(@PathVariable Long groupId, HttpServletRequest request,
+                               HttpServletResponse response) throws IOException {
+        // Membership is checked before the report starts, so failures get a normal error response
+        ExpenseImportService.ImportScope scope = expenseImportService.openImport(groupId);
+        ExpenseImportService.Format format = MediaType.parseMediaType(request.getContentType())
+                .isCompatibleWith(TEXT_CSV) ? ExpenseImportService.Format.CSV : ExpenseImportService.Format.NDJSON;
+        
+        response.setContentType("application/x-ndjson");
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        Reader body = new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8);
+        expenseImportService.importExpenses(scope, format, body, response.getWriter());
+    }
+    
+    @PostMapping("/recurring")
+    @Operation(summary = "Create a recurring expense; the expense is posted on every occurrence")
+    public ResponseEntity<RecurringExpense> createRecurringExpense(@Valid @RequestBody RecurringExpenseRequest request) {
+        RecurringExpense recurringExpense = recurringExpenseService.createRecurringExpense(request);
+        return ResponseEntity.ok(recurringExpense);
+    }
+    
+    @GetMapping("/group/{groupId}/recurring")
+    @PreAuthorize("hasRole('USER') and @membership.isMember(#groupId)")
+    @Operation(summary = "Get recurring expenses for a group")
+    public ResponseEntity<List<RecurringExpense>> getGroupRecurringExpenses(@PathVariable Long groupId) {
+        List<RecurringExpense> recurringExpenses = recurringExpenseService.getGroupRecurringExpenses(groupId);
+        return ResponseEntity.ok(recurringExpenses);
+    }
+    
+    @DeleteMapping("/group/{groupId}/recurring/{recurringExpenseId}")
+    @PreAuthorize("hasRole('USER') and @membership.isMember(#groupId)")
+    @Operation(summary = "Stop a recurring expense (creator or group admin); posted expenses are kept")
+    public ResponseEntity<RecurringExpense> stopRecurringExpense(@PathVariable Long groupId,
+                                                                 @PathVariable Long recurringExpenseId) {
+        RecurringExpense recurringExpense = recurringExpenseService.stopRecurringExpense(groupId, recurringExpenseId);
+        return ResponseEntity.ok(recurringExpense);
+    }
+    
     @GetMapping("/{expenseId}")
     @Operation(summary = "Get expense by ID")
     public ResponseEntity<Expense> getExpense(@PathVariable Long expenseId) {
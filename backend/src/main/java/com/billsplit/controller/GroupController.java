@@ -2,6 +2,7 @@ package com.billsplit.controller;
 
 import com.billsplit.dto.GroupInvitationDTO;
 import com.billsplit.dto.GroupRequest;
+import com.billsplit.dto.PendingMemberBalance;
 import com.billsplit.dto.UpdateGroupRequest;
 import com.billsplit.entity.Group;
 import com.billsplit.entity.GroupMember;
@@ -40,6 +41,7 @@ public class GroupController {
     }
     
     @GetMapping("/{groupId}")
+    @PreAuthorize("hasRole('USER') and @membership.isMember(#groupId)")
     @Operation(summary = "Get group by ID")
     public ResponseEntity<Group> getGroup(@PathVariable Long groupId) {
         Group group = groupService.getGroupById(groupId);
@@ -47,6 +49,7 @@ public class GroupController {
     }
     
     @GetMapping("/{groupId}/members")
+    @PreAuthorize("hasRole('USER') and @membership.isMember(#groupId)")
     @Operation(summary = "Get group members")
     public ResponseEntity<List<GroupMember>> getGroupMembers(@PathVariable Long groupId) {
         List<GroupMember> members = groupService.getGroupMembers(groupId);
@@ -54,6 +57,7 @@ public class GroupController {
     }
     
     @PostMapping("/{groupId}/members")
+    @PreAuthorize("hasRole('USER') and @membership.isMember(#groupId)")
     @Operation(summary = "Add member to group")
     public ResponseEntity<Void> addMember(@PathVariable Long groupId, @RequestParam String email) {
         groupService.addMemberToGroup(groupId, email);
@@ -61,6 +65,7 @@ public class GroupController {
     }
     
     @DeleteMapping("/{groupId}/members/{userId}")
+    @PreAuthorize("hasRole('USER') and @membership.isMember(#groupId)")
     @Operation(summary = "Remove member from group")
     public ResponseEntity<Void> removeMember(@PathVariable Long groupId, @PathVariable Long userId) {
         groupService.removeMemberFromGroup(groupId, userId);
@@ -68,6 +73,7 @@ public class GroupController {
     }
     
     @DeleteMapping("/{groupId}/pending-members/{pendingMemberId}")
+    @PreAuthorize("hasRole('USER') and @membership.isMember(#groupId)")
     @Operation(summary = "Remove pending member from group")
     public ResponseEntity<Void> removePendingMember(@PathVariable Long groupId, @PathVariable Long pendingMemberId) {
         groupService.removePendingMemberFromGroup(groupId, pendingMemberId);
@@ -75,6 +81,7 @@ public class GroupController {
     }
     
     @PostMapping("/{groupId}/leave")
+    @PreAuthorize("hasRole('USER') and @membership.isMember(#groupId)")
     @Operation(summary = "Leave group")
     public ResponseEntity<Void> leaveGroup(@PathVariable Long groupId) {
         groupService.leaveGroup(groupId);
@@ -82,6 +89,7 @@ public class GroupController {
     }
     
     @PutMapping("/{groupId}")
+    @PreAuthorize("hasRole('USER') and @membership.isMember(#groupId)")
     @Operation(summary = "Update group")
     public ResponseEntity<Group> updateGroup(@PathVariable Long groupId, @Valid @RequestBody UpdateGroupRequest updateRequest) {
         Group group = groupService.updateGroup(groupId, updateRequest);
@@ -89,12 +97,21 @@ public class GroupController {
     }
     
     @GetMapping("/{groupId}/pending-members")
+    @PreAuthorize("hasRole('USER') and @membership.isMember(#groupId)")
     @Operation(summary = "Get pending group members")
     public ResponseEntity<List<com.billsplit.entity.PendingGroupMember>> getPendingMembers(@PathVariable Long groupId) {
         List<com.billsplit.entity.PendingGroupMember> pendingMembers = groupService.getPendingMembers(groupId);
         return ResponseEntity.ok(pendingMembers);
     }
     
+    @GetMapping("/{groupId}/pending-balances")
+    @PreAuthorize("hasRole('USER') and @membership.isMember(#groupId)")
+    @Operation(summary = "Get the total each pending member owes in the group")
+    public ResponseEntity<List<PendingMemberBalance>> getPendingMemberBalances(@PathVariable Long groupId) {
+        List<PendingMemberBalance> balances = groupService.getPendingMemberBalances(groupId);
+        return ResponseEntity.ok(balances);
+    }
+    
     @GetMapping("/invitations")
     @Operation(summary = "Get pending invitations for current user")
     public ResponseEntity<List<GroupInvitationDTO>> getPendingInvitations() {
@@ -117,6 +134,7 @@ public class GroupController {
     }
     
     @DeleteMapping("/{groupId}")
+    @PreAuthorize("hasRole('USER') and @membership.isMember(#groupId)")
     @Operation(summary = "Delete a group (admin only)")
     public ResponseEntity<Void> deleteGroup(@PathVariable Long groupId) {
         groupService.deleteGroup(groupId);
@@ -1,6 +1,14 @@
 package com.billsplit.controller;
 
+import com.billsplit.security.BoundedPasswordEncoder;
+import com.billsplit.security.JwtTokenProvider;
+import com.billsplit.service.EmailOutboxService;
 import com.billsplit.service.EmailService;
+import com.billsplit.service.FxRateService;
+import com.billsplit.service.FxRateSnapshot;
+import com.billsplit.service.MembershipService;
+import com.billsplit.service.SettlementPlanCache;
+import com.billsplit.service.TokenVersionService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
@@ -19,6 +27,27 @@ public class HealthController {
     @Autowired(required = false)
     private EmailService emailService;
     
+    @Autowired(required = false)
+    private SettlementPlanCache settlementPlanCache;
+    
+    @Autowired(required = false)
+    private MembershipService membershipService;
+    
+    @Autowired(required = false)
+    private EmailOutboxService emailOutboxService;
+    
+    @Autowired(required = false)
+    private FxRateService fxRateService;
+    
+    @Autowired(required = false)
+    private JwtTokenProvider jwtTokenProvider;
+    
+    @Autowired(required = false)
+    private TokenVersionService tokenVersionService;
+    
+    @Autowired(required = false)
+    private BoundedPasswordEncoder passwordEncoder;
+    
     @Value("${brevo.api.key:}")
     private String brevoApiKey;
     
@@ -38,6 +67,54 @@ public class HealthController {
         response.put("brevo_api_key_set", brevoApiKey != null && !brevoApiKey.trim().isEmpty() ? "YES" : "NO");
         response.put("brevo_from_email_set", brevoFromEmail != null && !brevoFromEmail.trim().isEmpty() ? "YES" : "NO");
         response.put("email_provider", "Brevo API (Free: 300 emails/day)");
+        if (emailOutboxService != null) {
+            response.put("email_outbox_pending", String.valueOf(emailOutboxService.countPending()));
+        }
+        
+        // Settlement plan cache statistics, for sizing app.settlement.cache.*
+        if (settlementPlanCache != null) {
+            response.put("settlement_cache_hits", String.valueOf(settlementPlanCache.getHits()));
+            response.put("settlement_cache_misses", String.valueOf(settlementPlanCache.getMisses()));
+            response.put("settlement_cache_size", String.valueOf(settlementPlanCache.size()));
+        }
+        
+        // Membership cache statistics, for sizing app.membership.cache.*
+        if (membershipService != null) {
+            response.put("membership_cache_hits", String.valueOf(membershipService.getHits()));
+            response.put("membership_cache_misses", String.valueOf(membershipService.getMisses()));
+            response.put("membership_cache_size", String.valueOf(membershipService.size()));
+        }
+        
+        // Verified-token cache statistics, for sizing jwt.cache.*
+        if (jwtTokenProvider != null) {
+            response.put("jwt_cache_hits", String.valueOf(jwtTokenProvider.getCacheHits()));
+            response.put("jwt_cache_misses", String.valueOf(jwtTokenProvider.getCacheMisses()));
+            response.put("jwt_cache_size", String.valueOf(jwtTokenProvider.getCacheSize()));
+        }
+        
+        // Token version cache statistics, for sizing app.auth.token-version-cache.*
+        if (tokenVersionService != null) {
+            response.put("token_version_cache_hits", String.valueOf(tokenVersionService.getHits()));
+            response.put("token_version_cache_misses", String.valueOf(tokenVersionService.getMisses()));
+            response.put("token_version_cache_size", String.valueOf(tokenVersionService.size()));
+        }
+        
+        // Password hashing pool, for sizing app.auth.password-hashing.*
+        if (passwordEncoder != null) {
+            response.put("password_hashing_queue_depth", String.valueOf(passwordEncoder.getQueueDepth()));
+            response.put("password_hashing_active", String.valueOf(passwordEncoder.getActiveCount()));
+            response.put("password_hashing_completed", String.valueOf(passwordEncoder.getCompleted()));
+            response.put("password_hashing_rejected", String.valueOf(passwordEncoder.getRejected()));
+            response.put("password_hashing_avg_queue_ms", String.format("%.1f", passwordEncoder.getAverageQueueMillis()));
+            response.put("password_hashing_avg_hash_ms", String.format("%.1f", passwordEncoder.getAverageHashMillis()));
+        }
+        
+        // Exchange rate snapshot in use, to spot a refresh that stopped
+        if (fxRateService != null) {
+            FxRateSnapshot rates = fxRateService.current();
+            response.put("fx_currencies", String.valueOf(rates.getCurrencies().size()));
+            response.put("fx_loaded_at", String.valueOf(rates.getLoadedAt()));
+        }
         
         return ResponseEntity.ok(response);
     }
@@ -59,8 +136,8 @@ public class HealthController {
         try {
             emailService.sendGroupInvitation(to.trim(), "Test Group", "System Test");
             response.put("status", "success");
-            response.put("message", "Test email sent to " + to);
-            response.put("note", "Check your inbox and spam folder");
+            response.put("message", "Test email queued for " + to);
+            response.put("note", "It is delivered by the email outbox within a few seconds; check your inbox and spam folder");
         } catch (Exception e) {
             response.put("status", "error");
             response.put("message", "Failed to send test email: " + e.getMessage());
@@ -1,9 +1,13 @@
 package com.billsplit.controller;
 
+import com.billsplit.dto.CursorPage;
+import com.billsplit.dto.SettleAllRequest;
 import com.billsplit.dto.SettleUpRequest;
+import com.billsplit.dto.SettlementPlan;
 import com.billsplit.dto.SettlementTransaction;
 import com.billsplit.entity.Settlement;
 import com.billsplit.service.SettlementService;
+import com.billsplit.service.SettlementStrategy;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
@@ -20,17 +24,25 @@ import java.util.List;
 @PreAuthorize("hasRole('USER')")
 public class SettlementController {
     
+    static final String GROUP_VERSION_HEADER = "X-Group-Version";
+    
     @Autowired
     private SettlementService settlementService;
     
     @GetMapping("/group/{groupId}")
-    @Operation(summary = "Calculate optimal settlements for a group")
-    public ResponseEntity<List<SettlementTransaction>> calculateSettlements(@PathVariable Long groupId) {
-        List<SettlementTransaction> transactions = settlementService.calculateSettlements(groupId);
-        return ResponseEntity.ok(transactions);
+    @PreAuthorize("hasRole('USER') and @membership.isMember(#groupId)")
+    @Operation(summary = "Calculate optimal settlements for a group (strategy: GREEDY or EXACT)")
+    public ResponseEntity<List<SettlementTransaction>> calculateSettlements(@PathVariable Long groupId,
+                                                                            @RequestParam(defaultValue = "GREEDY") SettlementStrategy strategy) {
+        SettlementPlan plan = settlementService.calculateSettlementPlan(groupId, strategy);
+        // The version lets a client settle exactly this plan via settle-all
+        return ResponseEntity.ok()
+                .header(GROUP_VERSION_HEADER, String.valueOf(plan.getVersion()))
+                .body(plan.getTransactions());
     }
     
     @PostMapping("/group/{groupId}/process")
+    @PreAuthorize("hasRole('USER') and @membership.isMember(#groupId)")
     @Operation(summary = "Process settlements and send notifications")
     public ResponseEntity<Void> processSettlements(@PathVariable Long groupId) {
         settlementService.processSettlements(groupId);
@@ -38,20 +50,41 @@ public class SettlementController {
     }
     
     @PostMapping("/group/{groupId}/settle")
+    @PreAuthorize("hasRole('USER') and @membership.isMember(#groupId)")
     @Operation(summary = "Record a settlement")
     public ResponseEntity<Settlement> recordSettlement(@PathVariable Long groupId, @Valid @RequestBody SettleUpRequest settleUpRequest) {
         Settlement settlement = settlementService.recordSettlement(groupId, settleUpRequest);
         return ResponseEntity.ok(settlement);
     }
     
+    @PostMapping("/group/{groupId}/settle-all")
+    @PreAuthorize("hasRole('USER') and @membership.isMember(#groupId)")
+    @Operation(summary = "Record every transfer of a calculated settlement plan in one batch (admin only)")
+    public ResponseEntity<List<Settlement>> settleAll(@PathVariable Long groupId, @Valid @RequestBody SettleAllRequest settleAllRequest) {
+        List<Settlement> settlements = settlementService.settleAll(groupId, settleAllRequest);
+        return ResponseEntity.ok(settlements);
+    }
+    
     @GetMapping("/group/{groupId}/history")
+    @PreAuthorize("hasRole('USER') and @membership.isMember(#groupId)")
     @Operation(summary = "Get settlement history for a group")
     public ResponseEntity<List<Settlement>> getSettlementHistory(@PathVariable Long groupId) {
         List<Settlement> settlements = settlementService.getSettlementHistory(groupId);
         return ResponseEntity.ok(settlements);
     }
     
+    @GetMapping(value = "/group/{groupId}/history", params = "limit")
+    @PreAuthorize("hasRole('USER') and @membership.isMember(#groupId)")
+    @Operation(summary = "Get one page of settlement history, newest first (pass nextCursor as 'after' for the next page)")
+    public ResponseEntity<CursorPage<Settlement>> getSettlementHistoryPage(@PathVariable Long groupId,
+                                                                          @RequestParam(required = false) String after,
+                                                                          @RequestParam int limit) {
+        CursorPage<Settlement> page = settlementService.getSettlementHistoryPage(groupId, after, limit);
+        return ResponseEntity.ok(page);
+    }
+    
     @DeleteMapping("/group/{groupId}/{settlementId}")
+    @PreAuthorize("hasRole('USER') and @membership.isMember(#groupId)")
     @Operation(summary = "Delete a settlement (admin only)")
     public ResponseEntity<Void> deleteSettlement(@PathVariable Long groupId, @PathVariable Long settlementId) {
         settlementService.deleteSettlement(groupId, settlementId);
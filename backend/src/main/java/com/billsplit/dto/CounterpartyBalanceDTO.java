@@ -0,0 +1,114 @@
+package com.billsplit.dto;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+public class CounterpartyBalanceDTO {
+    
+    private Long counterpartyId;
+    private String counterpartyName;
+    // Positive: the counterparty owes you; negative: you owe the counterparty
+    private BigDecimal netAmount;
+    // Total across groups, converted into the pivot currency; each group's amount is in its base currency
+    private String currency;
+    private List<GroupAmount> groups = new ArrayList<>();
+    
+    public CounterpartyBalanceDTO() {}
+    
+    public CounterpartyBalanceDTO(Long counterpartyId, String counterpartyName) {
+        this.counterpartyId = counterpartyId;
+        this.counterpartyName = counterpartyName;
+        this.netAmount = BigDecimal.ZERO;
+    }
+    
+    // Getters and Setters
+    public Long getCounterpartyId() {
+        return counterpartyId;
+    }
+    
+    public void setCounterpartyId(Long counterpartyId) {
+        this.counterpartyId = counterpartyId;
+    }
+    
+    public String getCounterpartyName() {
+        return counterpartyName;
+    }
+    
+    public void setCounterpartyName(String counterpartyName) {
+        this.counterpartyName = counterpartyName;
+    }
+    
+    public BigDecimal getNetAmount() {
+        return netAmount;
+    }
+    
+    public void setNetAmount(BigDecimal netAmount) {
+        this.netAmount = netAmount;
+    }
+    
+    public String getCurrency() {
+        return currency;
+    }
+    
+    public void setCurrency(String currency) {
+        this.currency = currency;
+    }
+    
+    public List<GroupAmount> getGroups() {
+        return groups;
+    }
+    
+    public void setGroups(List<GroupAmount> groups) {
+        this.groups = groups;
+    }
+    
+    public static class GroupAmount {
+        
+        private Long groupId;
+        private String groupName;
+        private String currency;
+        private BigDecimal netAmount;
+        
+        public GroupAmount() {}
+        
+        public GroupAmount(Long groupId, String groupName, String currency, BigDecimal netAmount) {
+            this.groupId = groupId;
+            this.groupName = groupName;
+            this.currency = currency;
+            this.netAmount = netAmount;
+        }
+        
+        public Long getGroupId() {
+            return groupId;
+        }
+        
+        public void setGroupId(Long groupId) {
+            this.groupId = groupId;
+        }
+        
+        public String getGroupName() {
+            return groupName;
+        }
+        
+        public void setGroupName(String groupName) {
+            this.groupName = groupName;
+        }
+        
+        public String getCurrency() {
+            return currency;
+        }
+        
+        public void setCurrency(String currency) {
+            this.currency = currency;
+        }
+        
+        public BigDecimal getNetAmount() {
+            return netAmount;
+        }
+        
+        public void setNetAmount(BigDecimal netAmount) {
+            this.netAmount = netAmount;
+        }
+    }
+}
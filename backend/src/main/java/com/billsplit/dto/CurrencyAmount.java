@@ -0,0 +1,13 @@
+package com.billsplit.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Projection for an amount totalled per currency.
+ */
+public interface CurrencyAmount {
+    
+    String getCurrency();
+    
+    BigDecimal getAmount();
+}
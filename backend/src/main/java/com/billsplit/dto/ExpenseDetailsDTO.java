@@ -0,0 +1,244 @@
+package com.billsplit.dto;
+
+import com.billsplit.entity.Expense;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An expense with its shares and participant names embedded, so a group's expense
+ * list can be rendered without a request per expense.
+ */
+public class ExpenseDetailsDTO {
+    
+    private Long id;
+    private String description;
+    private BigDecimal amount;
+    private String currency;
+    private Expense.SplitType splitType;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private LocalDateTime deletedAt;
+    private Participant paidBy;
+    private Participant deletedBy;
+    private List<Share> shares = new ArrayList<>();
+    private List<PendingShare> pendingShares = new ArrayList<>();
+    
+    public ExpenseDetailsDTO() {}
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public String getDescription() {
+        return description;
+    }
+    
+    public void setDescription(String description) {
+        this.description = description;
+    }
+    
+    public BigDecimal getAmount() {
+        return amount;
+    }
+    
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+    
+    public String getCurrency() {
+        return currency;
+    }
+    
+    public void setCurrency(String currency) {
+        this.currency = currency;
+    }
+    
+    public Expense.SplitType getSplitType() {
+        return splitType;
+    }
+    
+    public void setSplitType(Expense.SplitType splitType) {
+        this.splitType = splitType;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+    
+    public LocalDateTime getDeletedAt() {
+        return deletedAt;
+    }
+    
+    public void setDeletedAt(LocalDateTime deletedAt) {
+        this.deletedAt = deletedAt;
+    }
+    
+    public Participant getPaidBy() {
+        return paidBy;
+    }
+    
+    public void setPaidBy(Participant paidBy) {
+        this.paidBy = paidBy;
+    }
+    
+    public Participant getDeletedBy() {
+        return deletedBy;
+    }
+    
+    public void setDeletedBy(Participant deletedBy) {
+        this.deletedBy = deletedBy;
+    }
+    
+    public List<Share> getShares() {
+        return shares;
+    }
+    
+    public void setShares(List<Share> shares) {
+        this.shares = shares;
+    }
+    
+    public List<PendingShare> getPendingShares() {
+        return pendingShares;
+    }
+    
+    public void setPendingShares(List<PendingShare> pendingShares) {
+        this.pendingShares = pendingShares;
+    }
+    
+    public static class Participant {
+        
+        private Long id;
+        private String name;
+        
+        public Participant() {}
+        
+        public Participant(Long id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+        
+        public Long getId() {
+            return id;
+        }
+        
+        public void setId(Long id) {
+            this.id = id;
+        }
+        
+        public String getName() {
+            return name;
+        }
+        
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+    
+    public static class Share {
+        
+        private Long userId;
+        private String userName;
+        private BigDecimal amountOwed;
+        
+        public Share() {}
+        
+        public Share(Long userId, String userName, BigDecimal amountOwed) {
+            this.userId = userId;
+            this.userName = userName;
+            this.amountOwed = amountOwed;
+        }
+        
+        public Long getUserId() {
+            return userId;
+        }
+        
+        public void setUserId(Long userId) {
+            this.userId = userId;
+        }
+        
+        public String getUserName() {
+            return userName;
+        }
+        
+        public void setUserName(String userName) {
+            this.userName = userName;
+        }
+        
+        public BigDecimal getAmountOwed() {
+            return amountOwed;
+        }
+        
+        public void setAmountOwed(BigDecimal amountOwed) {
+            this.amountOwed = amountOwed;
+        }
+    }
+    
+    public static class PendingShare {
+        
+        private Long pendingMemberId;
+        private String email;
+        private String name;
+        private BigDecimal amount;
+        
+        public PendingShare() {}
+        
+        public PendingShare(Long pendingMemberId, String email, String name, BigDecimal amount) {
+            this.pendingMemberId = pendingMemberId;
+            this.email = email;
+            this.name = name;
+            this.amount = amount;
+        }
+        
+        public Long getPendingMemberId() {
+            return pendingMemberId;
+        }
+        
+        public void setPendingMemberId(Long pendingMemberId) {
+            this.pendingMemberId = pendingMemberId;
+        }
+        
+        public String getEmail() {
+            return email;
+        }
+        
+        public void setEmail(String email) {
+            this.email = email;
+        }
+        
+        public String getName() {
+            return name;
+        }
+        
+        public void setName(String name) {
+            this.name = name;
+        }
+        
+        public BigDecimal getAmount() {
+            return amount;
+        }
+        
+        public void setAmount(BigDecimal amount) {
+            this.amount = amount;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.billsplit.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Outcome of one row of a bulk expense import. row is the 1-based line number in
+ * the uploaded file, so it matches the spreadsheet row of a CSV export.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ExpenseImportRowResult {
+    
+    private int row;
+    private Status status;
+    private Long expenseId;
+    private String error;
+    
+    public enum Status {
+        IMPORTED, FAILED
+    }
+    
+    public ExpenseImportRowResult() {}
+    
+    public ExpenseImportRowResult(int row) {
+        this.row = row;
+    }
+    
+    public static ExpenseImportRowResult failed(int row, String error) {
+        ExpenseImportRowResult result = new ExpenseImportRowResult(row);
+        result.status = Status.FAILED;
+        result.error = error;
+        return result;
+    }
+    
+    // Getters and Setters
+    public int getRow() {
+        return row;
+    }
+    
+    public void setRow(int row) {
+        this.row = row;
+    }
+    
+    public Status getStatus() {
+        return status;
+    }
+    
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+    
+    public Long getExpenseId() {
+        return expenseId;
+    }
+    
+    public void setExpenseId(Long expenseId) {
+        this.expenseId = expenseId;
+    }
+    
+    public String getError() {
+        return error;
+    }
+    
+    public void setError(String error) {
+        this.error = error;
+    }
+}
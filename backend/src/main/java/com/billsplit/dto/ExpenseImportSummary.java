@@ -0,0 +1,77 @@
+package com.billsplit.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Totals for a bulk expense import, sent as the last line of the import report.
+ * totalAmount is converted into currency, the group's base currency.
+ */
+public class ExpenseImportSummary {
+    
+    private int rows;
+    private int imported;
+    private int failed;
+    private String currency;
+    private BigDecimal totalAmount;
+    private long elapsedMs;
+    private double rowsPerSecond;
+    
+    public ExpenseImportSummary() {}
+    
+    // Getters and Setters
+    public int getRows() {
+        return rows;
+    }
+    
+    public void setRows(int rows) {
+        this.rows = rows;
+    }
+    
+    public int getImported() {
+        return imported;
+    }
+    
+    public void setImported(int imported) {
+        this.imported = imported;
+    }
+    
+    public int getFailed() {
+        return failed;
+    }
+    
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+    
+    public String getCurrency() {
+        return currency;
+    }
+    
+    public void setCurrency(String currency) {
+        this.currency = currency;
+    }
+    
+    public BigDecimal getTotalAmount() {
+        return totalAmount;
+    }
+    
+    public void setTotalAmount(BigDecimal totalAmount) {
+        this.totalAmount = totalAmount;
+    }
+    
+    public long getElapsedMs() {
+        return elapsedMs;
+    }
+    
+    public void setElapsedMs(long elapsedMs) {
+        this.elapsedMs = elapsedMs;
+    }
+    
+    public double getRowsPerSecond() {
+        return rowsPerSecond;
+    }
+    
+    public void setRowsPerSecond(double rowsPerSecond) {
+        this.rowsPerSecond = rowsPerSecond;
+    }
+}
@@ -2,8 +2,10 @@ package com.billsplit.dto;
 
 import com.billsplit.entity.Expense;
 import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
 
 import java.math.BigDecimal;
@@ -21,8 +23,13 @@ public class ExpenseRequest {
     
     @NotNull
     @DecimalMin(value = "0.01", message = "Amount must be greater than 0")
+    @Digits(integer = 8, fraction = 2, message = "Amount can have at most 2 decimal places")
     private BigDecimal amount;
     
+    // ISO 4217 code; the group's base currency if omitted
+    @Pattern(regexp = "[A-Za-z]{3}", message = "Currency must be a three-letter ISO 4217 code")
+    private String currency;
+    
     @NotNull
     private Expense.SplitType splitType;
     
@@ -69,6 +76,14 @@ public class ExpenseRequest {
         this.amount = amount;
     }
     
+    public String getCurrency() {
+        return currency;
+    }
+    
+    public void setCurrency(String currency) {
+        this.currency = currency;
+    }
+    
     public Expense.SplitType getSplitType() {
         return splitType;
     }
@@ -88,6 +103,10 @@ public class ExpenseRequest {
     public static class ExpenseShareRequest {
         private Long userId;
         private BigDecimal amountOwed;
+        // Used instead of amountOwed by the PERCENT, WEIGHTED and ITEMIZED split types
+        private BigDecimal percent;
+        private BigDecimal weight;
+        private BigDecimal itemAmount;
         
         public ExpenseShareRequest() {}
         
@@ -111,11 +130,39 @@ public class ExpenseRequest {
         public void setAmountOwed(BigDecimal amountOwed) {
             this.amountOwed = amountOwed;
         }
+        
+        public BigDecimal getPercent() {
+            return percent;
+        }
+        
+        public void setPercent(BigDecimal percent) {
+            this.percent = percent;
+        }
+        
+        public BigDecimal getWeight() {
+            return weight;
+        }
+        
+        public void setWeight(BigDecimal weight) {
+            this.weight = weight;
+        }
+        
+        public BigDecimal getItemAmount() {
+            return itemAmount;
+        }
+        
+        public void setItemAmount(BigDecimal itemAmount) {
+            this.itemAmount = itemAmount;
+        }
     }
     
     public static class PendingShareRequest {
         private String email;
         private BigDecimal amountOwed;
+        // Used instead of amountOwed by the PERCENT, WEIGHTED and ITEMIZED split types
+        private BigDecimal percent;
+        private BigDecimal weight;
+        private BigDecimal itemAmount;
         
         public PendingShareRequest() {}
         
@@ -139,6 +186,30 @@ public class ExpenseRequest {
         public void setAmountOwed(BigDecimal amountOwed) {
             this.amountOwed = amountOwed;
         }
+        
+        public BigDecimal getPercent() {
+            return percent;
+        }
+        
+        public void setPercent(BigDecimal percent) {
+            this.percent = percent;
+        }
+        
+        public BigDecimal getWeight() {
+            return weight;
+        }
+        
+        public void setWeight(BigDecimal weight) {
+            this.weight = weight;
+        }
+        
+        public BigDecimal getItemAmount() {
+            return itemAmount;
+        }
+        
+        public void setItemAmount(BigDecimal itemAmount) {
+            this.itemAmount = itemAmount;
+        }
     }
     
     public Long getPaidByUserId() {
@@ -1,6 +1,7 @@
 package com.billsplit.dto;
 
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
 
 import java.util.List;
@@ -13,6 +14,10 @@ public class GroupRequest {
     
     private List<String> memberEmails;
     
+    // ISO 4217 code that balances and settlement plans are shown in; app.fx.pivot-currency if omitted
+    @Pattern(regexp = "[A-Za-z]{3}", message = "Currency must be a three-letter ISO 4217 code")
+    private String baseCurrency;
+    
     public GroupRequest() {}
     
     public GroupRequest(String name, List<String> memberEmails) {
@@ -35,5 +40,12 @@ public class GroupRequest {
     public void setMemberEmails(List<String> memberEmails) {
         this.memberEmails = memberEmails;
     }
+    
+    public String getBaseCurrency() {
+        return baseCurrency;
+    }
+    
+    public void setBaseCurrency(String baseCurrency) {
+        this.baseCurrency = baseCurrency;
+    }
 }
-
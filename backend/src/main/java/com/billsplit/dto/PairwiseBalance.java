@@ -0,0 +1,18 @@
+package com.billsplit.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Projection for the per-counterparty balance aggregation.
+ * A positive netAmount means the counterparty owes the user in that group, in that currency.
+ */
+public interface PairwiseBalance {
+    
+    Long getGroupId();
+    
+    Long getCounterpartyId();
+    
+    String getCurrency();
+    
+    BigDecimal getNetAmount();
+}
@@ -0,0 +1,20 @@
+package com.billsplit.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Projection for the total a pending member owes across a group's non-deleted expenses,
+ * in the given currency.
+ */
+public interface PendingMemberBalance {
+    
+    Long getPendingMemberId();
+    
+    String getEmail();
+    
+    String getName();
+    
+    String getCurrency();
+    
+    BigDecimal getOwedAmount();
+}
@@ -0,0 +1,73 @@
+package com.billsplit.dto;
+
+import com.billsplit.entity.RecurringExpense;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.LocalDate;
+
+public class RecurringExpenseRequest {
+    
+    // Posted as a new expense on every occurrence
+    @NotNull
+    @Valid
+    private ExpenseRequest expense;
+    
+    @NotNull
+    private RecurringExpense.Frequency frequency;
+    
+    // Every interval days, weeks, months or years
+    @Min(1)
+    @Max(366)
+    private int interval = 1;
+    
+    // First occurrence; defaults to today
+    private LocalDate startDate;
+    
+    // Last possible occurrence, inclusive
+    private LocalDate endDate;
+    
+    public RecurringExpenseRequest() {}
+    
+    public ExpenseRequest getExpense() {
+        return expense;
+    }
+    
+    public void setExpense(ExpenseRequest expense) {
+        this.expense = expense;
+    }
+    
+    public RecurringExpense.Frequency getFrequency() {
+        return frequency;
+    }
+    
+    public void setFrequency(RecurringExpense.Frequency frequency) {
+        this.frequency = frequency;
+    }
+    
+    public int getInterval() {
+        return interval;
+    }
+    
+    public void setInterval(int interval) {
+        this.interval = interval;
+    }
+    
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+    
+    public void setStartDate(LocalDate startDate) {
+        this.startDate = startDate;
+    }
+    
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+    
+    public void setEndDate(LocalDate endDate) {
+        this.endDate = endDate;
+    }
+}
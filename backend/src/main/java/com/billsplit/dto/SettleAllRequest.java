@@ -0,0 +1,58 @@
+package com.billsplit.dto;
+
+import com.billsplit.service.SettlementStrategy;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public class SettleAllRequest {
+    
+    // X-Group-Version returned with the plan being settled
+    @NotNull
+    private Long version;
+    
+    // Strategy the plan was calculated with
+    private SettlementStrategy strategy = SettlementStrategy.GREEDY;
+    
+    @NotEmpty
+    private List<SettlementTransaction> transactions;
+    
+    @Size(max = 1000)
+    private String message;
+    
+    public SettleAllRequest() {}
+    
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+    
+    public SettlementStrategy getStrategy() {
+        return strategy;
+    }
+    
+    public void setStrategy(SettlementStrategy strategy) {
+        this.strategy = strategy;
+    }
+    
+    public List<SettlementTransaction> getTransactions() {
+        return transactions;
+    }
+    
+    public void setTransactions(List<SettlementTransaction> transactions) {
+        this.transactions = transactions;
+    }
+    
+    public String getMessage() {
+        return message;
+    }
+    
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
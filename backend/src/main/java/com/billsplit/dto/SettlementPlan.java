@@ -0,0 +1,47 @@
+package com.billsplit.dto;
+
+import java.util.List;
+
+/**
+ * A calculated settlement plan together with the group ledger version it was computed from.
+ * Amounts are in the group's base currency.
+ */
+public class SettlementPlan {
+    
+    private long version;
+    private String currency;
+    private List<SettlementTransaction> transactions;
+    
+    public SettlementPlan() {}
+    
+    public SettlementPlan(long version, String currency, List<SettlementTransaction> transactions) {
+        this.version = version;
+        this.currency = currency;
+        this.transactions = transactions;
+    }
+    
+    // Getters and Setters
+    public long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(long version) {
+        this.version = version;
+    }
+    
+    public String getCurrency() {
+        return currency;
+    }
+    
+    public void setCurrency(String currency) {
+        this.currency = currency;
+    }
+    
+    public List<SettlementTransaction> getTransactions() {
+        return transactions;
+    }
+    
+    public void setTransactions(List<SettlementTransaction> transactions) {
+        this.transactions = transactions;
+    }
+}
@@ -1,5 +1,6 @@
 package com.billsplit.dto;
 
+import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
 
 public class UpdateGroupRequest {
@@ -10,6 +11,10 @@ public class UpdateGroupRequest {
     @Size(max = 500)
     private String imageUrl;
     
+    // Changing it re-expresses existing balances at current rates; the ledger is unchanged
+    @Pattern(regexp = "[A-Za-z]{3}", message = "Currency must be a three-letter ISO 4217 code")
+    private String baseCurrency;
+    
     public UpdateGroupRequest() {}
     
     public String getName() {
@@ -27,4 +32,12 @@ public class UpdateGroupRequest {
     public void setImageUrl(String imageUrl) {
         this.imageUrl = imageUrl;
     }
+    
+    public String getBaseCurrency() {
+        return baseCurrency;
+    }
+    
+    public void setBaseCurrency(String baseCurrency) {
+        this.baseCurrency = baseCurrency;
+    }
 }
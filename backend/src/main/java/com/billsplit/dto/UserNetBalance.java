@@ -0,0 +1,16 @@
+package com.billsplit.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Projection for the grouped balance aggregation query, one row per user and currency.
+ * netAmount = total paid - total owed + settlements paid out - settlements received.
+ */
+public interface UserNetBalance {
+    
+    Long getUserId();
+    
+    String getCurrency();
+    
+    BigDecimal getNetAmount();
+}
@@ -0,0 +1,42 @@
+package com.billsplit.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "balance_checkpoints")
+public class BalanceCheckpoint {
+    
+    @Id
+    @Column(name = "group_id", nullable = false)
+    private Long groupId;
+    
+    // Watermark: rows created before this instant are folded into the checkpoint entries
+    @Column(name = "watermark_at", nullable = false)
+    private LocalDateTime watermarkAt;
+    
+    // Constructors
+    public BalanceCheckpoint() {}
+    
+    public BalanceCheckpoint(Long groupId) {
+        this.groupId = groupId;
+    }
+    
+    // Getters and Setters
+    public Long getGroupId() {
+        return groupId;
+    }
+    
+    public void setGroupId(Long groupId) {
+        this.groupId = groupId;
+    }
+    
+    public LocalDateTime getWatermarkAt() {
+        return watermarkAt;
+    }
+    
+    public void setWatermarkAt(LocalDateTime watermarkAt) {
+        this.watermarkAt = watermarkAt;
+    }
+}
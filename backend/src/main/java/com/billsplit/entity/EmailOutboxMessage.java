@@ -0,0 +1,152 @@
+package com.billsplit.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "email_outbox")
+public class EmailOutboxMessage {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "email_outbox_id_seq")
+    @SequenceGenerator(name = "email_outbox_id_seq", sequenceName = "email_outbox_id_seq", allocationSize = 50)
+    private Long id;
+    
+    @Column(name = "to_email", nullable = false)
+    private String toEmail;
+    
+    @Column(name = "subject", nullable = false, length = 500)
+    private String subject;
+    
+    @Column(name = "text_content", nullable = false, columnDefinition = "TEXT")
+    private String textContent;
+    
+    @Column(name = "html_content", columnDefinition = "TEXT")
+    private String htmlContent;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private Status status = Status.PENDING;
+    
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+    
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+    
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String lastError;
+    
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+    
+    // Constructors
+    public EmailOutboxMessage() {}
+    
+    public EmailOutboxMessage(String toEmail, String subject, String textContent, String htmlContent) {
+        this.toEmail = toEmail;
+        this.subject = subject;
+        this.textContent = textContent;
+        this.htmlContent = htmlContent;
+        this.nextAttemptAt = LocalDateTime.now();
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public String getToEmail() {
+        return toEmail;
+    }
+    
+    public void setToEmail(String toEmail) {
+        this.toEmail = toEmail;
+    }
+    
+    public String getSubject() {
+        return subject;
+    }
+    
+    public void setSubject(String subject) {
+        this.subject = subject;
+    }
+    
+    public String getTextContent() {
+        return textContent;
+    }
+    
+    public void setTextContent(String textContent) {
+        this.textContent = textContent;
+    }
+    
+    public String getHtmlContent() {
+        return htmlContent;
+    }
+    
+    public void setHtmlContent(String htmlContent) {
+        this.htmlContent = htmlContent;
+    }
+    
+    public Status getStatus() {
+        return status;
+    }
+    
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+    
+    public int getAttempts() {
+        return attempts;
+    }
+    
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+    
+    public LocalDateTime getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+    
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) {
+        this.nextAttemptAt = nextAttemptAt;
+    }
+    
+    public String getLastError() {
+        return lastError;
+    }
+    
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+    
+    public LocalDateTime getSentAt() {
+        return sentAt;
+    }
+    
+    public void setSentAt(LocalDateTime sentAt) {
+        this.sentAt = sentAt;
+    }
+    
+    public enum Status {
+        PENDING, SENT, FAILED
+    }
+}
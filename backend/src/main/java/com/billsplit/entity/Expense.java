@@ -21,7 +21,9 @@ import java.util.List;
 public class Expense {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Pooled: one nextval reserves a block of 50 ids, which lets Hibernate batch inserts
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "expenses_id_seq")
+    @SequenceGenerator(name = "expenses_id_seq", sequenceName = "expenses_id_seq", allocationSize = 50)
     private Long id;
     
     @JsonIgnore
@@ -39,6 +41,10 @@ public class Expense {
     @Column(name = "amount", nullable = false, precision = 10, scale = 2)
     private BigDecimal amount;
     
+    @NotNull
+    @Column(name = "currency", nullable = false, length = 3)
+    private String currency;
+    
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "paid_by", nullable = false)
     private User paidBy;
@@ -110,6 +116,14 @@ public class Expense {
         this.amount = amount;
     }
     
+    public String getCurrency() {
+        return currency;
+    }
+    
+    public void setCurrency(String currency) {
+        this.currency = currency;
+    }
+    
     public User getPaidBy() {
         return paidBy;
     }
@@ -167,7 +181,7 @@ public class Expense {
     }
     
     public enum SplitType {
-        EQUAL, CUSTOM
+        EQUAL, CUSTOM, PERCENT, WEIGHTED, ITEMIZED
     }
 }
 
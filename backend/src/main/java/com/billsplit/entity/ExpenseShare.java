@@ -3,8 +3,10 @@ package com.billsplit.entity;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.CreationTimestamp;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "expense_shares", 
@@ -12,7 +14,8 @@ import java.math.BigDecimal;
 public class ExpenseShare {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "expense_shares_id_seq")
+    @SequenceGenerator(name = "expense_shares_id_seq", sequenceName = "expense_shares_id_seq", allocationSize = 50)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
@@ -28,6 +31,10 @@ public class ExpenseShare {
     @Column(name = "amount_owed", nullable = false, precision = 10, scale = 2)
     private BigDecimal amountOwed;
     
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
     // Constructors
     public ExpenseShare() {}
     
@@ -69,5 +76,13 @@ public class ExpenseShare {
     public void setAmountOwed(BigDecimal amountOwed) {
         this.amountOwed = amountOwed;
     }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
 }
 
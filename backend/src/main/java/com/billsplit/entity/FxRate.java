@@ -0,0 +1,50 @@
+package com.billsplit.entity;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "fx_rates")
+public class FxRate {
+    
+    @Id
+    @Column(name = "currency", nullable = false, length = 3)
+    private String currency;
+    
+    // Units of this currency per one unit of the pivot currency
+    @Column(name = "units_per_pivot", nullable = false, precision = 18, scale = 6)
+    private BigDecimal unitsPerPivot;
+    
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+    
+    // Constructors
+    public FxRate() {}
+    
+    // Getters and Setters
+    public String getCurrency() {
+        return currency;
+    }
+    
+    public void setCurrency(String currency) {
+        this.currency = currency;
+    }
+    
+    public BigDecimal getUnitsPerPivot() {
+        return unitsPerPivot;
+    }
+    
+    public void setUnitsPerPivot(BigDecimal unitsPerPivot) {
+        this.unitsPerPivot = unitsPerPivot;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -30,6 +30,10 @@ public class Group {
     @Column(name = "image_url")
     private String imageUrl;
     
+    // Balances and settlement plans are shown in this currency
+    @Column(name = "base_currency", nullable = false, length = 3)
+    private String baseCurrency = "USD";
+    
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "created_by", nullable = false)
     private User createdBy;
@@ -42,6 +46,11 @@ public class Group {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
     
+    // Maintained only through GroupRepository.incrementLedgerVersion, never written from the entity
+    @JsonIgnore
+    @Column(name = "ledger_version", nullable = false, insertable = false, updatable = false)
+    private long ledgerVersion;
+    
     @JsonIgnore
     @OneToMany(mappedBy = "group", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<GroupMember> members = new ArrayList<>();
@@ -83,6 +92,14 @@ public class Group {
         this.imageUrl = imageUrl;
     }
     
+    public String getBaseCurrency() {
+        return baseCurrency;
+    }
+    
+    public void setBaseCurrency(String baseCurrency) {
+        this.baseCurrency = baseCurrency;
+    }
+    
     public User getCreatedBy() {
         return createdBy;
     }
@@ -107,6 +124,14 @@ public class Group {
         this.updatedAt = updatedAt;
     }
     
+    public long getLedgerVersion() {
+        return ledgerVersion;
+    }
+    
+    public void setLedgerVersion(long ledgerVersion) {
+        this.ledgerVersion = ledgerVersion;
+    }
+    
     public List<GroupMember> getMembers() {
         return members;
     }
@@ -0,0 +1,100 @@
+package com.billsplit.entity;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+@Entity
+@Table(name = "group_balances")
+@IdClass(GroupBalance.GroupBalanceId.class)
+public class GroupBalance {
+    
+    @Id
+    @Column(name = "group_id", nullable = false)
+    private Long groupId;
+    
+    @Id
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+    
+    @Id
+    @Column(name = "currency", nullable = false, length = 3)
+    private String currency;
+    
+    // Net position in cents: positive means the user is owed money
+    @Column(name = "net_cents", nullable = false)
+    private long netCents;
+    
+    // Constructors
+    public GroupBalance() {}
+    
+    public GroupBalance(Long groupId, Long userId, String currency, long netCents) {
+        this.groupId = groupId;
+        this.userId = userId;
+        this.currency = currency;
+        this.netCents = netCents;
+    }
+    
+    // Getters and Setters
+    public Long getGroupId() {
+        return groupId;
+    }
+    
+    public void setGroupId(Long groupId) {
+        this.groupId = groupId;
+    }
+    
+    public Long getUserId() {
+        return userId;
+    }
+    
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+    
+    public String getCurrency() {
+        return currency;
+    }
+    
+    public void setCurrency(String currency) {
+        this.currency = currency;
+    }
+    
+    public long getNetCents() {
+        return netCents;
+    }
+    
+    public void setNetCents(long netCents) {
+        this.netCents = netCents;
+    }
+    
+    public static class GroupBalanceId implements Serializable {
+        
+        private Long groupId;
+        private Long userId;
+        private String currency;
+        
+        public GroupBalanceId() {}
+        
+        public GroupBalanceId(Long groupId, Long userId, String currency) {
+            this.groupId = groupId;
+            this.userId = userId;
+            this.currency = currency;
+        }
+        
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            GroupBalanceId that = (GroupBalanceId) o;
+            return Objects.equals(groupId, that.groupId) && Objects.equals(userId, that.userId)
+                    && Objects.equals(currency, that.currency);
+        }
+        
+        @Override
+        public int hashCode() {
+            return Objects.hash(groupId, userId, currency);
+        }
+    }
+}
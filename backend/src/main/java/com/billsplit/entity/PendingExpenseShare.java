@@ -0,0 +1,72 @@
+package com.billsplit.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+
+@Entity
+@Table(name = "pending_expense_shares",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"expense_id", "pending_member_id"}))
+public class PendingExpenseShare {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "pending_expense_shares_id_seq")
+    @SequenceGenerator(name = "pending_expense_shares_id_seq", sequenceName = "pending_expense_shares_id_seq", allocationSize = 50)
+    private Long id;
+    
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "expense_id", nullable = false)
+    private Expense expense;
+    
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "pending_member_id", nullable = false)
+    private PendingGroupMember pendingMember;
+    
+    @Column(name = "amount", nullable = false, precision = 10, scale = 2)
+    private BigDecimal amount;
+    
+    // Constructors
+    public PendingExpenseShare() {}
+    
+    public PendingExpenseShare(Expense expense, PendingGroupMember pendingMember, BigDecimal amount) {
+        this.expense = expense;
+        this.pendingMember = pendingMember;
+        this.amount = amount;
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public Expense getExpense() {
+        return expense;
+    }
+    
+    public void setExpense(Expense expense) {
+        this.expense = expense;
+    }
+    
+    public PendingGroupMember getPendingMember() {
+        return pendingMember;
+    }
+    
+    public void setPendingMember(PendingGroupMember pendingMember) {
+        this.pendingMember = pendingMember;
+    }
+    
+    public BigDecimal getAmount() {
+        return amount;
+    }
+    
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+}
@@ -0,0 +1,260 @@
+package com.billsplit.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import jakarta.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "recurring_expenses")
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+public class RecurringExpense {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "group_id", nullable = false)
+    private Group group;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "created_by", nullable = false)
+    private User createdBy;
+    
+    @Column(name = "description", nullable = false, length = 200)
+    private String description;
+    
+    @Column(name = "amount", nullable = false, precision = 10, scale = 2)
+    private BigDecimal amount;
+    
+    @Column(name = "currency", nullable = false, length = 3)
+    private String currency;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "split_type", nullable = false, length = 20)
+    private Expense.SplitType splitType;
+    
+    // The ExpenseRequest posted on every occurrence, as JSON
+    @JsonIgnore
+    @Column(name = "expense_template", nullable = false, columnDefinition = "TEXT")
+    private String expenseTemplate;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "frequency", nullable = false, length = 20)
+    private Frequency frequency;
+    
+    @Column(name = "interval_count", nullable = false)
+    private int intervalCount = 1;
+    
+    @Column(name = "start_date", nullable = false)
+    private LocalDate startDate;
+    
+    @Column(name = "end_date")
+    private LocalDate endDate;
+    
+    @Column(name = "next_run_date", nullable = false)
+    private LocalDate nextRunDate;
+    
+    @Column(name = "occurrences", nullable = false)
+    private int occurrences;
+    
+    @Column(name = "active", nullable = false)
+    private boolean active = true;
+    
+    @Column(name = "last_run_at")
+    private LocalDateTime lastRunAt;
+    
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String lastError;
+    
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
+    // Constructors
+    public RecurringExpense() {}
+    
+    /**
+     * Date of the occurrence with the given zero-based index. Always computed from the
+     * start date, so month-end dates are clamped per month instead of drifting.
+     */
+    public LocalDate occurrenceDate(int index) {
+        long steps = (long) index * intervalCount;
+        if (frequency == Frequency.DAILY) {
+            return startDate.plusDays(steps);
+        } else if (frequency == Frequency.WEEKLY) {
+            return startDate.plusWeeks(steps);
+        } else if (frequency == Frequency.MONTHLY) {
+            return startDate.plusMonths(steps);
+        }
+        return startDate.plusYears(steps);
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public Group getGroup() {
+        return group;
+    }
+    
+    public void setGroup(Group group) {
+        this.group = group;
+    }
+    
+    public User getCreatedBy() {
+        return createdBy;
+    }
+    
+    public void setCreatedBy(User createdBy) {
+        this.createdBy = createdBy;
+    }
+    
+    public String getDescription() {
+        return description;
+    }
+    
+    public void setDescription(String description) {
+        this.description = description;
+    }
+    
+    public BigDecimal getAmount() {
+        return amount;
+    }
+    
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+    
+    public String getCurrency() {
+        return currency;
+    }
+    
+    public void setCurrency(String currency) {
+        this.currency = currency;
+    }
+    
+    public Expense.SplitType getSplitType() {
+        return splitType;
+    }
+    
+    public void setSplitType(Expense.SplitType splitType) {
+        this.splitType = splitType;
+    }
+    
+    public String getExpenseTemplate() {
+        return expenseTemplate;
+    }
+    
+    public void setExpenseTemplate(String expenseTemplate) {
+        this.expenseTemplate = expenseTemplate;
+    }
+    
+    public Frequency getFrequency() {
+        return frequency;
+    }
+    
+    public void setFrequency(Frequency frequency) {
+        this.frequency = frequency;
+    }
+    
+    public int getIntervalCount() {
+        return intervalCount;
+    }
+    
+    public void setIntervalCount(int intervalCount) {
+        this.intervalCount = intervalCount;
+    }
+    
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+    
+    public void setStartDate(LocalDate startDate) {
+        this.startDate = startDate;
+    }
+    
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+    
+    public void setEndDate(LocalDate endDate) {
+        this.endDate = endDate;
+    }
+    
+    public LocalDate getNextRunDate() {
+        return nextRunDate;
+    }
+    
+    public void setNextRunDate(LocalDate nextRunDate) {
+        this.nextRunDate = nextRunDate;
+    }
+    
+    public int getOccurrences() {
+        return occurrences;
+    }
+    
+    public void setOccurrences(int occurrences) {
+        this.occurrences = occurrences;
+    }
+    
+    public boolean isActive() {
+        return active;
+    }
+    
+    public void setActive(boolean active) {
+        this.active = active;
+    }
+    
+    public LocalDateTime getLastRunAt() {
+        return lastRunAt;
+    }
+    
+    public void setLastRunAt(LocalDateTime lastRunAt) {
+        this.lastRunAt = lastRunAt;
+    }
+    
+    public String getLastError() {
+        return lastError;
+    }
+    
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+    
+    public enum Frequency {
+        DAILY, WEEKLY, MONTHLY, YEARLY
+    }
+}
@@ -14,7 +14,8 @@ import java.time.LocalDateTime;
 public class Settlement {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "settlements_id_seq")
+    @SequenceGenerator(name = "settlements_id_seq", sequenceName = "settlements_id_seq", allocationSize = 50)
     private Long id;
     
     @JsonIgnore
@@ -33,6 +34,10 @@ public class Settlement {
     @Column(name = "amount", nullable = false, precision = 10, scale = 2)
     private BigDecimal amount;
     
+    // Always the group's base currency at the time the settlement was recorded
+    @Column(name = "currency", nullable = false, length = 3)
+    private String currency;
+    
     @Column(name = "message", columnDefinition = "TEXT")
     private String message;
     
@@ -51,6 +56,7 @@ public class Settlement {
         this.fromUser = fromUser;
         this.toUser = toUser;
         this.amount = amount;
+        this.currency = group.getBaseCurrency();
         this.message = message;
         this.imageUrl = imageUrl;
     }
@@ -96,6 +102,14 @@ public class Settlement {
         this.amount = amount;
     }
     
+    public String getCurrency() {
+        return currency;
+    }
+    
+    public void setCurrency(String currency) {
+        this.currency = currency;
+    }
+    
     public String getMessage() {
         return message;
     }
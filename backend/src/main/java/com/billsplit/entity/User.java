@@ -39,6 +39,11 @@ public class User {
     @Column(name = "password_hash", nullable = false)
     private String passwordHash;
     
+    // Copied into each token and maintained only through UserRepository.incrementTokenVersion
+    @JsonIgnore
+    @Column(name = "token_version", nullable = false, insertable = false, updatable = false)
+    private long tokenVersion;
+    
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -101,6 +106,14 @@ public class User {
         this.passwordHash = passwordHash;
     }
     
+    public long getTokenVersion() {
+        return tokenVersion;
+    }
+    
+    public void setTokenVersion(long tokenVersion) {
+        this.tokenVersion = tokenVersion;
+    }
+    
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
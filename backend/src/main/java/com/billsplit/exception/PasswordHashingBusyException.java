@@ -0,0 +1,12 @@
+package com.billsplit.exception;
+
+/**
+ * Thrown when the password hashing pool is saturated; mapped to 503 so clients retry
+ * instead of piling more work onto it.
+ */
+public class PasswordHashingBusyException extends RuntimeException {
+
+    public PasswordHashingBusyException() {
+        super("The server is busy, please try again shortly");
+    }
+}
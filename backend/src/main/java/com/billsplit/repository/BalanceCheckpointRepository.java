@@ -0,0 +1,43 @@
+package com.billsplit.repository;
+
+import com.billsplit.dto.UserNetBalance;
+import com.billsplit.entity.BalanceCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface BalanceCheckpointRepository extends JpaRepository<BalanceCheckpoint, Long>, BalanceCheckpointRepositoryCustom {
+    
+    /**
+     * Net balance per user and currency over the rows created in [from, before): amounts
+     * paid, minus shares owed (non-deleted expenses only), plus settlements paid out, minus
+     * settlements received.
+     *
+     * Shares are not bounded by their expense's created_at, since accepting a pending
+     * member adds shares to older expenses; idx_expense_shares_created_at (V24) serves
+     * their range.
+     */
+    @Query(value = "SELECT b.user_id AS \"userId\", b.currency AS \"currency\", COALESCE(SUM(b.amount), 0) AS \"netAmount\" FROM (" +
+            "SELECT e.paid_by AS user_id, e.currency AS currency, e.amount AS amount FROM expenses e " +
+            "WHERE e.group_id = :groupId AND e.deleted_at IS NULL " +
+            "AND e.created_at >= :from AND e.created_at < :before " +
+            "UNION ALL " +
+            "SELECT es.user_id, e.currency, -es.amount_owed FROM expense_shares es JOIN expenses e ON e.id = es.expense_id " +
+            "WHERE es.created_at >= :from AND es.created_at < :before " +
+            "AND e.group_id = :groupId AND e.deleted_at IS NULL " +
+            "UNION ALL " +
+            "SELECT s.from_user_id, s.currency, s.amount FROM settlements s WHERE s.group_id = :groupId " +
+            "AND s.settled_at >= :from AND s.settled_at < :before " +
+            "UNION ALL " +
+            "SELECT s.to_user_id, s.currency, -s.amount FROM settlements s WHERE s.group_id = :groupId " +
+            "AND s.settled_at >= :from AND s.settled_at < :before" +
+            ") b GROUP BY b.user_id, b.currency", nativeQuery = true)
+    List<UserNetBalance> getNetBalancesCreatedBetween(@Param("groupId") Long groupId,
+                                                      @Param("from") LocalDateTime from,
+                                                      @Param("before") LocalDateTime before);
+}
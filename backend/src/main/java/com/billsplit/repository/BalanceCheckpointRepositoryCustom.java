@@ -0,0 +1,18 @@
+package com.billsplit.repository;
+
+import java.util.Map;
+
+public interface BalanceCheckpointRepositoryCustom {
+    
+    /**
+     * Returns the group's checkpointed net balances in cents, keyed by currency and
+     * then user id.
+     */
+    Map<String, Map<Long, Long>> findEntryCents(Long groupId);
+    
+    /**
+     * Adds the given per-user cent deltas to the group's checkpoint entries in one
+     * currency, creating missing rows, in one JDBC batch.
+     */
+    void applyEntryDeltas(Long groupId, String currency, Map<Long, Long> deltasByUserId);
+}
@@ -0,0 +1,47 @@
+package com.billsplit.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class BalanceCheckpointRepositoryImpl implements BalanceCheckpointRepositoryCustom {
+    
+    private static final String SELECT_SQL =
+            "SELECT user_id, currency, net_cents FROM balance_checkpoint_entries WHERE group_id = ?";
+    
+    private static final String UPSERT_SQL =
+            "INSERT INTO balance_checkpoint_entries (group_id, user_id, currency, net_cents) VALUES (?, ?, ?, ?) " +
+            "ON CONFLICT (group_id, user_id, currency) DO UPDATE SET net_cents = balance_checkpoint_entries.net_cents + EXCLUDED.net_cents";
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Override
+    public Map<String, Map<Long, Long>> findEntryCents(Long groupId) {
+        Map<String, Map<Long, Long>> cents = new HashMap<>();
+        jdbcTemplate.query(SELECT_SQL, rs -> {
+            cents.computeIfAbsent(rs.getString("currency"), key -> new HashMap<>())
+                    .put(rs.getLong("user_id"), rs.getLong("net_cents"));
+        }, groupId);
+        return cents;
+    }
+    
+    @Override
+    public void applyEntryDeltas(Long groupId, String currency, Map<Long, Long> deltasByUserId) {
+        List<Object[]> batchArgs = new ArrayList<>(deltasByUserId.size());
+        // Upsert in user id order so concurrent writers lock rows in the same order
+        for (Map.Entry<Long, Long> entry : new TreeMap<>(deltasByUserId).entrySet()) {
+            if (entry.getValue() != 0L) {
+                batchArgs.add(new Object[]{groupId, entry.getKey(), currency, entry.getValue()});
+            }
+        }
+        if (!batchArgs.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT_SQL, batchArgs);
+        }
+    }
+}
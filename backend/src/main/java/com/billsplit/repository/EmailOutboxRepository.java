@@ -0,0 +1,27 @@
+package com.billsplit.repository;
+
+import com.billsplit.entity.EmailOutboxMessage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutboxMessage, Long> {
+    
+    // SKIP LOCKED lets several dispatcher instances claim disjoint batches without waiting on each other
+    @Query(value = "SELECT * FROM email_outbox WHERE status = 'PENDING' AND next_attempt_at <= :now " +
+            "ORDER BY next_attempt_at LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<EmailOutboxMessage> findDueForUpdate(@Param("now") LocalDateTime now, @Param("limit") int limit);
+    
+    long countByStatus(EmailOutboxMessage.Status status);
+    
+    @Modifying
+    @Query("DELETE FROM EmailOutboxMessage m WHERE m.status = :status AND m.createdAt < :cutoff")
+    int deleteByStatusCreatedBefore(@Param("status") EmailOutboxMessage.Status status,
+                                    @Param("cutoff") LocalDateTime cutoff);
+}
@@ -3,11 +3,13 @@ package com.billsplit.repository;
 import com.billsplit.entity.Expense;
 import com.billsplit.entity.Group;
 import com.billsplit.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -17,7 +19,23 @@ public interface ExpenseRepository extends JpaRepository<Expense, Long> {
     
     List<Expense> findByPaidBy(User user);
     
-    @Query("SELECT e FROM Expense e WHERE e.group = :group AND e.deletedAt IS NULL ORDER BY e.createdAt DESC")
+    @Query("SELECT e FROM Expense e JOIN FETCH e.paidBy LEFT JOIN FETCH e.deletedBy " +
+            "WHERE e.group = :group AND e.deletedAt IS NULL ORDER BY e.createdAt DESC, e.id DESC")
     List<Expense> findByGroupOrderByCreatedAtDesc(@Param("group") Group group);
+    
+    // Keyset pages over the partial idx_expenses_group_active_created_at; the Pageable only
+    // carries the LIMIT. The redundant createdAt <= bound gives the planner an index range start.
+    @Query("SELECT e FROM Expense e JOIN FETCH e.paidBy " +
+            "WHERE e.group = :group AND e.deletedAt IS NULL ORDER BY e.createdAt DESC, e.id DESC")
+    List<Expense> findFirstPageByGroup(@Param("group") Group group, Pageable pageable);
+    
+    @Query("SELECT e FROM Expense e JOIN FETCH e.paidBy " +
+            "WHERE e.group = :group AND e.deletedAt IS NULL AND e.createdAt <= :createdAt " +
+            "AND (e.createdAt < :createdAt OR e.id < :id) " +
+            "ORDER BY e.createdAt DESC, e.id DESC")
+    List<Expense> findPageByGroupAfter(@Param("group") Group group,
+                                       @Param("createdAt") LocalDateTime createdAt,
+                                       @Param("id") Long id,
+                                       Pageable pageable);
 }
 
@@ -1,5 +1,6 @@
 package com.billsplit.repository;
 
+import com.billsplit.dto.PairwiseBalance;
 import com.billsplit.entity.Expense;
 import com.billsplit.entity.ExpenseShare;
 import com.billsplit.entity.Group;
@@ -10,6 +11,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,6 +24,9 @@ public interface ExpenseShareRepository extends JpaRepository<ExpenseShare, Long
     
     Optional<ExpenseShare> findByExpenseAndUser(Expense expense, User user);
     
+    @Query("SELECT es FROM ExpenseShare es JOIN FETCH es.user WHERE es.expense.id IN :expenseIds ORDER BY es.id")
+    List<ExpenseShare> findByExpenseIdsWithUsers(@Param("expenseIds") Collection<Long> expenseIds);
+    
     @Query("SELECT es FROM ExpenseShare es JOIN es.expense e WHERE e.group = :group")
     List<ExpenseShare> findByGroup(@Param("group") Group group);
     
@@ -33,5 +38,31 @@ public interface ExpenseShareRepository extends JpaRepository<ExpenseShare, Long
     
     @Query("SELECT COALESCE(SUM(e.amount), 0) FROM Expense e WHERE e.group = :group AND e.paidBy = :user AND e.deletedAt IS NULL")
     BigDecimal getTotalPaidByUserInGroup(@Param("group") Group group, @Param("user") User user);
+    
+    /**
+     * Net amount between a user and each counterparty, per group and currency, across all groups the
+     * user currently belongs to. Shares of expenses the user paid count as owed to the
+     * user, the user's shares of others' expenses as owed by the user, and settlements
+     * in either direction offset them.
+     */
+    @Query(value = "SELECT p.group_id AS \"groupId\", p.counterparty_id AS \"counterpartyId\", p.currency AS \"currency\", " +
+            "SUM(p.amount) AS \"netAmount\" FROM (" +
+            "SELECT e.group_id, es.user_id AS counterparty_id, e.currency AS currency, es.amount_owed AS amount " +
+            "FROM expenses e JOIN expense_shares es ON es.expense_id = e.id " +
+            "WHERE e.paid_by = :userId AND es.user_id <> :userId AND e.deleted_at IS NULL " +
+            "UNION ALL " +
+            "SELECT e.group_id, e.paid_by, e.currency, -es.amount_owed " +
+            "FROM expense_shares es JOIN expenses e ON e.id = es.expense_id " +
+            "WHERE es.user_id = :userId AND e.paid_by <> :userId AND e.deleted_at IS NULL " +
+            "UNION ALL " +
+            "SELECT s.group_id, s.to_user_id, s.currency, s.amount FROM settlements s " +
+            "WHERE s.from_user_id = :userId AND s.to_user_id <> :userId " +
+            "UNION ALL " +
+            "SELECT s.group_id, s.from_user_id, s.currency, -s.amount FROM settlements s " +
+            "WHERE s.to_user_id = :userId AND s.from_user_id <> :userId" +
+            ") p " +
+            "WHERE p.group_id IN (SELECT gm.group_id FROM group_members gm WHERE gm.user_id = :userId) " +
+            "GROUP BY p.group_id, p.counterparty_id, p.currency " +
+            "HAVING SUM(p.amount) <> 0", nativeQuery = true)
+    List<PairwiseBalance> getPairwiseBalancesForUser(@Param("userId") Long userId);
 }
-
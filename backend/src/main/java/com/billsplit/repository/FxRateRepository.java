@@ -0,0 +1,9 @@
+package com.billsplit.repository;
+
+import com.billsplit.entity.FxRate;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface FxRateRepository extends JpaRepository<FxRate, String>, FxRateRepositoryCustom {
+}
@@ -0,0 +1,13 @@
+package com.billsplit.repository;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+public interface FxRateRepositoryCustom {
+    
+    /**
+     * Inserts or updates the given rates, keyed by currency code, in one JDBC batch.
+     * Currencies not in the map are left as they are.
+     */
+    void upsertRates(Map<String, BigDecimal> unitsPerPivot);
+}
@@ -0,0 +1,32 @@
+package com.billsplit.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class FxRateRepositoryImpl implements FxRateRepositoryCustom {
+    
+    private static final String UPSERT_SQL =
+            "INSERT INTO fx_rates (currency, units_per_pivot, updated_at) VALUES (?, ?, CURRENT_TIMESTAMP) " +
+            "ON CONFLICT (currency) DO UPDATE SET units_per_pivot = EXCLUDED.units_per_pivot, updated_at = EXCLUDED.updated_at";
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Override
+    public void upsertRates(Map<String, BigDecimal> unitsPerPivot) {
+        List<Object[]> batchArgs = new ArrayList<>(unitsPerPivot.size());
+        // Currency order, so two concurrent refreshes lock rows in the same order
+        for (Map.Entry<String, BigDecimal> entry : new TreeMap<>(unitsPerPivot).entrySet()) {
+            batchArgs.add(new Object[]{entry.getKey(), entry.getValue()});
+        }
+        if (!batchArgs.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT_SQL, batchArgs);
+        }
+    }
+}
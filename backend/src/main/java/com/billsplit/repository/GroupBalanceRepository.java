@@ -0,0 +1,13 @@
+package com.billsplit.repository;
+
+import com.billsplit.entity.GroupBalance;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface GroupBalanceRepository extends JpaRepository<GroupBalance, GroupBalance.GroupBalanceId>, GroupBalanceRepositoryCustom {
+    
+    List<GroupBalance> findByGroupId(Long groupId);
+}
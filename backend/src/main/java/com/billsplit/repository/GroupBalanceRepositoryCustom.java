@@ -0,0 +1,12 @@
+package com.billsplit.repository;
+
+import java.util.Map;
+
+public interface GroupBalanceRepositoryCustom {
+    
+    /**
+     * Adds the given per-user cent deltas to the group's ledger rows in one currency,
+     * creating missing rows, in one JDBC batch.
+     */
+    void applyDeltas(Long groupId, String currency, Map<Long, Long> deltasByUserId);
+}
@@ -0,0 +1,33 @@
+package com.billsplit.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class GroupBalanceRepositoryImpl implements GroupBalanceRepositoryCustom {
+    
+    private static final String UPSERT_SQL =
+            "INSERT INTO group_balances (group_id, user_id, currency, net_cents) VALUES (?, ?, ?, ?) " +
+            "ON CONFLICT (group_id, user_id, currency) DO UPDATE SET net_cents = group_balances.net_cents + EXCLUDED.net_cents";
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Override
+    public void applyDeltas(Long groupId, String currency, Map<Long, Long> deltasByUserId) {
+        List<Object[]> batchArgs = new ArrayList<>(deltasByUserId.size());
+        // Upsert in user id order so concurrent writers lock rows in the same order
+        for (Map.Entry<Long, Long> entry : new TreeMap<>(deltasByUserId).entrySet()) {
+            if (entry.getValue() != 0L) {
+                batchArgs.add(new Object[]{groupId, entry.getKey(), currency, entry.getValue()});
+            }
+        }
+        if (!batchArgs.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT_SQL, batchArgs);
+        }
+    }
+}
@@ -27,5 +27,8 @@ public interface GroupMemberRepository extends JpaRepository<GroupMember, Long>
     
     @Query("SELECT gm FROM GroupMember gm JOIN FETCH gm.user WHERE gm.group = :group")
     List<GroupMember> findByGroupWithUser(@Param("group") Group group);
+    
+    @Query("SELECT gm.role FROM GroupMember gm WHERE gm.group.id = :groupId AND gm.user.id = :userId")
+    Optional<GroupMember.GroupRole> findRole(@Param("groupId") Long groupId, @Param("userId") Long userId);
 }
 
@@ -2,12 +2,16 @@ package com.billsplit.repository;
 
 import com.billsplit.entity.Group;
 import com.billsplit.entity.User;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface GroupRepository extends JpaRepository<Group, Long> {
@@ -17,5 +21,24 @@ public interface GroupRepository extends JpaRepository<Group, Long> {
     
     @Query("SELECT g FROM Group g WHERE g.createdBy = :user")
     List<Group> findByCreatedBy(@Param("user") User user);
+    
+    @Query("SELECT g.id FROM Group g")
+    List<Long> findAllIds();
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT g FROM Group g WHERE g.id = :groupId")
+    Optional<Group> findByIdForUpdate(@Param("groupId") Long groupId);
+    
+    @Query("SELECT g.ledgerVersion FROM Group g WHERE g.id = :groupId")
+    long findLedgerVersion(@Param("groupId") Long groupId);
+    
+    @Modifying
+    @Query("UPDATE Group g SET g.ledgerVersion = g.ledgerVersion + 1 WHERE g.id = :groupId")
+    int incrementLedgerVersion(@Param("groupId") Long groupId);
+    
+    // Returns 0 if another writer bumped the version first
+    @Modifying
+    @Query("UPDATE Group g SET g.ledgerVersion = g.ledgerVersion + 1 WHERE g.id = :groupId AND g.ledgerVersion = :expectedVersion")
+    int incrementLedgerVersionIfCurrent(@Param("groupId") Long groupId, @Param("expectedVersion") long expectedVersion);
 }
 
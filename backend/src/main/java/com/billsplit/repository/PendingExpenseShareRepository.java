@@ -0,0 +1,64 @@
+package com.billsplit.repository;
+
+import com.billsplit.dto.CurrencyAmount;
+import com.billsplit.dto.PendingMemberBalance;
+import com.billsplit.entity.PendingExpenseShare;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface PendingExpenseShareRepository extends JpaRepository<PendingExpenseShare, Long> {
+    
+    /**
+     * What each pending member owes, one row per pending member and expense currency. A
+     * pending member with no shares has a single row with a null currency.
+     */
+    @Query(value = "SELECT pgm.id AS \"pendingMemberId\", pgm.email AS \"email\", pgm.name AS \"name\", " +
+            "e.currency AS \"currency\", " +
+            "COALESCE(SUM(CASE WHEN e.deleted_at IS NULL THEN pes.amount END), 0) AS \"owedAmount\" " +
+            "FROM pending_group_members pgm " +
+            "LEFT JOIN pending_expense_shares pes ON pes.pending_member_id = pgm.id " +
+            "LEFT JOIN expenses e ON e.id = pes.expense_id " +
+            "WHERE pgm.group_id = :groupId " +
+            "GROUP BY pgm.id, pgm.email, pgm.name, e.currency " +
+            "ORDER BY pgm.id", nativeQuery = true)
+    List<PendingMemberBalance> getPendingMemberBalances(@Param("groupId") Long groupId);
+    
+    @Query("SELECT pes FROM PendingExpenseShare pes JOIN FETCH pes.pendingMember WHERE pes.expense.id IN :expenseIds ORDER BY pes.id")
+    List<PendingExpenseShare> findByExpenseIdsWithMembers(@Param("expenseIds") Collection<Long> expenseIds);
+    
+    /**
+     * Totals per currency of the shares convertToExpenseShares will add to the user's
+     * balance: non-deleted expenses on which the user does not already hold a share.
+     */
+    @Query(value = "SELECT e.currency AS \"currency\", SUM(pes.amount) AS \"amount\" FROM pending_expense_shares pes " +
+            "JOIN expenses e ON e.id = pes.expense_id " +
+            "WHERE pes.pending_member_id = :pendingMemberId AND e.deleted_at IS NULL " +
+            "AND NOT EXISTS (SELECT 1 FROM expense_shares es WHERE es.expense_id = pes.expense_id AND es.user_id = :userId) " +
+            "GROUP BY e.currency",
+            nativeQuery = true)
+    List<CurrencyAmount> getConvertibleTotals(@Param("pendingMemberId") Long pendingMemberId, @Param("userId") Long userId);
+    
+    /**
+     * Turns every pending share of an invitation into an expense share for the user who
+     * accepted it, in one statement. Shares of soft-deleted expenses are converted too,
+     * so the raw tables stay complete; balance queries filter them out. An existing
+     * share for the same expense wins; existing rows are never modified.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO expense_shares (expense_id, user_id, amount_owed, created_at) " +
+            "SELECT pes.expense_id, :userId, pes.amount, :createdAt FROM pending_expense_shares pes " +
+            "WHERE pes.pending_member_id = :pendingMemberId " +
+            "ON CONFLICT (expense_id, user_id) DO NOTHING",
+            nativeQuery = true)
+    int convertToExpenseShares(@Param("pendingMemberId") Long pendingMemberId,
+                               @Param("userId") Long userId,
+                               @Param("createdAt") LocalDateTime createdAt);
+}
@@ -0,0 +1,42 @@
+package com.billsplit.repository;
+
+import com.billsplit.entity.Group;
+import com.billsplit.entity.RecurringExpense;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface RecurringExpenseRepository extends JpaRepository<RecurringExpense, Long> {
+    
+    // Templates whose posting failed during the current run (last_error set at or after
+    // runStartedAt) are left out until the next run, so a failing group cannot hold up the rest
+    @Query(value = "SELECT group_id FROM recurring_expenses WHERE active = TRUE AND next_run_date <= :today " +
+            "AND (last_error IS NULL OR last_run_at < :runStartedAt) " +
+            "GROUP BY group_id ORDER BY MIN(next_run_date), group_id LIMIT :limit", nativeQuery = true)
+    List<Long> findGroupIdsWithDue(@Param("today") LocalDate today,
+                                   @Param("runStartedAt") LocalDateTime runStartedAt,
+                                   @Param("limit") int limit);
+    
+    // SKIP LOCKED lets several backend instances claim disjoint templates; a claimed row stays
+    // locked until its occurrences are posted and next_run_date is advanced in the same transaction
+    @Query(value = "SELECT * FROM recurring_expenses WHERE group_id = :groupId AND active = TRUE " +
+            "AND next_run_date <= :today AND (last_error IS NULL OR last_run_at < :runStartedAt) " +
+            "ORDER BY next_run_date, id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<RecurringExpense> findDueInGroupForUpdate(@Param("groupId") Long groupId,
+                                                   @Param("today") LocalDate today,
+                                                   @Param("runStartedAt") LocalDateTime runStartedAt,
+                                                   @Param("limit") int limit);
+    
+    @Query("SELECT r FROM RecurringExpense r JOIN FETCH r.createdBy WHERE r.group = :group " +
+            "ORDER BY r.active DESC, r.nextRunDate, r.id")
+    List<RecurringExpense> findByGroupWithCreator(@Param("group") Group group);
+    
+    Optional<RecurringExpense> findByIdAndGroup(Long id, Group group);
+}
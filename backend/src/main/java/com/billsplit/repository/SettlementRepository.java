@@ -2,12 +2,34 @@ package com.billsplit.repository;
 
 import com.billsplit.entity.Group;
 import com.billsplit.entity.Settlement;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface SettlementRepository extends JpaRepository<Settlement, Long> {
-    List<Settlement> findByGroupOrderBySettledAtDesc(Group group);
+    
+    @Query("SELECT s FROM Settlement s JOIN FETCH s.fromUser JOIN FETCH s.toUser " +
+           "WHERE s.group = :group ORDER BY s.settledAt DESC, s.id DESC")
+    List<Settlement> findByGroupWithUsers(@Param("group") Group group);
+    
+    // Keyset pages over idx_settlements_group_settled_at; the Pageable only carries the LIMIT.
+    // The redundant settledAt <= bound gives the planner an index range start.
+    @Query("SELECT s FROM Settlement s JOIN FETCH s.fromUser JOIN FETCH s.toUser " +
+           "WHERE s.group = :group ORDER BY s.settledAt DESC, s.id DESC")
+    List<Settlement> findFirstPageByGroup(@Param("group") Group group, Pageable pageable);
+    
+    @Query("SELECT s FROM Settlement s JOIN FETCH s.fromUser JOIN FETCH s.toUser " +
+           "WHERE s.group = :group AND s.settledAt <= :settledAt " +
+           "AND (s.settledAt < :settledAt OR s.id < :id) " +
+           "ORDER BY s.settledAt DESC, s.id DESC")
+    List<Settlement> findPageByGroupAfter(@Param("group") Group group,
+                                          @Param("settledAt") LocalDateTime settledAt,
+                                          @Param("id") Long id,
+                                          Pageable pageable);
 }
@@ -0,0 +1,154 @@
+package com.billsplit.security;
+
+import com.billsplit.exception.PasswordHashingBusyException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * BCrypt run on a fixed pool of app.auth.password-hashing.threads threads, so a burst of
+ * logins cannot take the CPU from every other endpoint. The calling request still waits
+ * for its hash, but at most queue-capacity hashes wait for a thread; past that, or after
+ * max-wait-ms, the request fails fast with PasswordHashingBusyException (503).
+ *
+ * upgradeEncoding reports hashes made with a lower cost than app.auth.password-hashing.strength,
+ * which DaoAuthenticationProvider then rehashes after a successful login.
+ */
+@Component
+public class BoundedPasswordEncoder implements PasswordEncoder {
+    
+    @Value("${app.auth.password-hashing.strength:10}")
+    private int strength;
+    
+    // 0 uses one thread per available processor
+    @Value("${app.auth.password-hashing.threads:0}")
+    private int threads;
+    
+    @Value("${app.auth.password-hashing.queue-capacity:64}")
+    private int queueCapacity;
+    
+    @Value("${app.auth.password-hashing.max-wait-ms:5000}")
+    private long maxWaitMs;
+    
+    private BCryptPasswordEncoder delegate;
+    private ThreadPoolExecutor executor;
+    
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder queueNanos = new LongAdder();
+    private final LongAdder hashNanos = new LongAdder();
+    
+    @PostConstruct
+    void startExecutor() {
+        delegate = new BCryptPasswordEncoder(strength);
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+    
+    @PreDestroy
+    void stopExecutor() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+    
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(() -> delegate.encode(rawPassword));
+    }
+    
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+    
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        // Reads the cost from the hash prefix; cheap enough for the calling thread
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+    
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+    
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+    
+    public long getCompleted() {
+        return completed.sum();
+    }
+    
+    public long getRejected() {
+        return rejected.sum();
+    }
+    
+    public double getAverageQueueMillis() {
+        long count = completed.sum();
+        return count == 0 ? 0 : queueNanos.sum() / 1_000_000.0 / count;
+    }
+    
+    public double getAverageHashMillis() {
+        long count = completed.sum();
+        return count == 0 ? 0 : hashNanos.sum() / 1_000_000.0 / count;
+    }
+    
+    private <T> T run(Callable<T> hashing) {
+        long submittedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long startedAt = System.nanoTime();
+                try {
+                    return hashing.call();
+                } finally {
+                    queueNanos.add(startedAt - submittedAt);
+                    hashNanos.add(System.nanoTime() - startedAt);
+                    completed.increment();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new PasswordHashingBusyException();
+        }
+        
+        try {
+            return future.get(maxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Frees the queue slot if no thread has picked the hash up yet
+            future.cancel(false);
+            executor.remove((Runnable) future);
+            rejected.increment();
+            throw new PasswordHashingBusyException();
+        } catch (InterruptedException e) {
+            future.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingBusyException();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+}
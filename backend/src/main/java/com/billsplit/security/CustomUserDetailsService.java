@@ -4,13 +4,14 @@ import com.billsplit.entity.User;
 import com.billsplit.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
     
     @Autowired
     private UserRepository userRepository;
@@ -33,5 +34,20 @@ public class CustomUserDetailsService implements UserDetailsService {
         
         return UserPrincipal.create(user);
     }
+    
+    /**
+     * Stores a rehash of the password the user just logged in with. Called by
+     * DaoAuthenticationProvider when the stored hash uses a lower BCrypt cost than configured;
+     * tokens stay valid since the password itself did not change.
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        User user = userRepository.findById(((UserPrincipal) userDetails).getId())
+                .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + userDetails.getUsername()));
+        user.setPasswordHash(newPassword);
+        userRepository.save(user);
+        
+        return UserPrincipal.create(user);
+    }
 }
-
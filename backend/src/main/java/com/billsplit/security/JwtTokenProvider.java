@@ -1,60 +1,147 @@
 package com.billsplit.security;
 
+import com.billsplit.util.BoundedCache;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HexFormat;
+import java.util.List;
 
 @Component
 public class JwtTokenProvider {
     
-    @Value("${jwt.secret}")
-    private String jwtSecret;
+    // Enough to authenticate a request without loading the user; the subject stays the email
+    private static final String CLAIM_USER_ID = "uid";
+    private static final String CLAIM_NAME = "name";
+    private static final String CLAIM_ROLES = "roles";
+    private static final String CLAIM_TOKEN_VERSION = "tv";
     
-    @Value("${jwt.expiration}")
-    private int jwtExpirationInMs;
+    private final SecretKey signingKey;
+    private final JwtParser parser;
+    private final int jwtExpirationInMs;
     
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes());
+    // Claims of tokens whose signature was already checked, keyed by SHA-256 of the token
+    // so raw bearer tokens are not kept in memory. Entries never outlive the token's expiry.
+    private final BoundedCache<String, Claims> verifiedTokens;
+    
+    public JwtTokenProvider(@Value("${jwt.secret}") String jwtSecret,
+                            @Value("${jwt.expiration}") int jwtExpirationInMs,
+                            @Value("${jwt.cache.max-entries:10000}") int cacheMaxEntries,
+                            @Value("${jwt.cache.ttl-seconds:300}") long cacheTtlSeconds) {
+        // Built once; both the key and the parser are immutable and thread-safe
+        this.signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+        this.jwtExpirationInMs = jwtExpirationInMs;
+        this.verifiedTokens = cacheMaxEntries > 0 ? new BoundedCache<>(cacheMaxEntries, cacheTtlSeconds * 1000L) : null;
     }
     
     public String generateToken(Authentication authentication) {
-        UserDetails userPrincipal = (UserDetails) authentication.getPrincipal();
+        return generateToken((UserPrincipal) authentication.getPrincipal());
+    }
+    
+    public String generateToken(UserPrincipal userPrincipal) {
         Date expiryDate = new Date(System.currentTimeMillis() + jwtExpirationInMs);
+        List<String> roles = new ArrayList<>();
+        for (GrantedAuthority authority : userPrincipal.getAuthorities()) {
+            roles.add(authority.getAuthority());
+        }
         
         return Jwts.builder()
                 .setSubject(userPrincipal.getUsername())
+                .claim(CLAIM_USER_ID, userPrincipal.getId())
+                .claim(CLAIM_NAME, userPrincipal.getName())
+                .claim(CLAIM_ROLES, roles)
+                .claim(CLAIM_TOKEN_VERSION, userPrincipal.getTokenVersion())
                 .setIssuedAt(new Date())
                 .setExpiration(expiryDate)
-                .signWith(getSigningKey(), SignatureAlgorithm.HS512)
+                .signWith(signingKey, SignatureAlgorithm.HS512)
                 .compact();
     }
     
-    public String getUsernameFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    /**
+     * Verifies the token and returns its claims, or null if it is malformed, forged or expired.
+     * A token seen before is answered from the verified-token cache until it expires.
+     * The returned claims are shared and must not be modified.
+     */
+    public Claims parseToken(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        String key = null;
+        if (verifiedTokens != null) {
+            key = hash(token);
+            Claims cached = verifiedTokens.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
         
-        return claims.getSubject();
+        Claims claims;
+        try {
+            claims = parser.parseClaimsJws(token).getBody();
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+        
+        if (key != null) {
+            Date expiration = claims.getExpiration();
+            long ttlMillis = expiration != null ? expiration.getTime() - System.currentTimeMillis() : Long.MAX_VALUE;
+            if (ttlMillis > 0) {
+                verifiedTokens.put(key, claims, ttlMillis);
+            }
+        }
+        return claims;
     }
     
-    public boolean validateToken(String authToken) {
+    /**
+     * Builds the principal from verified claims, or returns null for a token issued without
+     * them. The principal carries no password hash.
+     */
+    public UserPrincipal getPrincipal(Claims claims) {
+        Number userId = claims.get(CLAIM_USER_ID, Number.class);
+        Number tokenVersion = claims.get(CLAIM_TOKEN_VERSION, Number.class);
+        List<?> roleClaim = claims.get(CLAIM_ROLES, List.class);
+        if (userId == null || tokenVersion == null || roleClaim == null) {
+            return null;
+        }
+        List<String> roles = new ArrayList<>(roleClaim.size());
+        for (Object role : roleClaim) {
+            roles.add(String.valueOf(role));
+        }
+        return new UserPrincipal(userId.longValue(), claims.get(CLAIM_NAME, String.class), claims.getSubject(),
+                null, tokenVersion.longValue(), roles);
+    }
+    
+    public int getCacheSize() {
+        return verifiedTokens != null ? verifiedTokens.size() : 0;
+    }
+    
+    public long getCacheHits() {
+        return verifiedTokens != null ? verifiedTokens.getHits() : 0;
+    }
+    
+    public long getCacheMisses() {
+        return verifiedTokens != null ? verifiedTokens.getMisses() : 0;
+    }
+    
+    private static String hash(String token) {
         try {
-            Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(authToken);
-            return true;
-        } catch (JwtException | IllegalArgumentException e) {
-            return false;
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
         }
     }
 }
-
@@ -6,29 +6,47 @@ import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Collection;
-import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
 
 public class UserPrincipal implements UserDetails {
     
+    public static final List<String> DEFAULT_ROLES = List.of("ROLE_USER");
+    
     private Long id;
     private String name;
     private String email;
     private String password;
+    private long tokenVersion;
+    private List<GrantedAuthority> authorities;
     
     public UserPrincipal(Long id, String name, String email, String password) {
+        this(id, name, email, password, 0L, DEFAULT_ROLES);
+    }
+    
+    public UserPrincipal(Long id, String name, String email, String password, long tokenVersion, List<String> roles) {
         this.id = id;
         this.name = name;
         this.email = email;
         this.password = password;
+        this.tokenVersion = tokenVersion;
+        this.authorities = roles.stream()
+                .map(role -> (GrantedAuthority) new SimpleGrantedAuthority(role))
+                .toList();
     }
     
     public static UserPrincipal create(User user) {
+        return create(user, user.getTokenVersion());
+    }
+    
+    public static UserPrincipal create(User user, long tokenVersion) {
         return new UserPrincipal(
                 user.getId(),
                 user.getName(),
                 user.getEmail(),
-                user.getPasswordHash()
+                user.getPasswordHash(),
+                tokenVersion,
+                DEFAULT_ROLES
         );
     }
     
@@ -54,9 +72,13 @@ public class UserPrincipal implements UserDetails {
         return password;
     }
     
+    public long getTokenVersion() {
+        return tokenVersion;
+    }
+    
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        return Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER"));
+        return authorities;
     }
     
     @Override
@@ -17,11 +17,15 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
 @Service
 @Transactional
 public class AuthService {
     
+    private static final String CURRENT_USER_ATTRIBUTE = AuthService.class.getName() + ".currentUser";
+    
     @Autowired
     private UserRepository userRepository;
     
@@ -34,6 +38,9 @@ public class AuthService {
     @Autowired
     private JwtTokenProvider tokenProvider;
     
+    @Autowired
+    private TokenVersionService tokenVersionService;
+    
     public AuthResponse register(RegisterRequest registerRequest) {
         String normalizedEmail = registerRequest.getEmail().trim().toLowerCase();
         
@@ -83,11 +90,42 @@ public class AuthService {
         }
     }
     
+    /**
+     * The authenticated user, loaded at most once per HTTP request and kept in a request
+     * attribute for later calls. Outside a request it is loaded on every call.
+     */
     public User getCurrentUser() {
+        Long userId = getCurrentUserId();
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request != null
+                && request.getAttribute(CURRENT_USER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof User user
+                && userId.equals(user.getId())) {
+            return user;
+        }
+        
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        if (request != null) {
+            request.setAttribute(CURRENT_USER_ATTRIBUTE, user, RequestAttributes.SCOPE_REQUEST);
+        }
+        return user;
+    }
+    
+    /**
+     * A reference to the authenticated user for callers that only need the id or an
+     * association to the user; it runs no query until a property other than the id is read.
+     */
+    public User getCurrentUserReference() {
+        return userRepository.getReferenceById(getCurrentUserId());
+    }
+    
+    /**
+     * The authenticated user's id, read from the security context without a database lookup.
+     */
+    public Long getCurrentUserId() {
         UserPrincipal userPrincipal = (UserPrincipal) SecurityContextHolder.getContext()
                 .getAuthentication().getPrincipal();
-        return userRepository.findById(userPrincipal.getId())
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        return userPrincipal.getId();
     }
     
     public void resetPassword(String email, String newPassword) {
@@ -97,6 +135,7 @@ public class AuthService {
         
         user.setPasswordHash(passwordEncoder.encode(newPassword));
         userRepository.save(user);
+        revokeTokens(user);
     }
     
     public User updateProfile(UpdateProfileRequest updateRequest) {
@@ -109,10 +148,16 @@ public class AuthService {
             throw new RuntimeException("Email is already taken!");
         }
         
+        // Tokens carry the name and email, so a change revokes the ones issued with the old values
+        boolean changed = !normalizedEmail.equals(user.getEmail()) || !updateRequest.getName().equals(user.getName());
         user.setName(updateRequest.getName());
         user.setEmail(normalizedEmail);
         
-        return userRepository.save(user);
+        User savedUser = userRepository.save(user);
+        if (changed) {
+            revokeTokens(savedUser);
+        }
+        return savedUser;
     }
     
     public void updatePassword(UpdatePasswordRequest updateRequest) {
@@ -126,6 +171,22 @@ public class AuthService {
         // Update to new password
         user.setPasswordHash(passwordEncoder.encode(updateRequest.getNewPassword()));
         userRepository.save(user);
+        revokeTokens(user);
+    }
+    
+    /**
+     * Issues a token carrying the user's current token version, e.g. to replace the caller's
+     * own token after a password or profile change revoked it.
+     */
+    public String issueToken(User user) {
+        long tokenVersion = userRepository.findTokenVersionById(user.getId())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        return tokenProvider.generateToken(UserPrincipal.create(user, tokenVersion));
+    }
+    
+    private void revokeTokens(User user) {
+        userRepository.incrementTokenVersion(user.getId());
+        tokenVersionService.evict(user.getId());
     }
 }
 
@@ -0,0 +1,46 @@
+package com.billsplit.service;
+
+import com.billsplit.repository.GroupRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Periodically advances every group's balance checkpoint, one transaction per group.
+ */
+@Component
+public class BalanceCheckpointScheduler {
+    
+    private static final Logger logger = LoggerFactory.getLogger(BalanceCheckpointScheduler.class);
+    
+    @Autowired
+    private BalanceCheckpointService balanceCheckpointService;
+    
+    @Autowired
+    private GroupRepository groupRepository;
+    
+    @Value("${app.ledger.checkpoint.enabled:true}")
+    private boolean enabled;
+    
+    @Scheduled(cron = "${app.ledger.checkpoint.cron:0 0 3 * * *}")
+    public void advanceAllCheckpoints() {
+        if (!enabled) {
+            return;
+        }
+        
+        int groupsAdvanced = 0;
+        for (Long groupId : groupRepository.findAllIds()) {
+            try {
+                if (balanceCheckpointService.advanceCheckpoint(groupId)) {
+                    groupsAdvanced++;
+                }
+            } catch (Exception e) {
+                logger.error("Failed to advance balance checkpoint for group {}: {}", groupId, e.getMessage(), e);
+            }
+        }
+        logger.info("Balance checkpoints advanced for {} groups", groupsAdvanced);
+    }
+}
@@ -0,0 +1,161 @@
+package com.billsplit.service;
+
+import com.billsplit.dto.UserNetBalance;
+import com.billsplit.entity.BalanceCheckpoint;
+import com.billsplit.entity.Expense;
+import com.billsplit.entity.ExpenseShare;
+import com.billsplit.entity.Settlement;
+import com.billsplit.repository.BalanceCheckpointRepository;
+import com.billsplit.repository.GroupRepository;
+import com.billsplit.util.MoneyUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Maintains per-group balance checkpoints so recomputing balances from the raw
+ * tables only replays rows created at or after the checkpoint's watermark.
+ *
+ * The watermark is a creation time rather than an id, since pooled ids from several
+ * instances are not in insertion order. Checkpoints advance only to a safety lag in
+ * the past, so a transaction that has not committed yet is not skipped; the lag must
+ * cover the longest write transaction plus any clock skew between instances. Removing
+ * a row created before the watermark patches the checkpoint in the same transaction.
+ */
+@Service
+@Transactional
+public class BalanceCheckpointService {
+    
+    // Bounds for a group without a checkpoint and for "up to now"
+    private static final LocalDateTime BEGINNING = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime END = LocalDateTime.of(9999, 12, 31, 0, 0);
+    
+    @Autowired
+    private BalanceCheckpointRepository balanceCheckpointRepository;
+    
+    @Autowired
+    private GroupRepository groupRepository;
+    
+    @Value("${app.ledger.checkpoint.safety-lag-minutes:10}")
+    private long safetyLagMinutes;
+    
+    /**
+     * Folds rows older than the safety lag into the group's checkpoint. Only the rows
+     * created between the old and new watermark are read.
+     */
+    public boolean advanceCheckpoint(Long groupId) {
+        // Ledger writers update the group row when they bump its version, so holding its
+        // lock keeps them from patching the checkpoint while it moves
+        groupRepository.findByIdForUpdate(groupId)
+                .orElseThrow(() -> new RuntimeException("Group not found"));
+        
+        BalanceCheckpoint checkpoint = balanceCheckpointRepository.findById(groupId)
+                .orElseGet(() -> new BalanceCheckpoint(groupId));
+        LocalDateTime from = checkpoint.getWatermarkAt() != null ? checkpoint.getWatermarkAt() : BEGINNING;
+        // Truncated to the column's precision, so the stored watermark is exactly the bound used here
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(safetyLagMinutes).truncatedTo(ChronoUnit.MICROS);
+        if (!cutoff.isAfter(from)) {
+            return false;
+        }
+        
+        List<UserNetBalance> range = balanceCheckpointRepository.getNetBalancesCreatedBetween(groupId, from, cutoff);
+        if (range.isEmpty()) {
+            return false;
+        }
+        
+        checkpoint.setWatermarkAt(cutoff);
+        balanceCheckpointRepository.save(checkpoint);
+        for (Map.Entry<String, Map<Long, Long>> entry : toCents(range).entrySet()) {
+            balanceCheckpointRepository.applyEntryDeltas(groupId, entry.getKey(), entry.getValue());
+        }
+        return true;
+    }
+    
+    /**
+     * Recomputes the group's balances from the raw tables as checkpoint + rows created
+     * since the watermark. Returns cents keyed by currency and then user id.
+     */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public Map<String, Map<Long, Long>> recomputeBalances(Long groupId) {
+        // Repeatable read keeps the checkpoint and the replayed rows on one snapshot
+        Optional<BalanceCheckpoint> checkpoint = balanceCheckpointRepository.findById(groupId);
+        Map<String, Map<Long, Long>> balances = checkpoint.isPresent()
+                ? balanceCheckpointRepository.findEntryCents(groupId)
+                : new HashMap<>();
+        
+        LocalDateTime from = checkpoint.map(BalanceCheckpoint::getWatermarkAt).orElse(BEGINNING);
+        List<UserNetBalance> recent = balanceCheckpointRepository.getNetBalancesCreatedBetween(groupId, from, END);
+        for (Map.Entry<String, Map<Long, Long>> currency : toCents(recent).entrySet()) {
+            Map<Long, Long> currencyBalances = balances.computeIfAbsent(currency.getKey(), key -> new HashMap<>());
+            for (Map.Entry<Long, Long> entry : currency.getValue().entrySet()) {
+                currencyBalances.merge(entry.getKey(), entry.getValue(), Long::sum);
+            }
+        }
+        return balances;
+    }
+    
+    /**
+     * Takes a (soft or permanently) deleted expense out of the checkpoint. Only the
+     * expense and shares created before the watermark were folded in; the rest are
+     * excluded from the replay by the deleted_at filter. Must run after the caller has
+     * bumped the group's ledger version, i.e. while holding the group row lock.
+     */
+    public void patchExpenseRemoved(Expense expense, List<ExpenseShare> shares) {
+        Optional<BalanceCheckpoint> checkpoint = balanceCheckpointRepository.findById(expense.getGroup().getId());
+        if (checkpoint.isEmpty()) {
+            return;
+        }
+        
+        Map<Long, Long> deltas = new HashMap<>();
+        LocalDateTime watermarkAt = checkpoint.get().getWatermarkAt();
+        if (expense.getCreatedAt().isBefore(watermarkAt)) {
+            deltas.merge(expense.getPaidBy().getId(), -MoneyUtils.toCents(expense.getAmount()), Long::sum);
+        }
+        for (ExpenseShare share : shares) {
+            if (share.getCreatedAt().isBefore(watermarkAt)) {
+                deltas.merge(share.getUser().getId(), MoneyUtils.toCents(share.getAmountOwed()), Long::sum);
+            }
+        }
+        balanceCheckpointRepository.applyEntryDeltas(expense.getGroup().getId(), expense.getCurrency(), deltas);
+    }
+    
+    /**
+     * Takes a deleted settlement out of the checkpoint if it was folded in. Same
+     * locking requirement as patchExpenseRemoved.
+     */
+    public void patchSettlementRemoved(Settlement settlement) {
+        Optional<BalanceCheckpoint> checkpoint = balanceCheckpointRepository.findById(settlement.getGroup().getId());
+        if (checkpoint.isEmpty() || !settlement.getSettledAt().isBefore(checkpoint.get().getWatermarkAt())) {
+            return;
+        }
+        
+        long cents = MoneyUtils.toCents(settlement.getAmount());
+        Map<Long, Long> deltas = new HashMap<>();
+        deltas.merge(settlement.getFromUser().getId(), -cents, Long::sum);
+        deltas.merge(settlement.getToUser().getId(), cents, Long::sum);
+        balanceCheckpointRepository.applyEntryDeltas(settlement.getGroup().getId(), settlement.getCurrency(), deltas);
+    }
+    
+    /**
+     * Cents keyed by currency, in currency order so entries are written in a stable
+     * lock order, and then by user id.
+     */
+    private static Map<String, Map<Long, Long>> toCents(List<UserNetBalance> netBalances) {
+        Map<String, Map<Long, Long>> cents = new TreeMap<>();
+        for (UserNetBalance netBalance : netBalances) {
+            cents.computeIfAbsent(netBalance.getCurrency(), key -> new HashMap<>())
+                    .put(netBalance.getUserId(), MoneyUtils.toCents(netBalance.getNetAmount()));
+        }
+        return cents;
+    }
+}
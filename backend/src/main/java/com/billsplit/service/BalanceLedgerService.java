@@ -0,0 +1,203 @@
+package com.billsplit.service;
+
+import com.billsplit.entity.Expense;
+import com.billsplit.entity.ExpenseShare;
+import com.billsplit.entity.GroupBalance;
+import com.billsplit.entity.Settlement;
+import com.billsplit.repository.ExpenseShareRepository;
+import com.billsplit.repository.GroupBalanceRepository;
+import com.billsplit.repository.GroupRepository;
+import com.billsplit.util.MoneyUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Maintains the group_balances ledger. Every expense and settlement write applies
+ * its effect here in the caller's transaction, so reading a group's balances is a
+ * single lookup instead of a scan of expense_shares and settlements.
+ *
+ * Balances are kept per currency, in the currency of the expense or settlement, and
+ * only converted when read, so a rate change never requires rewriting the ledger.
+ */
+@Service
+@Transactional
+public class BalanceLedgerService {
+    
+    @Autowired
+    private GroupBalanceRepository groupBalanceRepository;
+    
+    @Autowired
+    private ExpenseShareRepository expenseShareRepository;
+    
+    @Autowired
+    private GroupRepository groupRepository;
+    
+    @Autowired
+    private BalanceCheckpointService balanceCheckpointService;
+    
+    public void recordExpense(Expense expense, List<ExpenseShare> shares) {
+        applyExpense(expense, shares, 1);
+    }
+    
+    /**
+     * Applies a batch of new expenses in one group as a single ledger update and
+     * one version bump. Used by bulk imports.
+     */
+    public void recordExpenses(Long groupId, List<Expense> expenses, List<ExpenseShare> shares) {
+        Map<String, Map<Long, Long>> deltas = new TreeMap<>();
+        for (Expense expense : expenses) {
+            deltas.computeIfAbsent(expense.getCurrency(), key -> new HashMap<>())
+                    .merge(expense.getPaidBy().getId(), MoneyUtils.toCents(expense.getAmount()), Long::sum);
+        }
+        for (ExpenseShare share : shares) {
+            deltas.computeIfAbsent(share.getExpense().getCurrency(), key -> new HashMap<>())
+                    .merge(share.getUser().getId(), -MoneyUtils.toCents(share.getAmountOwed()), Long::sum);
+        }
+        applyDeltas(groupId, deltas);
+        bumpVersion(groupId);
+    }
+    
+    public void reverseExpense(Expense expense) {
+        List<ExpenseShare> shares = expenseShareRepository.findByExpense(expense);
+        applyExpense(expense, shares, -1);
+        // After the version bump, so the group row lock is held while patching
+        balanceCheckpointService.patchExpenseRemoved(expense, shares);
+    }
+    
+    public void recordSettlement(Settlement settlement) {
+        applySettlement(settlement, 1);
+    }
+    
+    public void reverseSettlement(Settlement settlement) {
+        applySettlement(settlement, -1);
+        balanceCheckpointService.patchSettlementRemoved(settlement);
+    }
+    
+    /**
+     * Debits a user who accepted an invitation with the pending shares that were just
+     * converted into expense shares for them, given as totals per currency.
+     */
+    public void recordPendingSharesConverted(Long groupId, Long userId, Map<String, BigDecimal> convertedTotals) {
+        Map<String, Map<Long, Long>> deltas = new TreeMap<>();
+        for (Map.Entry<String, BigDecimal> total : convertedTotals.entrySet()) {
+            deltas.computeIfAbsent(total.getKey(), key -> new HashMap<>())
+                    .put(userId, -MoneyUtils.toCents(total.getValue()));
+        }
+        applyDeltas(groupId, deltas);
+        bumpVersion(groupId);
+    }
+    
+    /**
+     * Applies a batch of settlements as one ledger update and one version bump,
+     * provided the group is still at expectedVersion. Throws otherwise, rolling back
+     * the caller's transaction.
+     */
+    public void recordSettlements(Long groupId, List<Settlement> settlements, long expectedVersion) {
+        Map<String, Map<Long, Long>> deltas = new TreeMap<>();
+        for (Settlement settlement : settlements) {
+            long cents = MoneyUtils.toCents(settlement.getAmount());
+            Map<Long, Long> currencyDeltas = deltas.computeIfAbsent(settlement.getCurrency(), key -> new HashMap<>());
+            currencyDeltas.merge(settlement.getFromUser().getId(), cents, Long::sum);
+            currencyDeltas.merge(settlement.getToUser().getId(), -cents, Long::sum);
+        }
+        applyDeltas(groupId, deltas);
+        // Balance rows are locked before the group row, the same order as every other writer
+        if (groupRepository.incrementLedgerVersionIfCurrent(groupId, expectedVersion) == 0) {
+            throw new RuntimeException("Group balances have changed since the settlement plan was calculated");
+        }
+    }
+    
+    /**
+     * Bumps the group's ledger version. Called for every balance change and for
+     * membership changes, since both alter the settlement plan. Cached plans are
+     * keyed by version, so the bump alone retires them.
+     */
+    public void bumpVersion(Long groupId) {
+        groupRepository.incrementLedgerVersion(groupId);
+    }
+    
+    @Transactional(readOnly = true)
+    public long getVersion(Long groupId) {
+        return groupRepository.findLedgerVersion(groupId);
+    }
+    
+    /**
+     * Returns the group's balances in cents, keyed by currency and then user id.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Map<Long, Long>> getBalances(Long groupId) {
+        Map<String, Map<Long, Long>> balances = new HashMap<>();
+        for (GroupBalance balance : groupBalanceRepository.findByGroupId(groupId)) {
+            balances.computeIfAbsent(balance.getCurrency(), key -> new HashMap<>())
+                    .put(balance.getUserId(), balance.getNetCents());
+        }
+        return balances;
+    }
+    
+    /**
+     * Recomputes a group's balances from the raw expense and settlement tables (via
+     * its checkpoint) and returns, per currency and user, the difference ledger -
+     * recomputed in cents. An empty map means the ledger is consistent.
+     */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public Map<String, Map<Long, Long>> findDrift(Long groupId) {
+        Map<String, Map<Long, Long>> ledger = getBalances(groupId);
+        Map<String, Map<Long, Long>> recomputed = balanceCheckpointService.recomputeBalances(groupId);
+        
+        Set<String> currencies = new HashSet<>(ledger.keySet());
+        currencies.addAll(recomputed.keySet());
+        
+        Map<String, Map<Long, Long>> drift = new TreeMap<>();
+        for (String currency : currencies) {
+            Map<Long, Long> ledgerCents = ledger.getOrDefault(currency, Map.of());
+            Map<Long, Long> recomputedCents = recomputed.getOrDefault(currency, Map.of());
+            Set<Long> userIds = new HashSet<>(ledgerCents.keySet());
+            userIds.addAll(recomputedCents.keySet());
+            for (Long userId : userIds) {
+                long difference = ledgerCents.getOrDefault(userId, 0L) - recomputedCents.getOrDefault(userId, 0L);
+                if (difference != 0L) {
+                    drift.computeIfAbsent(currency, key -> new HashMap<>()).put(userId, difference);
+                }
+            }
+        }
+        return drift;
+    }
+    
+    private void applyExpense(Expense expense, List<ExpenseShare> shares, int sign) {
+        Map<Long, Long> deltas = new HashMap<>();
+        // Payer is credited the full amount, each participant is debited their share
+        deltas.merge(expense.getPaidBy().getId(), sign * MoneyUtils.toCents(expense.getAmount()), Long::sum);
+        for (ExpenseShare share : shares) {
+            deltas.merge(share.getUser().getId(), -sign * MoneyUtils.toCents(share.getAmountOwed()), Long::sum);
+        }
+        groupBalanceRepository.applyDeltas(expense.getGroup().getId(), expense.getCurrency(), deltas);
+        bumpVersion(expense.getGroup().getId());
+    }
+    
+    private void applySettlement(Settlement settlement, int sign) {
+        long cents = MoneyUtils.toCents(settlement.getAmount());
+        Map<Long, Long> deltas = new HashMap<>();
+        // Debtor (fromUser) paid, so their balance increases; creditor (toUser) received, so it decreases
+        deltas.merge(settlement.getFromUser().getId(), sign * cents, Long::sum);
+        deltas.merge(settlement.getToUser().getId(), -sign * cents, Long::sum);
+        groupBalanceRepository.applyDeltas(settlement.getGroup().getId(), settlement.getCurrency(), deltas);
+        bumpVersion(settlement.getGroup().getId());
+    }
+    
+    // Currencies in sorted order, so concurrent writers lock ledger rows in the same order
+    private void applyDeltas(Long groupId, Map<String, Map<Long, Long>> deltasByCurrency) {
+        for (Map.Entry<String, Map<Long, Long>> entry : deltasByCurrency.entrySet()) {
+            groupBalanceRepository.applyDeltas(groupId, entry.getKey(), entry.getValue());
+        }
+    }
+}
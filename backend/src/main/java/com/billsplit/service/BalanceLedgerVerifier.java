@@ -0,0 +1,53 @@
+package com.billsplit.service;
+
+import com.billsplit.repository.GroupRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Periodically recomputes every group's balances from the raw tables and logs any
+ * drift from the group_balances ledger.
+ */
+@Component
+public class BalanceLedgerVerifier {
+    
+    private static final Logger logger = LoggerFactory.getLogger(BalanceLedgerVerifier.class);
+    
+    @Autowired
+    private BalanceLedgerService balanceLedgerService;
+    
+    @Autowired
+    private GroupRepository groupRepository;
+    
+    @Value("${app.ledger.verify.enabled:true}")
+    private boolean enabled;
+    
+    @Scheduled(cron = "${app.ledger.verify.cron:0 30 3 * * *}")
+    public void verifyAllGroups() {
+        if (!enabled) {
+            return;
+        }
+        
+        int groupsChecked = 0;
+        int groupsWithDrift = 0;
+        for (Long groupId : groupRepository.findAllIds()) {
+            try {
+                Map<String, Map<Long, Long>> drift = balanceLedgerService.findDrift(groupId);
+                if (!drift.isEmpty()) {
+                    groupsWithDrift++;
+                    logger.warn("Balance ledger drift in group {} (currency -> userId -> ledger minus recomputed, cents): {}", groupId, drift);
+                }
+                groupsChecked++;
+            } catch (Exception e) {
+                logger.error("Failed to verify balance ledger for group {}: {}", groupId, e.getMessage(), e);
+            }
+        }
+        logger.info("Balance ledger verification finished: {} groups checked, {} with drift", groupsChecked, groupsWithDrift);
+    }
+}
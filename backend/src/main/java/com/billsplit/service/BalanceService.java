@@ -0,0 +1,96 @@
+package com.billsplit.service;
+
+import com.billsplit.dto.CounterpartyBalanceDTO;
+import com.billsplit.dto.PairwiseBalance;
+import com.billsplit.entity.Group;
+import com.billsplit.entity.User;
+import com.billsplit.repository.ExpenseShareRepository;
+import com.billsplit.repository.GroupRepository;
+import com.billsplit.repository.UserRepository;
+import com.billsplit.util.MoneyUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.stream.Collectors;
+
+@Service
+@Transactional(readOnly = true)
+public class BalanceService {
+    
+    @Autowired
+    private ExpenseShareRepository expenseShareRepository;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private GroupRepository groupRepository;
+    
+    @Autowired
+    private AuthService authService;
+    
+    @Autowired
+    private FxRateService fxRateService;
+    
+    /**
+     * Net amounts between the current user and every counterparty across all of the
+     * user's groups, with a per-group breakdown. Uses one aggregation query plus one
+     * lookup each for counterparty and group names, independent of the number of groups.
+     *
+     * These are direct pairwise amounts (who paid for whom), not the simplified
+     * per-group plan returned by the settlements endpoint. Each group's amount is in
+     * the group's base currency and each counterparty's total in the pivot currency,
+     * all converted with one rates snapshot.
+     */
+    public List<CounterpartyBalanceDTO> getMyBalances() {
+        Long currentUserId = authService.getCurrentUserId();
+        List<PairwiseBalance> pairwiseBalances = expenseShareRepository.getPairwiseBalancesForUser(currentUserId);
+        if (pairwiseBalances.isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        Set<Long> counterpartyIds = new HashSet<>();
+        Set<Long> groupIds = new HashSet<>();
+        for (PairwiseBalance balance : pairwiseBalances) {
+            counterpartyIds.add(balance.getCounterpartyId());
+            groupIds.add(balance.getGroupId());
+        }
+        Map<Long, String> userNames = userRepository.findAllById(counterpartyIds).stream()
+                .collect(Collectors.toMap(User::getId, User::getName));
+        Map<Long, Group> groups = groupRepository.findAllById(groupIds).stream()
+                .collect(Collectors.toMap(Group::getId, group -> group));
+        
+        // Cents per (counterparty, group) in the group's base currency
+        FxRateSnapshot rates = fxRateService.current();
+        Map<List<Long>, Long> groupCents = new LinkedHashMap<>();
+        for (PairwiseBalance balance : pairwiseBalances) {
+            long cents = rates.convert(MoneyUtils.toCents(balance.getNetAmount()), balance.getCurrency(),
+                    groups.get(balance.getGroupId()).getBaseCurrency());
+            groupCents.merge(List.of(balance.getCounterpartyId(), balance.getGroupId()), cents, Long::sum);
+        }
+        
+        Map<Long, CounterpartyBalanceDTO> byCounterparty = new HashMap<>();
+        for (Map.Entry<List<Long>, Long> entry : groupCents.entrySet()) {
+            if (entry.getValue() == 0L) {
+                continue;
+            }
+            Group group = groups.get(entry.getKey().get(1));
+            CounterpartyBalanceDTO dto = byCounterparty.computeIfAbsent(entry.getKey().get(0), id -> {
+                CounterpartyBalanceDTO counterparty = new CounterpartyBalanceDTO(id, userNames.get(id));
+                counterparty.setCurrency(rates.getPivotCurrency());
+                return counterparty;
+            });
+            BigDecimal netAmount = MoneyUtils.fromCents(entry.getValue());
+            dto.setNetAmount(dto.getNetAmount().add(rates.convert(netAmount, group.getBaseCurrency(), rates.getPivotCurrency())));
+            dto.getGroups().add(new CounterpartyBalanceDTO.GroupAmount(
+                    group.getId(), group.getName(), group.getBaseCurrency(), netAmount));
+        }
+        
+        List<CounterpartyBalanceDTO> result = new ArrayList<>(byCounterparty.values());
+        result.sort((a, b) -> b.getNetAmount().abs().compareTo(a.getNetAmount().abs()));
+        return result;
+    }
+}
@@ -0,0 +1,126 @@
+package com.billsplit.service;
+
+import com.billsplit.entity.EmailOutboxMessage;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drains the email outbox: claims due messages in batches and delivers them through
+ * a fixed pool of app.email.outbox.concurrency threads, so a slow mail API limits
+ * throughput instead of holding request threads or database connections.
+ */
+@Component
+public class EmailOutboxDispatcher {
+    
+    private static final Logger logger = LoggerFactory.getLogger(EmailOutboxDispatcher.class);
+    
+    @Autowired
+    private EmailOutboxService emailOutboxService;
+    
+    @Autowired
+    private EmailService emailService;
+    
+    @Value("${app.email.outbox.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${app.email.outbox.batch-size:50}")
+    private int batchSize;
+    
+    @Value("${app.email.outbox.concurrency:4}")
+    private int concurrency;
+    
+    @Value("${app.email.outbox.lease-seconds:300}")
+    private long leaseSeconds;
+    
+    @Value("${app.email.outbox.retention-days:7}")
+    private int retentionDays;
+    
+    private ExecutorService executor;
+    
+    @PostConstruct
+    void startExecutor() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(concurrency, runnable -> {
+            Thread thread = new Thread(runnable, "email-outbox-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    @PreDestroy
+    void stopExecutor() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(30, TimeUnit.SECONDS);
+    }
+    
+    @Scheduled(fixedDelayString = "${app.email.outbox.poll-interval-ms:5000}")
+    public void dispatchDue() {
+        if (!enabled) {
+            return;
+        }
+        
+        int delivered = 0;
+        List<EmailOutboxMessage> batch;
+        do {
+            batch = emailOutboxService.claimDue(batchSize, leaseSeconds);
+            List<Future<Boolean>> results = new ArrayList<>(batch.size());
+            for (EmailOutboxMessage message : batch) {
+                results.add(executor.submit(() -> deliver(message)));
+            }
+            // Waiting keeps at most one batch in flight per dispatcher
+            for (Future<Boolean> result : results) {
+                try {
+                    if (result.get()) {
+                        delivered++;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (ExecutionException e) {
+                    logger.error("Email outbox delivery task failed: {}", e.getCause().getMessage(), e.getCause());
+                }
+            }
+        } while (batch.size() == batchSize);
+        
+        if (delivered > 0) {
+            logger.info("Email outbox delivered {} messages", delivered);
+        }
+    }
+    
+    @Scheduled(cron = "${app.email.outbox.purge-cron:0 15 4 * * *}")
+    public void purgeSent() {
+        if (!enabled) {
+            return;
+        }
+        int purged = emailOutboxService.purgeSentBefore(LocalDateTime.now().minusDays(retentionDays));
+        logger.info("Email outbox purged {} sent messages", purged);
+    }
+    
+    private boolean deliver(EmailOutboxMessage message) {
+        EmailService.DeliveryResult result = emailService.deliver(
+                message.getToEmail(), message.getSubject(), message.getTextContent(), message.getHtmlContent());
+        if (result.outcome() == EmailService.DeliveryOutcome.SENT) {
+            emailOutboxService.markSent(message.getId());
+            return true;
+        }
+        emailOutboxService.markFailed(message.getId(), result.error(),
+                result.outcome() == EmailService.DeliveryOutcome.RETRY);
+        return false;
+    }
+}
@@ -0,0 +1,89 @@
+package com.billsplit.service;
+
+import com.billsplit.entity.EmailOutboxMessage;
+import com.billsplit.repository.EmailOutboxRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Transactional side of the email outbox: messages are enqueued in the caller's
+ * transaction, and EmailOutboxDispatcher claims and settles them in short
+ * transactions of their own.
+ */
+@Service
+@Transactional
+public class EmailOutboxService {
+    
+    private static final int MAX_ERROR_LENGTH = 1000;
+    
+    @Autowired
+    private EmailOutboxRepository emailOutboxRepository;
+    
+    @Value("${app.email.outbox.max-attempts:8}")
+    private int maxAttempts;
+    
+    @Value("${app.email.outbox.backoff-base-seconds:30}")
+    private long backoffBaseSeconds;
+    
+    @Value("${app.email.outbox.backoff-max-seconds:3600}")
+    private long backoffMaxSeconds;
+    
+    public void enqueue(String toEmail, String subject, String text, String html) {
+        emailOutboxRepository.save(new EmailOutboxMessage(toEmail, subject, text, html));
+    }
+    
+    /**
+     * Claims up to limit due messages and counts the attempt. Claimed rows stay PENDING
+     * but are hidden from other pollers for leaseSeconds, so a dispatcher that dies
+     * mid-send only delays its messages instead of losing them.
+     */
+    public List<EmailOutboxMessage> claimDue(int limit, long leaseSeconds) {
+        LocalDateTime now = LocalDateTime.now();
+        List<EmailOutboxMessage> messages = emailOutboxRepository.findDueForUpdate(now, limit);
+        for (EmailOutboxMessage message : messages) {
+            message.setAttempts(message.getAttempts() + 1);
+            message.setNextAttemptAt(now.plusSeconds(leaseSeconds));
+        }
+        return messages;
+    }
+    
+    public void markSent(Long messageId) {
+        emailOutboxRepository.findById(messageId).ifPresent(message -> {
+            message.setStatus(EmailOutboxMessage.Status.SENT);
+            message.setSentAt(LocalDateTime.now());
+            message.setLastError(null);
+        });
+    }
+    
+    /**
+     * Records a failed delivery. Retryable failures are rescheduled with exponential
+     * backoff until max-attempts; permanent ones fail the message immediately.
+     */
+    public void markFailed(Long messageId, String error, boolean retryable) {
+        emailOutboxRepository.findById(messageId).ifPresent(message -> {
+            message.setLastError(error != null && error.length() > MAX_ERROR_LENGTH
+                    ? error.substring(0, MAX_ERROR_LENGTH) : error);
+            if (!retryable || message.getAttempts() >= maxAttempts) {
+                message.setStatus(EmailOutboxMessage.Status.FAILED);
+                return;
+            }
+            long backoffSeconds = Math.min(backoffMaxSeconds,
+                    backoffBaseSeconds << Math.min(message.getAttempts() - 1, 20));
+            message.setNextAttemptAt(LocalDateTime.now().plusSeconds(backoffSeconds));
+        });
+    }
+    
+    public int purgeSentBefore(LocalDateTime cutoff) {
+        return emailOutboxRepository.deleteByStatusCreatedBefore(EmailOutboxMessage.Status.SENT, cutoff);
+    }
+    
+    @Transactional(readOnly = true)
+    public long countPending() {
+        return emailOutboxRepository.countByStatus(EmailOutboxMessage.Status.PENDING);
+    }
+}
@@ -10,6 +10,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
@@ -30,6 +31,9 @@ public class EmailService {
     @Autowired
     private GroupMemberRepository groupMemberRepository;
     
+    @Autowired
+    private EmailOutboxService emailOutboxService;
+    
     @Value("${brevo.api.key:}")
     private String brevoApiKey;
     
@@ -48,7 +52,15 @@ public class EmailService {
     @Value("${app.name:BillSplit}")
     private String appName;
     
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final RestTemplate restTemplate = createRestTemplate();
+    
+    // Bounded so a hanging mail API cannot pin an outbox dispatcher thread
+    private static RestTemplate createRestTemplate() {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(5000);
+        requestFactory.setReadTimeout(15000);
+        return new RestTemplate(requestFactory);
+    }
     
     // Email validation pattern (RFC 5322 compliant)
     private static final Pattern EMAIL_PATTERN = Pattern.compile(
@@ -85,6 +97,11 @@ public class EmailService {
         return value.trim();
     }
     
+    // Amounts are shown with their ISO currency code, e.g. "EUR 12.50"
+    private String formatAmount(String currency, String amount) {
+        return safeString(currency, "USD") + " " + safeString(amount, "0.00");
+    }
+    
     /**
      * Converts plain text to basic HTML format
      * @param text Plain text content
@@ -154,12 +171,13 @@ public class EmailService {
     }
     
     /**
-     * Sends an email using Resend API with both text and HTML content
+     * Queues an email in the email outbox, inside the caller's transaction if there is one.
+     * EmailOutboxDispatcher delivers it once that transaction commits.
      * @param to Recipient email address
      * @param subject Email subject
      * @param text Plain text email body
      * @param html HTML email body (optional, falls back to text if not provided)
-     * @return true if email was sent successfully, false otherwise
+     * @return true if the email was queued, false if email is not configured or the address is invalid
      */
     private boolean sendEmail(String to, String subject, String text, String html) {
         if (!isEmailConfigured()) {
@@ -176,6 +194,28 @@ public class EmailService {
             return false;
         }
         
+        emailOutboxService.enqueue(sanitizedEmail, subject, text, html);
+        return true;
+    }
+    
+    public enum DeliveryOutcome {
+        SENT, RETRY, REJECTED
+    }
+    
+    public record DeliveryResult(DeliveryOutcome outcome, String error) {}
+    
+    /**
+     * Sends an email using Brevo API with both text and HTML content. Called by
+     * EmailOutboxDispatcher; everything else goes through the outbox.
+     * @return SENT, RETRY for transient failures (5xx, 429, network), REJECTED for other 4xx
+     */
+    public DeliveryResult deliver(String to, String subject, String text, String html) {
+        if (!isEmailConfigured()) {
+            return new DeliveryResult(DeliveryOutcome.RETRY, "Email not configured");
+        }
+        
+        String sanitizedEmail = to != null ? to.trim() : null;
+        
         try {
             // Prepare request headers
             HttpHeaders headers = new HttpHeaders();
@@ -226,24 +266,26 @@ public class EmailService {
             
             if (response.getStatusCode().is2xxSuccessful()) {
                 logger.info("Email sent successfully to {} via Brevo API", sanitizedEmail);
-                return true;
+                return new DeliveryResult(DeliveryOutcome.SENT, null);
             } else {
                 logger.error("Failed to send email to {}. Brevo API returned status: {}", 
                         sanitizedEmail, response.getStatusCode());
-                return false;
+                return new DeliveryResult(DeliveryOutcome.RETRY, "Brevo API returned status " + response.getStatusCode());
             }
         } catch (org.springframework.web.client.HttpClientErrorException e) {
             logger.error("Brevo API error (4xx) sending email to {}: Status: {}, Response: {}", 
                     sanitizedEmail, e.getStatusCode(), e.getResponseBodyAsString(), e);
-            return false;
+            // Rate limiting is worth retrying; other client errors will fail the same way again
+            DeliveryOutcome outcome = e.getStatusCode().value() == 429 ? DeliveryOutcome.RETRY : DeliveryOutcome.REJECTED;
+            return new DeliveryResult(outcome, e.getStatusCode() + ": " + e.getResponseBodyAsString());
         } catch (org.springframework.web.client.HttpServerErrorException e) {
             logger.error("Brevo API error (5xx) sending email to {}: Status: {}, Response: {}", 
                     sanitizedEmail, e.getStatusCode(), e.getResponseBodyAsString(), e);
-            return false;
+            return new DeliveryResult(DeliveryOutcome.RETRY, e.getStatusCode() + ": " + e.getResponseBodyAsString());
         } catch (Exception e) {
             logger.error("Failed to send email to {} via Brevo API: {} - {}", 
                     sanitizedEmail, e.getClass().getSimpleName(), e.getMessage(), e);
-            return false;
+            return new DeliveryResult(DeliveryOutcome.RETRY, e.getClass().getSimpleName() + ": " + e.getMessage());
         }
     }
     
@@ -281,16 +323,16 @@ public class EmailService {
         }
     }
     
-    public void sendExpenseNotification(String toEmail, String groupName, String expenseDescription, String amount) {
+    public void sendExpenseNotification(String toEmail, String groupName, String expenseDescription, String currency, String amount) {
         String safeGroupName = safeString(groupName, "Unknown Group");
         String safeDescription = safeString(expenseDescription, "Expense");
-        String safeAmount = safeString(amount, "0.00");
+        String safeAmount = formatAmount(currency, amount);
         
         String subject = "New expense in \"" + safeGroupName + "\"";
         
         String text = "Hello,\n\nA new expense has been added to the group \"" + safeGroupName + "\":\n\n" +
                 "Description: " + safeDescription + "\n" +
-                "Amount: $" + safeAmount + "\n\n" +
+                "Amount: " + safeAmount + "\n\n" +
                 "View details: " + appUrl + "\n\n" +
                 "Best regards,\n" + appName + " Team";
         
@@ -298,7 +340,7 @@ public class EmailService {
                 "<p>A new expense has been added to the group <strong>\"" + safeGroupName + "\"</strong>:</p>" +
                 "<div style=\"background-color: #f3f4f6; padding: 15px; border-radius: 6px; margin: 20px 0;\">" +
                 "<p style=\"margin: 5px 0;\"><strong>Description:</strong> " + safeDescription + "</p>" +
-                "<p style=\"margin: 5px 0;\"><strong>Amount:</strong> <span style=\"color: #10b981; font-size: 18px; font-weight: bold;\">$" + safeAmount + "</span></p>" +
+                "<p style=\"margin: 5px 0;\"><strong>Amount:</strong> <span style=\"color: #10b981; font-size: 18px; font-weight: bold;\">" + safeAmount + "</span></p>" +
                 "</div>";
         
         String groupUrl = appUrl + "/groups"; // Link to groups page
@@ -307,7 +349,81 @@ public class EmailService {
         sendEmail(toEmail, subject, text, html);
     }
     
+    public void sendExpenseImportSummary(String toEmail, String groupName, String importerName, int expenseCount,
+                                         String currency, String totalAmount) {
+        String safeGroupName = safeString(groupName, "Unknown Group");
+        String safeImporterName = safeString(importerName, "A group member");
+        String safeTotal = formatAmount(currency, totalAmount);
+        
+        String subject = expenseCount + " expenses imported into \"" + safeGroupName + "\"";
+        
+        String text = "Hello,\n\n" + safeImporterName + " imported " + expenseCount + " expenses into the group \"" + safeGroupName + "\".\n\n" +
+                "Total amount: " + safeTotal + "\n\n" +
+                "View details: " + appUrl + "\n\n" +
+                "Best regards,\n" + appName + " Team";
+        
+        String htmlContent = "<p>Hello,</p>" +
+                "<p><strong>" + safeImporterName + "</strong> imported " + expenseCount + " expenses into the group <strong>\"" + safeGroupName + "\"</strong>.</p>" +
+                "<div style=\"background-color: #f3f4f6; padding: 15px; border-radius: 6px; margin: 20px 0;\">" +
+                "<p style=\"margin: 5px 0;\"><strong>Total amount:</strong> <span style=\"color: #10b981; font-size: 18px; font-weight: bold;\">" + safeTotal + "</span></p>" +
+                "</div>";
+        
+        String groupUrl = appUrl + "/groups";
+        String html = createHtmlEmailTemplate("Expenses Imported", htmlContent, "View Group", groupUrl);
+        
+        sendEmail(toEmail, subject, text, html);
+    }
+    
+    public void sendRecurringExpenseDigest(String toEmail, List<RecurringExpenseService.DigestEntry> entries) {
+        StringBuilder textLines = new StringBuilder();
+        StringBuilder htmlLines = new StringBuilder();
+        for (RecurringExpenseService.DigestEntry entry : entries) {
+            String safeGroupName = safeString(entry.groupName(), "Unknown Group");
+            String safeDescription = safeString(entry.description(), "Expense");
+            String safeAmount = formatAmount(entry.currency(), entry.amount() != null ? entry.amount().toPlainString() : null);
+            textLines.append("• ").append(safeGroupName).append(": ").append(safeDescription)
+                    .append(" ").append(safeAmount).append("\n");
+            htmlLines.append("<p style=\"margin: 5px 0;\">• <strong>").append(safeGroupName).append(":</strong> ")
+                    .append(safeDescription).append(" <span style=\"color: #10b981; font-weight: bold;\">")
+                    .append(safeAmount).append("</span></p>");
+        }
+        
+        String subject = entries.size() == 1
+                ? "Recurring expense added"
+                : entries.size() + " recurring expenses added";
+        
+        String text = "Hello,\n\nThe following recurring expenses were added to your groups:\n\n" +
+                textLines + "\n" +
+                "View details: " + appUrl + "\n\n" +
+                "Best regards,\n" + appName + " Team";
+        
+        String htmlContent = "<p>Hello,</p>" +
+                "<p>The following recurring expenses were added to your groups:</p>" +
+                "<div style=\"background-color: #f3f4f6; padding: 15px; border-radius: 6px; margin: 20px 0;\">" +
+                htmlLines +
+                "</div>";
+        
+        String groupUrl = appUrl + "/groups";
+        String html = createHtmlEmailTemplate("Recurring Expenses Added", htmlContent, "View Groups", groupUrl);
+        
+        sendEmail(toEmail, subject, text, html);
+    }
+    
     public void sendSettlementNotifications(Long groupId, List<SettlementTransaction> transactions) {
+        sendSettlementSummary(groupId, transactions, "Settlement Summary", " owes ",
+                "Here's the settlement summary for the group");
+    }
+    
+    /**
+     * Notifies every member of a group about a batch of recorded settlements.
+     */
+    public void sendSettlementsRecordedNotifications(Long groupId, List<SettlementTransaction> transactions) {
+        sendSettlementSummary(groupId, transactions, "Settlements Recorded", " paid ",
+                "The following settlements were recorded in the group");
+    }
+    
+    private void sendSettlementSummary(Long groupId, List<SettlementTransaction> transactions,
+                                       String title, String verb, String intro) {
         if (!isEmailConfigured()) {
             logger.info("Email not configured. Skipping settlement notifications for group {}", groupId);
             return;
@@ -331,7 +447,7 @@ public class EmailService {
             
             // Build settlement summary
             StringBuilder settlementSummary = new StringBuilder();
-            settlementSummary.append("Settlement Summary for group \"").append(group.getName()).append("\":\n\n");
+            settlementSummary.append(title).append(" for group \"").append(group.getName()).append("\":\n\n");
             
             for (SettlementTransaction transaction : transactions) {
                 String fromName = transaction.getFromUserName() != null ? 
@@ -340,9 +456,9 @@ public class EmailService {
                     transaction.getToUserName() : "Unknown";
                 
                 settlementSummary.append("• ").append(fromName)
-                               .append(" owes ").append(toName)
-                               .append(" $").append(transaction.getAmount() != null ? 
-                                   String.format("%.2f", transaction.getAmount()) : "0.00")
+                               .append(verb).append(toName)
+                               .append(" ").append(formatAmount(group.getBaseCurrency(), transaction.getAmount() != null ?
+                                   String.format("%.2f", transaction.getAmount()) : null))
                                .append("\n");
             }
             
@@ -368,7 +484,7 @@ public class EmailService {
                 
                 String safeUserName = safeString(userName, "there");
                 
-                String subject = "Settlement Summary: " + safeGroupName;
+                String subject = title + ": " + safeGroupName;
                 
                 // Convert settlement summary to HTML
                 String htmlSummary = settlementSummary.toString()
@@ -381,13 +497,13 @@ public class EmailService {
                         "Best regards,\n" + appName + " Team";
                 
                 String htmlContent = "<p>Hello <strong>" + safeUserName + "</strong>,</p>" +
-                        "<p>Here's the settlement summary for the group <strong>\"" + safeGroupName + "\"</strong>:</p>" +
+                        "<p>" + intro + " <strong>\"" + safeGroupName + "\"</strong>:</p>" +
                         "<div style=\"background-color: #f3f4f6; padding: 15px; border-radius: 6px; margin: 20px 0;\">" +
                         htmlSummary +
                         "</div>";
                 
                 String groupUrl = appUrl + "/groups"; // Link to groups page
-                String html = createHtmlEmailTemplate("Settlement Summary", htmlContent, "View Details", groupUrl);
+                String html = createHtmlEmailTemplate(title, htmlContent, "View Details", groupUrl);
                 
                 sendEmail(sanitizedEmail, subject, text, html);
             }
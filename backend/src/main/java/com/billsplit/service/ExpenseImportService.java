@@ -0,0 +1,555 @@
+package com.billsplit.service;
+
+import com.billsplit.dto.ExpenseImportRowResult;
+import com.billsplit.dto.ExpenseImportSummary;
+import com.billsplit.dto.ExpenseRequest;
+import com.billsplit.entity.*;
+import com.billsplit.repository.ExpenseRepository;
+import com.billsplit.repository.ExpenseShareRepository;
+import com.billsplit.repository.GroupMemberRepository;
+import com.billsplit.repository.GroupRepository;
+import com.billsplit.repository.PendingExpenseShareRepository;
+import com.billsplit.repository.PendingGroupMemberRepository;
+import com.billsplit.util.CsvLine;
+import com.billsplit.util.MoneyUtils;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Bulk expense import from CSV or NDJSON. Members and pending members are resolved
+ * once per import and every row is validated in memory; valid rows are inserted in
+ * batches of app.expense.import.batch-size, one transaction per batch, and the
+ * per-row report is streamed back as each batch commits, so memory stays flat
+ * however long the file is. Per-expense emails are replaced by one summary email.
+ */
+@Service
+public class ExpenseImportService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ExpenseImportService.class);
+    
+    public enum Format {
+        CSV, NDJSON
+    }
+    
+    @Autowired
+    private ExpenseRepository expenseRepository;
+    
+    @Autowired
+    private ExpenseShareRepository expenseShareRepository;
+    
+    @Autowired
+    private PendingExpenseShareRepository pendingExpenseShareRepository;
+    
+    @Autowired
+    private GroupRepository groupRepository;
+    
+    @Autowired
+    private GroupMemberRepository groupMemberRepository;
+    
+    @Autowired
+    private PendingGroupMemberRepository pendingGroupMemberRepository;
+    
+    @Autowired
+    private BalanceLedgerService balanceLedgerService;
+    
+    @Autowired
+    private EmailService emailService;
+    
+    @Autowired
+    private AuthService authService;
+    
+    @Autowired
+    private FxRateService fxRateService;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private Validator validator;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Value("${app.expense.import.batch-size:500}")
+    private int batchSize;
+    
+    /**
+     * Checks that the current user belongs to the group and loads its members once
+     * for the whole import. Called before the report starts streaming, so a
+     * non-member gets an ordinary error response.
+     */
+    @Transactional(readOnly = true)
+    public ImportScope openImport(Long groupId) {
+        User currentUser = authService.getCurrentUser();
+        Group group = groupRepository.findById(groupId)
+                .orElseThrow(() -> new RuntimeException("Group not found"));
+        
+        ImportScope scope = loadScope(group, currentUser);
+        if (!scope.hasMember(currentUser.getId())) {
+            throw new RuntimeException("User is not a member of this group");
+        }
+        return scope;
+    }
+    
+    /**
+     * Loads the group's members and pending members in the caller's transaction. The
+     * importer pays for rows without a payer and proxies for pending payers. Rows are
+     * checked against, and totalled with, the rates current when the scope is loaded.
+     */
+    ImportScope loadScope(Group group, User importer) {
+        ImportScope scope = new ImportScope(group, importer, fxRateService.current());
+        for (GroupMember member : groupMemberRepository.findByGroupWithUser(group)) {
+            User user = member.getUser();
+            scope.members.add(user);
+            scope.membersById.put(user.getId(), user);
+            scope.membersByEmail.put(user.getEmail().toLowerCase(Locale.ROOT), user);
+        }
+        for (PendingGroupMember pendingMember : pendingGroupMemberRepository.findByGroup(group)) {
+            scope.pendingMembers.add(pendingMember);
+            scope.pendingMembersByEmail.put(pendingMember.getEmail().toLowerCase(Locale.ROOT), pendingMember);
+        }
+        return scope;
+    }
+    
+    /**
+     * Imports every row of body into the scope's group, writing one NDJSON result per
+     * row to report, followed by a {"summary": ...} line.
+     */
+    public ExpenseImportSummary importExpenses(ImportScope scope, Format format, Reader body, Writer report) throws IOException {
+        long startNanos = System.nanoTime();
+        ExpenseImportSummary summary = new ExpenseImportSummary();
+        summary.setCurrency(scope.group.getBaseCurrency());
+        summary.setTotalAmount(BigDecimal.ZERO);
+        
+        BufferedReader reader = new BufferedReader(body);
+        Map<String, Integer> columns = null;
+        List<PreparedRow> batch = new ArrayList<>();
+        List<ExpenseImportRowResult> results = new ArrayList<>();
+        int lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            if (format == Format.CSV && columns == null) {
+                columns = parseHeader(line);
+                continue;
+            }
+            
+            try {
+                ExpenseRequest request = format == Format.CSV
+                        ? parseCsvRow(scope, columns, line)
+                        : objectMapper.readValue(line, ExpenseRequest.class);
+                PreparedRow row = prepare(scope, request, lineNumber);
+                batch.add(row);
+                results.add(row.result);
+            } catch (JsonProcessingException e) {
+                results.add(ExpenseImportRowResult.failed(lineNumber, "Invalid JSON: " + e.getOriginalMessage()));
+            } catch (RuntimeException e) {
+                results.add(ExpenseImportRowResult.failed(lineNumber, e.getMessage()));
+            }
+            
+            // Failed rows count towards the batch too, so the buffered report stays bounded
+            if (results.size() >= batchSize) {
+                writeBatch(scope, batch, results, summary, report);
+            }
+        }
+        writeBatch(scope, batch, results, summary, report);
+        
+        long elapsedMs = Math.max(1L, (System.nanoTime() - startNanos) / 1_000_000L);
+        summary.setElapsedMs(elapsedMs);
+        summary.setRowsPerSecond(Math.round(summary.getRows() * 10_000.0 / elapsedMs) / 10.0);
+        report.write(objectMapper.writeValueAsString(Map.of("summary", summary)));
+        report.write('\n');
+        report.flush();
+        
+        logger.info("Imported {} of {} expense rows into group {} in {} ms ({} rows/s)",
+                summary.getImported(), summary.getRows(), scope.group.getId(), elapsedMs, summary.getRowsPerSecond());
+        if (summary.getImported() > 0) {
+            sendSummaryEmails(scope, summary);
+        }
+        return summary;
+    }
+    
+    private void writeBatch(ImportScope scope, List<PreparedRow> batch, List<ExpenseImportRowResult> results,
+                            ExpenseImportSummary summary, Writer report) throws IOException {
+        if (!batch.isEmpty()) {
+            try {
+                new TransactionTemplate(transactionManager).executeWithoutResult(status -> insertBatch(scope.group, batch));
+                for (PreparedRow row : batch) {
+                    row.result.setStatus(ExpenseImportRowResult.Status.IMPORTED);
+                    row.result.setExpenseId(row.expense.getId());
+                    summary.setImported(summary.getImported() + 1);
+                    summary.setTotalAmount(summary.getTotalAmount().add(scope.rates.convert(
+                            row.expense.getAmount(), row.expense.getCurrency(), summary.getCurrency())));
+                }
+            } catch (RuntimeException e) {
+                logger.error("Expense import batch for group {} failed: {}", scope.group.getId(), e.getMessage(), e);
+                for (PreparedRow row : batch) {
+                    row.result.setStatus(ExpenseImportRowResult.Status.FAILED);
+                    row.result.setError("Batch insert failed: " + e.getMessage());
+                }
+            } finally {
+                // The request-scoped persistence context would otherwise hold every imported entity
+                entityManager.clear();
+            }
+        }
+        
+        for (ExpenseImportRowResult result : results) {
+            summary.setRows(summary.getRows() + 1);
+            if (result.getStatus() == ExpenseImportRowResult.Status.FAILED) {
+                summary.setFailed(summary.getFailed() + 1);
+            }
+            report.write(objectMapper.writeValueAsString(result));
+            report.write('\n');
+        }
+        report.flush();
+        batch.clear();
+        results.clear();
+    }
+    
+    /**
+     * Inserts prepared rows of one group with their shares and applies them to the
+     * group's balance ledger, in the caller's transaction.
+     */
+    void insertBatch(Group group, List<PreparedRow> batch) {
+        List<Expense> expenses = new ArrayList<>(batch.size());
+        List<ExpenseShare> shares = new ArrayList<>();
+        List<PendingExpenseShare> pendingShares = new ArrayList<>();
+        for (PreparedRow row : batch) {
+            expenses.add(row.expense);
+            shares.addAll(row.shares);
+            pendingShares.addAll(row.pendingShares);
+        }
+        // Sequence ids let Hibernate send each table's rows as JDBC batches at flush
+        expenseRepository.saveAll(expenses);
+        expenseShareRepository.saveAll(shares);
+        pendingExpenseShareRepository.saveAll(pendingShares);
+        balanceLedgerService.recordExpenses(group.getId(), expenses, shares);
+        entityManager.flush();
+    }
+    
+    /**
+     * Validates a row against the preloaded members and builds its unsaved expense
+     * and shares. Throws with a row-level message if the row cannot be imported.
+     */
+    PreparedRow prepare(ImportScope scope, ExpenseRequest request, int lineNumber) {
+        request.setGroupId(scope.group.getId());
+        Set<ConstraintViolation<ExpenseRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            ConstraintViolation<ExpenseRequest> violation = violations.iterator().next();
+            throw new RuntimeException(violation.getPropertyPath() + ": " + violation.getMessage());
+        }
+        requireCents(request.getAmount());
+        
+        User paidBy = scope.importer;
+        String description = request.getDescription();
+        if (request.getPaidByUserId() != null) {
+            paidBy = scope.membersById.get(request.getPaidByUserId());
+            if (paidBy == null) {
+                throw new RuntimeException("Payer is not a member of this group");
+            }
+        } else if (request.getPaidByPendingMemberEmail() != null) {
+            // Same convention as ExpenseService: the importer pays as a proxy for the pending payer
+            description += ExpenseService.pendingPayerNote(scope.pendingMember(request.getPaidByPendingMemberEmail()));
+        }
+        
+        PreparedRow row = new PreparedRow(lineNumber,
+                new Expense(scope.group, description, request.getAmount(), paidBy, request.getSplitType()));
+        row.expense.setCurrency(scope.rates.resolveCurrency(request.getCurrency(), scope.group.getBaseCurrency()));
+        if (request.getSplitType() == Expense.SplitType.EQUAL) {
+            long[] shareCents = ExpenseSplitCalculator.splitEqually(
+                    request.getAmount(), scope.members.size(), scope.pendingMembers.size());
+            for (int i = 0; i < scope.members.size(); i++) {
+                row.shares.add(new ExpenseShare(row.expense, scope.members.get(i), MoneyUtils.fromCents(shareCents[i])));
+            }
+            for (int i = 0; i < scope.pendingMembers.size(); i++) {
+                row.pendingShares.add(new PendingExpenseShare(row.expense, scope.pendingMembers.get(i),
+                        MoneyUtils.fromCents(shareCents[scope.members.size() + i])));
+            }
+        } else {
+            long[] allocated = null;
+            if (request.getSplitType() == Expense.SplitType.CUSTOM) {
+                if (request.getShares() != null) {
+                    for (ExpenseRequest.ExpenseShareRequest share : request.getShares()) {
+                        requireCents(share.getAmountOwed());
+                    }
+                }
+                if (request.getPendingShares() != null) {
+                    for (ExpenseRequest.PendingShareRequest share : request.getPendingShares()) {
+                        requireCents(share.getAmountOwed());
+                    }
+                }
+                ExpenseSplitCalculator.validateCustomShares(request.getAmount(), request.getShares(), request.getPendingShares());
+            } else {
+                allocated = ExpenseSplitCalculator.splitProportionally(
+                        request.getAmount(), request.getSplitType(), request.getShares(), request.getPendingShares());
+            }
+            
+            int memberCount = request.getShares() != null ? request.getShares().size() : 0;
+            for (int i = 0; i < memberCount; i++) {
+                ExpenseRequest.ExpenseShareRequest share = request.getShares().get(i);
+                User user = scope.membersById.get(share.getUserId());
+                if (user == null) {
+                    throw new RuntimeException("User is not a member of this group");
+                }
+                row.shares.add(new ExpenseShare(row.expense, user,
+                        allocated != null ? MoneyUtils.fromCents(allocated[i]) : share.getAmountOwed()));
+            }
+            if (request.getPendingShares() != null) {
+                for (int i = 0; i < request.getPendingShares().size(); i++) {
+                    ExpenseRequest.PendingShareRequest share = request.getPendingShares().get(i);
+                    row.pendingShares.add(new PendingExpenseShare(row.expense, scope.pendingMember(share.getEmail()),
+                            allocated != null ? MoneyUtils.fromCents(allocated[memberCount + i]) : share.getAmountOwed()));
+                }
+            }
+        }
+        return row;
+    }
+    
+    private static void requireCents(BigDecimal amount) {
+        if (amount == null) {
+            throw new RuntimeException("Amount is required");
+        }
+        if (amount.signum() < 0 || amount.stripTrailingZeros().scale() > 2) {
+            throw new RuntimeException("Invalid amount: " + amount.toPlainString());
+        }
+    }
+    
+    /**
+     * Maps CSV header names to column indexes. Names are matched ignoring case, spaces
+     * and underscores, so "splitType", "split_type" and "Split Type" are the same column.
+     */
+    private static Map<String, Integer> parseHeader(String line) {
+        Map<String, Integer> columns = new HashMap<>();
+        List<String> names = CsvLine.split(line);
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(normalizeColumn(names.get(i)), i);
+        }
+        if (!columns.containsKey("description") || !columns.containsKey("amount")) {
+            throw new RuntimeException("CSV header must include description and amount columns");
+        }
+        return columns;
+    }
+    
+    private static String normalizeColumn(String name) {
+        return name.replaceAll("[\\s_]", "").toLowerCase(Locale.ROOT);
+    }
+    
+    /**
+     * Reads a CSV row with the columns description, amount and optionally currency (default
+     * the group's base currency), splitType
+     * (EQUAL, CUSTOM, PERCENT, WEIGHTED or ITEMIZED; CUSTOM if shares are given, EQUAL otherwise),
+     * paidBy (a member's or pending member's email, default the importer) and shares
+     * ("email:value;email:value", where the value is an amount, percent, weight or item amount
+     * depending on the split type).
+     */
+    private static ExpenseRequest parseCsvRow(ImportScope scope, Map<String, Integer> columns, String line) {
+        List<String> fields = CsvLine.split(line);
+        ExpenseRequest request = new ExpenseRequest();
+        request.setDescription(field(fields, columns, "description"));
+        request.setAmount(parseAmount(field(fields, columns, "amount")));
+        request.setCurrency(field(fields, columns, "currency"));
+        
+        String splitType = field(fields, columns, "splittype");
+        String shares = field(fields, columns, "shares");
+        try {
+            if (splitType != null) {
+                request.setSplitType(Expense.SplitType.valueOf(splitType.toUpperCase(Locale.ROOT)));
+            } else {
+                request.setSplitType(shares != null ? Expense.SplitType.CUSTOM : Expense.SplitType.EQUAL);
+            }
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Invalid split type: " + splitType);
+        }
+        
+        String paidBy = field(fields, columns, "paidby");
+        if (paidBy != null) {
+            User user = scope.membersByEmail.get(paidBy.toLowerCase(Locale.ROOT));
+            if (user != null) {
+                request.setPaidByUserId(user.getId());
+            } else if (scope.pendingMembersByEmail.containsKey(paidBy.toLowerCase(Locale.ROOT))) {
+                request.setPaidByPendingMemberEmail(paidBy);
+            } else {
+                throw new RuntimeException("Payer is not a member of this group");
+            }
+        }
+        
+        if (shares != null) {
+            List<ExpenseRequest.ExpenseShareRequest> memberShares = new ArrayList<>();
+            List<ExpenseRequest.PendingShareRequest> pendingShares = new ArrayList<>();
+            for (String entry : shares.split(";")) {
+                if (entry.isBlank()) {
+                    continue;
+                }
+                int separator = entry.lastIndexOf(':');
+                if (separator < 0) {
+                    throw new RuntimeException("Invalid share: " + entry.trim());
+                }
+                String email = entry.substring(0, separator).trim().toLowerCase(Locale.ROOT);
+                BigDecimal value = parseAmount(entry.substring(separator + 1).trim());
+                User user = scope.membersByEmail.get(email);
+                if (user != null) {
+                    ExpenseRequest.ExpenseShareRequest share = new ExpenseRequest.ExpenseShareRequest(user.getId(), null);
+                    setShareValue(request.getSplitType(), value, share::setAmountOwed, share::setPercent,
+                            share::setWeight, share::setItemAmount);
+                    memberShares.add(share);
+                } else if (scope.pendingMembersByEmail.containsKey(email)) {
+                    ExpenseRequest.PendingShareRequest share = new ExpenseRequest.PendingShareRequest(email, null);
+                    setShareValue(request.getSplitType(), value, share::setAmountOwed, share::setPercent,
+                            share::setWeight, share::setItemAmount);
+                    pendingShares.add(share);
+                } else {
+                    throw new RuntimeException("Share participant is not a member of this group: " + email);
+                }
+            }
+            request.setShares(memberShares);
+            request.setPendingShares(pendingShares);
+        }
+        return request;
+    }
+    
+    /**
+     * Stores a CSV share value in the field its split type reads: the amount owed,
+     * percent, weight or item amount.
+     */
+    private static void setShareValue(Expense.SplitType splitType, BigDecimal value,
+                                      Consumer<BigDecimal> amountOwed, Consumer<BigDecimal> percent,
+                                      Consumer<BigDecimal> weight, Consumer<BigDecimal> itemAmount) {
+        if (splitType == Expense.SplitType.PERCENT) {
+            percent.accept(value);
+        } else if (splitType == Expense.SplitType.WEIGHTED) {
+            weight.accept(value);
+        } else if (splitType == Expense.SplitType.ITEMIZED) {
+            itemAmount.accept(value);
+        } else {
+            amountOwed.accept(value);
+        }
+    }
+    
+    private static String field(List<String> fields, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+    
+    private static BigDecimal parseAmount(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return new BigDecimal(value);
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Invalid amount: " + value);
+        }
+    }
+    
+    private void sendSummaryEmails(ImportScope scope, ExpenseImportSummary summary) {
+        try {
+            for (User member : scope.members) {
+                if (!member.getId().equals(scope.importer.getId())) {
+                    emailService.sendExpenseImportSummary(member.getEmail(), scope.group.getName(),
+                            scope.importer.getName(), summary.getImported(), summary.getCurrency(),
+                            summary.getTotalAmount().toString());
+                }
+            }
+        } catch (Exception e) {
+            // Log error but don't fail the import if email fails
+            logger.error("Failed to send expense import summary emails: {}", e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * The group, importing user and members resolved once per import.
+     */
+    public static class ImportScope {
+        
+        private final Group group;
+        private final User importer;
+        private final List<User> members = new ArrayList<>();
+        private final Map<Long, User> membersById = new HashMap<>();
+        private final Map<String, User> membersByEmail = new HashMap<>();
+        private final List<PendingGroupMember> pendingMembers = new ArrayList<>();
+        private final Map<String, PendingGroupMember> pendingMembersByEmail = new HashMap<>();
+        private final FxRateSnapshot rates;
+        
+        private ImportScope(Group group, User importer, FxRateSnapshot rates) {
+            this.group = group;
+            this.importer = importer;
+            this.rates = rates;
+        }
+        
+        Group getGroup() {
+            return group;
+        }
+        
+        boolean hasMember(Long userId) {
+            return membersById.containsKey(userId);
+        }
+        
+        List<User> getMembers() {
+            return members;
+        }
+        
+        private PendingGroupMember pendingMember(String email) {
+            PendingGroupMember pendingMember = email == null ? null
+                    : pendingMembersByEmail.get(email.trim().toLowerCase(Locale.ROOT));
+            if (pendingMember == null) {
+                throw new RuntimeException("Pending member not found");
+            }
+            return pendingMember;
+        }
+    }
+    
+    /**
+     * A validated row: its unsaved expense and shares, and the result reported for it.
+     */
+    static class PreparedRow {
+        
+        private final ExpenseImportRowResult result;
+        private final Expense expense;
+        private final List<ExpenseShare> shares = new ArrayList<>();
+        private final List<PendingExpenseShare> pendingShares = new ArrayList<>();
+        
+        private PreparedRow(int lineNumber, Expense expense) {
+            this.result = new ExpenseImportRowResult(lineNumber);
+            this.expense = expense;
+        }
+        
+        Expense getExpense() {
+            return expense;
+        }
+    }
+}
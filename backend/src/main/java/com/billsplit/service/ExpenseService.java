@@ -1,22 +1,32 @@
 package com.billsplit.service;
 
+import com.billsplit.dto.CursorPage;
+import com.billsplit.dto.ExpenseDetailsDTO;
 import com.billsplit.dto.ExpenseRequest;
 import com.billsplit.entity.*;
 import com.billsplit.repository.ExpenseRepository;
 import com.billsplit.repository.ExpenseShareRepository;
 import com.billsplit.repository.GroupMemberRepository;
+import com.billsplit.repository.PendingExpenseShareRepository;
 import com.billsplit.repository.PendingGroupMemberRepository;
 import com.billsplit.repository.UserRepository;
+import com.billsplit.util.KeysetCursor;
+import com.billsplit.util.MoneyUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @Transactional
@@ -24,6 +34,8 @@ public class ExpenseService {
     
     private static final Logger logger = LoggerFactory.getLogger(ExpenseService.class);
     
+    static final int MAX_EXPENSE_PAGE_SIZE = 100;
+    
     @Autowired
     private ExpenseRepository expenseRepository;
     
@@ -33,6 +45,9 @@ public class ExpenseService {
     @Autowired
     private GroupMemberRepository groupMemberRepository;
     
+    @Autowired
+    private MembershipService membershipService;
+    
     @Autowired
     private UserRepository userRepository;
     
@@ -45,18 +60,24 @@ public class ExpenseService {
     @Autowired
     private EmailService emailService;
     
+    @Autowired
+    private BalanceLedgerService balanceLedgerService;
+    
+    @Autowired
+    private PendingExpenseShareRepository pendingExpenseShareRepository;
+    
+    @Autowired
+    private FxRateService fxRateService;
+    
     public Expense createExpense(ExpenseRequest expenseRequest) {
         User currentUser = authService.getCurrentUser();
-        Group group = groupMemberRepository.findByUser(currentUser).stream()
-                .map(GroupMember::getGroup)
-                .filter(g -> g.getId().equals(expenseRequest.getGroupId()))
-                .findFirst()
-                .orElseThrow(() -> new RuntimeException("User is not a member of this group"));
+        Group group = membershipService.getGroupForMember(currentUser, expenseRequest.getGroupId());
         
         Expense expense = new Expense();
         expense.setGroup(group);
         expense.setDescription(expenseRequest.getDescription());
         expense.setAmount(expenseRequest.getAmount());
+        expense.setCurrency(fxRateService.current().resolveCurrency(expenseRequest.getCurrency(), group.getBaseCurrency()));
         expense.setSplitType(expenseRequest.getSplitType());
         
         // Determine who paid
@@ -65,18 +86,18 @@ public class ExpenseService {
         
         if (expenseRequest.getPaidByUserId() != null) {
             // Check if the user is a member of the group
-            GroupMember payerMember = groupMemberRepository.findByGroupAndUser(group, 
-                    userRepository.findById(expenseRequest.getPaidByUserId())
-                            .orElseThrow(() -> new RuntimeException("Payer user not found")))
-                    .orElseThrow(() -> new RuntimeException("Payer is not a member of this group"));
-            paidByUser = payerMember.getUser();
+            paidByUser = userRepository.findById(expenseRequest.getPaidByUserId())
+                    .orElseThrow(() -> new RuntimeException("Payer user not found"));
+            if (membershipService.getRole(paidByUser.getId(), group.getId()).isEmpty()) {
+                throw new RuntimeException("Payer is not a member of this group");
+            }
         } else if (expenseRequest.getPaidByPendingMemberEmail() != null) {
             // Pending member paid - use current user as proxy but note it in description
             String normalizedEmail = expenseRequest.getPaidByPendingMemberEmail().trim().toLowerCase();
             PendingGroupMember pendingPayer = pendingGroupMemberRepository.findByGroupAndEmail(group, normalizedEmail)
                     .orElseThrow(() -> new RuntimeException("Pending member not found"));
             paidByUser = currentUser; // Use current user as proxy
-            pendingPaidByNote = " (Paid by: " + (pendingPayer.getName() != null ? pendingPayer.getName() : pendingPayer.getEmail()) + " - Pending)";
+            pendingPaidByNote = pendingPayerNote(pendingPayer);
         }
         
         expense.setPaidBy(paidByUser);
@@ -89,210 +110,210 @@ public class ExpenseService {
         Expense savedExpense = expenseRepository.save(expense);
         
         // Create expense shares
+        List<ExpenseShare> shares;
         if (expenseRequest.getSplitType() == Expense.SplitType.EQUAL) {
-            createEqualShares(savedExpense, group, expenseRequest.getPaidByPendingMemberEmail() != null);
+            shares = createEqualShares(savedExpense, group);
+        } else if (expenseRequest.getSplitType() == Expense.SplitType.CUSTOM) {
+            ExpenseSplitCalculator.validateCustomShares(savedExpense.getAmount(), expenseRequest.getShares(), expenseRequest.getPendingShares());
+            shares = createListedShares(savedExpense, group, expenseRequest.getShares(), expenseRequest.getPendingShares(), null);
         } else {
-            createCustomShares(savedExpense, expenseRequest.getShares(), expenseRequest.getPendingShares());
+            long[] allocated = ExpenseSplitCalculator.splitProportionally(savedExpense.getAmount(),
+                    expenseRequest.getSplitType(), expenseRequest.getShares(), expenseRequest.getPendingShares());
+            shares = createListedShares(savedExpense, group, expenseRequest.getShares(), expenseRequest.getPendingShares(), allocated);
         }
         
-        // Send expense notification emails to all group members (except the payer)
-        try {
-            List<GroupMember> allMembers = groupMemberRepository.findByGroupWithUser(group);
-            for (GroupMember member : allMembers) {
-                if (member.getUser() != null && !member.getUser().getId().equals(paidByUser.getId())) {
-                    emailService.sendExpenseNotification(
-                            member.getUser().getEmail(),
-                            group.getName(),
-                            expenseRequest.getDescription(),
-                            expenseRequest.getAmount().toString()
-                    );
-                }
+        balanceLedgerService.recordExpense(savedExpense, shares);
+        
+        // Queue expense notification emails to all group members (except the payer); they are
+        // written to the outbox in this transaction and delivered after it commits
+        List<GroupMember> allMembers = groupMemberRepository.findByGroupWithUser(group);
+        for (GroupMember member : allMembers) {
+            if (member.getUser() != null && !member.getUser().getId().equals(paidByUser.getId())) {
+                emailService.sendExpenseNotification(
+                        member.getUser().getEmail(),
+                        group.getName(),
+                        expenseRequest.getDescription(),
+                        savedExpense.getCurrency(),
+                        expenseRequest.getAmount().toString()
+                );
             }
-        } catch (Exception e) {
-            // Log error but don't fail expense creation if email fails
-            logger.error("Failed to send expense notification emails: {}", e.getMessage(), e);
         }
         
         return savedExpense;
     }
     
-    private void createEqualShares(Expense expense, Group group, boolean paidByPendingMember) {
+    static String pendingPayerNote(PendingGroupMember pendingPayer) {
+        return " (Paid by: " + (pendingPayer.getName() != null ? pendingPayer.getName() : pendingPayer.getEmail()) + " - Pending)";
+    }
+    
+    private List<ExpenseShare> createEqualShares(Expense expense, Group group) {
         List<GroupMember> members = groupMemberRepository.findByGroup(group);
         List<PendingGroupMember> pendingMembers = pendingGroupMemberRepository.findByGroup(group);
         
-        int totalParticipants = members.size() + pendingMembers.size();
-        if (totalParticipants == 0) {
-            throw new RuntimeException("Cannot split expense with no participants");
-        }
-        
-        // Calculate base amount per person (with more precision)
-        BigDecimal amountPerPerson = expense.getAmount().divide(
-                BigDecimal.valueOf(totalParticipants), 4, RoundingMode.HALF_UP);
-        
-        // Round to 2 decimal places for storage
-        BigDecimal roundedAmountPerPerson = amountPerPerson.setScale(2, RoundingMode.HALF_UP);
-        
-        // Calculate total if all participants pay the rounded amount
-        BigDecimal totalRoundedAll = roundedAmountPerPerson.multiply(BigDecimal.valueOf(totalParticipants));
-        
-        // Calculate rounding error (difference between expense amount and rounded total)
-        BigDecimal roundingError = expense.getAmount().subtract(totalRoundedAll);
-        
-        // Distribute rounding error: give it to the last participant (member if members exist, otherwise last pending)
-        // First, calculate what members should pay (rounded amount, with rounding error if they're the last group)
-        BigDecimal totalForMembers = roundedAmountPerPerson.multiply(BigDecimal.valueOf(members.size()));
-        BigDecimal totalForPending = roundedAmountPerPerson.multiply(BigDecimal.valueOf(pendingMembers.size()));
-        
-        // Distribute rounding error to the last group (members if they exist, otherwise pending)
-        if (members.size() > 0) {
-            // Members get the rounding error (distributed to last member)
-            totalForMembers = totalForMembers.add(roundingError);
-        } else if (pendingMembers.size() > 0) {
-            // Pending members get the rounding error (distributed to last pending)
-            totalForPending = totalForPending.add(roundingError);
-        }
+        // Members first, then pending members; leftover cents go to the first participants
+        long[] shareCents = ExpenseSplitCalculator.splitEqually(
+                expense.getAmount(), members.size(), pendingMembers.size());
         
         // Create shares for all actual members
-        int memberIndex = 0;
-        BigDecimal remainingForMembers = totalForMembers;
-        BigDecimal membersTotal = BigDecimal.ZERO;
-        for (GroupMember member : members) {
-            BigDecimal shareAmount;
-            
-            if (memberIndex == members.size() - 1) {
-                // Last member gets the remainder to ensure exact total
-                shareAmount = remainingForMembers;
-            } else {
-                shareAmount = roundedAmountPerPerson;
-                remainingForMembers = remainingForMembers.subtract(shareAmount);
-            }
-            
-            membersTotal = membersTotal.add(shareAmount);
-            ExpenseShare share = new ExpenseShare(expense, member.getUser(), shareAmount);
-            expenseShareRepository.save(share);
-            memberIndex++;
+        List<ExpenseShare> shares = new ArrayList<>(members.size());
+        for (int i = 0; i < members.size(); i++) {
+            shares.add(new ExpenseShare(expense, members.get(i).getUser(), MoneyUtils.fromCents(shareCents[i])));
         }
+        // Sequence ids let Hibernate send these as one JDBC batch at flush
+        shares = expenseShareRepository.saveAll(shares);
         
-        // Store pending members' shares in description for frontend calculation
-        BigDecimal pendingTotal = BigDecimal.ZERO;
+        // Pending members' shares are converted to expense shares when they accept the invitation
         if (!pendingMembers.isEmpty()) {
-            StringBuilder pendingSharesStr = new StringBuilder();
-            if (expense.getDescription().contains("(Paid by:")) {
-                pendingSharesStr.append(" (Pending shares: ");
-            } else {
-                pendingSharesStr.append(" (Pending shares: ");
-            }
-            
-            int pendingIndex = 0;
-            BigDecimal remainingForPending = totalForPending;
-            for (PendingGroupMember pending : pendingMembers) {
-                if (pendingIndex > 0) pendingSharesStr.append(", ");
-                
-                BigDecimal pendingShareAmount;
-                if (pendingIndex == pendingMembers.size() - 1) {
-                    // Last pending member gets the remainder to ensure exact total
-                    pendingShareAmount = remainingForPending;
-                } else {
-                    // Use the same rounded amount per person
-                    pendingShareAmount = roundedAmountPerPerson;
-                    remainingForPending = remainingForPending.subtract(pendingShareAmount);
-                }
-                
-                pendingTotal = pendingTotal.add(pendingShareAmount);
-                pendingSharesStr.append(pending.getEmail())
-                        .append(":")
-                        .append(pendingShareAmount.setScale(2, RoundingMode.HALF_UP));
-                pendingIndex++;
+            List<PendingExpenseShare> pendingShares = new ArrayList<>(pendingMembers.size());
+            for (int i = 0; i < pendingMembers.size(); i++) {
+                pendingShares.add(new PendingExpenseShare(expense, pendingMembers.get(i),
+                        MoneyUtils.fromCents(shareCents[members.size() + i])));
             }
-            pendingSharesStr.append(")");
-            
-            expense.setDescription(expense.getDescription() + pendingSharesStr.toString());
-            expenseRepository.save(expense);
+            pendingExpenseShareRepository.saveAll(pendingShares);
         }
         
-        // Validate: membersTotal + pendingTotal should equal expense amount
-        BigDecimal totalShares = membersTotal.add(pendingTotal);
-        BigDecimal difference = expense.getAmount().subtract(totalShares).abs();
-        if (difference.compareTo(new BigDecimal("0.01")) > 0) {
-            logger.error("VALIDATION ERROR: Expense {} shares don't sum correctly. Expected: {}, Got: {}, Difference: {}", 
-                expense.getId(), expense.getAmount(), totalShares, difference);
-        }
+        return shares;
     }
     
-    private void createCustomShares(Expense expense, List<ExpenseRequest.ExpenseShareRequest> shareRequests, 
-                                   List<ExpenseRequest.PendingShareRequest> pendingShareRequests) {
-        if ((shareRequests == null || shareRequests.isEmpty()) && 
-            (pendingShareRequests == null || pendingShareRequests.isEmpty())) {
-            throw new RuntimeException("Custom shares must be provided for custom split type");
-        }
-        
-        BigDecimal totalActualShares = shareRequests != null ? shareRequests.stream()
-                .map(ExpenseRequest.ExpenseShareRequest::getAmountOwed)
-                .reduce(BigDecimal.ZERO, BigDecimal::add) : BigDecimal.ZERO;
-        
-        BigDecimal totalPendingShares = pendingShareRequests != null ? pendingShareRequests.stream()
-                .map(ExpenseRequest.PendingShareRequest::getAmountOwed)
-                .reduce(BigDecimal.ZERO, BigDecimal::add) : BigDecimal.ZERO;
-        
-        BigDecimal totalShares = totalActualShares.add(totalPendingShares);
-        
-        if (totalShares.compareTo(expense.getAmount()) != 0) {
-            throw new RuntimeException("Sum of custom shares must equal the expense amount");
-        }
-        
+    /**
+     * Creates a share for each listed member and pending member. Amounts come from
+     * {@code allocatedCents} (members first, then pending members) when the split was
+     * computed, or from each request's amountOwed for custom splits.
+     */
+    private List<ExpenseShare> createListedShares(Expense expense, Group group, List<ExpenseRequest.ExpenseShareRequest> shareRequests, 
+                                   List<ExpenseRequest.PendingShareRequest> pendingShareRequests, long[] allocatedCents) {
+        int memberCount = shareRequests != null ? shareRequests.size() : 0;
         // Create shares for actual members
+        List<ExpenseShare> shares = new ArrayList<>();
         if (shareRequests != null) {
-        for (ExpenseRequest.ExpenseShareRequest shareRequest : shareRequests) {
-            User user = userRepository.findById(shareRequest.getUserId())
-                    .orElseThrow(() -> new RuntimeException("User not found"));
+            List<Long> userIds = new ArrayList<>(shareRequests.size());
+            for (ExpenseRequest.ExpenseShareRequest shareRequest : shareRequests) {
+                userIds.add(shareRequest.getUserId());
+            }
+            Map<Long, User> usersById = new HashMap<>();
+            for (User user : userRepository.findAllById(userIds)) {
+                usersById.put(user.getId(), user);
+            }
             
+            for (int i = 0; i < memberCount; i++) {
+                ExpenseRequest.ExpenseShareRequest shareRequest = shareRequests.get(i);
+                User user = usersById.get(shareRequest.getUserId());
+                if (user == null) {
+                    throw new RuntimeException("User not found");
+                }
+                
                 // Include payer's share in custom split
-                ExpenseShare share = new ExpenseShare(expense, user, shareRequest.getAmountOwed());
-                expenseShareRepository.save(share);
+                BigDecimal amountOwed = allocatedCents != null
+                        ? MoneyUtils.fromCents(allocatedCents[i]) : shareRequest.getAmountOwed();
+                shares.add(new ExpenseShare(expense, user, amountOwed));
             }
+            shares = expenseShareRepository.saveAll(shares);
         }
         
-        // Store pending member shares in description for frontend
+        // Pending member shares are kept until the member accepts the invitation
         if (pendingShareRequests != null && !pendingShareRequests.isEmpty()) {
-            StringBuilder pendingSharesStr = new StringBuilder();
-            if (expense.getDescription().contains("(Paid by:")) {
-                pendingSharesStr.append(" (Pending shares: ");
-            } else {
-                pendingSharesStr.append(" (Pending shares: ");
+            Map<String, PendingGroupMember> pendingMembersByEmail = new HashMap<>();
+            for (PendingGroupMember pendingMember : pendingGroupMemberRepository.findByGroup(group)) {
+                pendingMembersByEmail.put(pendingMember.getEmail().toLowerCase(), pendingMember);
             }
             
+            List<PendingExpenseShare> pendingShares = new ArrayList<>(pendingShareRequests.size());
             for (int i = 0; i < pendingShareRequests.size(); i++) {
-                if (i > 0) pendingSharesStr.append(", ");
-                pendingSharesStr.append(pendingShareRequests.get(i).getEmail())
-                        .append(":")
-                        .append(pendingShareRequests.get(i).getAmountOwed());
+                ExpenseRequest.PendingShareRequest pendingShareRequest = pendingShareRequests.get(i);
+                String email = pendingShareRequest.getEmail() != null ? pendingShareRequest.getEmail().trim().toLowerCase() : null;
+                PendingGroupMember pendingMember = pendingMembersByEmail.get(email);
+                if (pendingMember == null) {
+                    throw new RuntimeException("Pending member not found");
+                }
+                BigDecimal amountOwed = allocatedCents != null
+                        ? MoneyUtils.fromCents(allocatedCents[memberCount + i]) : pendingShareRequest.getAmountOwed();
+                pendingShares.add(new PendingExpenseShare(expense, pendingMember, amountOwed));
             }
-            pendingSharesStr.append(")");
-            
-            expense.setDescription(expense.getDescription() + pendingSharesStr.toString());
-            expenseRepository.save(expense);
+            pendingExpenseShareRepository.saveAll(pendingShares);
         }
+        
+        return shares;
     }
     
     public List<Expense> getGroupExpenses(Long groupId) {
-        User currentUser = authService.getCurrentUser();
-        Group group = groupMemberRepository.findByUser(currentUser).stream()
-                .map(GroupMember::getGroup)
-                .filter(g -> g.getId().equals(groupId))
-                .findFirst()
-                .orElseThrow(() -> new RuntimeException("User is not a member of this group"));
+        User currentUser = authService.getCurrentUserReference();
+        Group group = membershipService.getGroupForMember(currentUser, groupId);
         
-        List<Expense> expenses = expenseRepository.findByGroupOrderByCreatedAtDesc(group);
-        // Eagerly load paidBy and deletedBy users to ensure they're serialized
-        expenses.forEach(expense -> {
-            if (expense.getPaidBy() != null) {
-                expense.getPaidBy().getName(); // Trigger lazy loading
-            }
-            if (expense.getDeletedBy() != null) {
-                expense.getDeletedBy().getName(); // Trigger lazy loading
-            }
-        });
-        return expenses;
+        // paidBy and deletedBy are fetch-joined so they serialize without lazy loads
+        return expenseRepository.findByGroupOrderByCreatedAtDesc(group);
+    }
+    
+    /**
+     * Returns one page of the group's expenses, newest first, keyed on (createdAt, id)
+     * so deep pages cost the same as the first one.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<Expense> getGroupExpensesPage(Long groupId, String cursor, int limit) {
+        User currentUser = authService.getCurrentUserReference();
+        Group group = membershipService.getGroupForMember(currentUser, groupId);
+        
+        int pageSize = Math.max(1, Math.min(limit, MAX_EXPENSE_PAGE_SIZE));
+        // Fetch one extra row to know whether another page exists without a COUNT query
+        Pageable pageable = PageRequest.of(0, pageSize + 1);
+        List<Expense> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = expenseRepository.findFirstPageByGroup(group, pageable);
+        } else {
+            KeysetCursor after = KeysetCursor.decode(cursor);
+            rows = expenseRepository.findPageByGroupAfter(group, after.getTimestamp(), after.getId(), pageable);
+        }
+        
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            Expense last = rows.get(pageSize - 1);
+            nextCursor = new KeysetCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return new CursorPage<>(rows, nextCursor);
+    }
+    
+    /**
+     * The group's expenses with their shares embedded. Runs three queries regardless of
+     * the number of expenses: the expenses with their payers, then all of their shares
+     * and pending shares with the participants joined in.
+     */
+    @Transactional(readOnly = true)
+    public List<ExpenseDetailsDTO> getGroupExpensesWithShares(Long groupId) {
+        List<Expense> expenses = getGroupExpenses(groupId);
+        if (expenses.isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        Map<Long, ExpenseDetailsDTO> byId = new LinkedHashMap<>();
+        for (Expense expense : expenses) {
+            ExpenseDetailsDTO dto = new ExpenseDetailsDTO();
+            dto.setId(expense.getId());
+            dto.setDescription(expense.getDescription());
+            dto.setAmount(expense.getAmount());
+            dto.setCurrency(expense.getCurrency());
+            dto.setSplitType(expense.getSplitType());
+            dto.setCreatedAt(expense.getCreatedAt());
+            dto.setUpdatedAt(expense.getUpdatedAt());
+            dto.setDeletedAt(expense.getDeletedAt());
+            dto.setPaidBy(toParticipant(expense.getPaidBy()));
+            dto.setDeletedBy(toParticipant(expense.getDeletedBy()));
+            byId.put(expense.getId(), dto);
+        }
+        
+        for (ExpenseShare share : expenseShareRepository.findByExpenseIdsWithUsers(byId.keySet())) {
+            byId.get(share.getExpense().getId()).getShares().add(new ExpenseDetailsDTO.Share(
+                    share.getUser().getId(), share.getUser().getName(), share.getAmountOwed()));
+        }
+        for (PendingExpenseShare share : pendingExpenseShareRepository.findByExpenseIdsWithMembers(byId.keySet())) {
+            PendingGroupMember member = share.getPendingMember();
+            byId.get(share.getExpense().getId()).getPendingShares().add(new ExpenseDetailsDTO.PendingShare(
+                    member.getId(), member.getEmail(), member.getName(), share.getAmount()));
+        }
+        return new ArrayList<>(byId.values());
+    }
+    
+    private ExpenseDetailsDTO.Participant toParticipant(User user) {
+        return user == null ? null : new ExpenseDetailsDTO.Participant(user.getId(), user.getName());
     }
     
     public Expense getExpenseById(Long expenseId) {
@@ -301,7 +322,7 @@ public class ExpenseService {
     }
     
     public void deleteExpense(Long expenseId) {
-        User currentUser = authService.getCurrentUser();
+        User currentUser = authService.getCurrentUserReference();
         Expense expense = getExpenseById(expenseId);
         
         // Check if already deleted
@@ -311,22 +332,23 @@ public class ExpenseService {
         
         // Check if user is the one who paid or is a group admin
         boolean isPaidBy = expense.getPaidBy().getId().equals(currentUser.getId());
-        boolean isAdmin = groupMemberRepository.findByGroupAndUser(expense.getGroup(), currentUser)
-                .map(member -> member.getRole() == GroupMember.GroupRole.ADMIN)
+        boolean isAdmin = membershipService.getRole(currentUser.getId(), expense.getGroup().getId())
+                .map(role -> role == GroupMember.GroupRole.ADMIN)
                 .orElse(false);
         
         if (!isPaidBy && !isAdmin) {
             throw new RuntimeException("Only the person who paid or group admin can delete expense");
         }
         
-        // Soft delete
+        // Soft delete; the expense no longer counts towards balances
+        balanceLedgerService.reverseExpense(expense);
         expense.setDeletedAt(LocalDateTime.now());
         expense.setDeletedBy(currentUser);
         expenseRepository.save(expense);
     }
     
     public void permanentlyDeleteExpense(Long expenseId) {
-        User currentUser = authService.getCurrentUser();
+        Long currentUserId = authService.getCurrentUserId();
         Expense expense = getExpenseById(expenseId);
         
         // Check if expense is soft deleted
@@ -335,12 +357,13 @@ public class ExpenseService {
         }
         
         // Check if current user is the group creator
-        boolean isGroupCreator = expense.getGroup().getCreatedBy().getId().equals(currentUser.getId());
+        boolean isGroupCreator = expense.getGroup().getCreatedBy().getId().equals(currentUserId);
         if (!isGroupCreator) {
             throw new RuntimeException("Only the group creator can permanently delete expenses");
         }
         
-        // Hard delete
+        // Hard delete. Its balance effect was already reversed by the soft delete,
+        // so neither the ledger nor the balance checkpoint needs a further update here.
         expenseRepository.delete(expense);
     }
     
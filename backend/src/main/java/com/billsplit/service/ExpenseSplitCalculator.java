@@ -0,0 +1,202 @@
+package com.billsplit.service;
+
+import com.billsplit.dto.ExpenseRequest;
+import com.billsplit.entity.Expense;
+import com.billsplit.util.IndexSort;
+import com.billsplit.util.MoneyUtils;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Pure share computations used by ExpenseService, kept free of repository access
+ * so they can be benchmarked and reasoned about in isolation.
+ */
+public final class ExpenseSplitCalculator {
+    
+    /** Percentages and weights are accepted with up to this many decimal places. */
+    static final int WEIGHT_SCALE = 4;
+    
+    private static final long ONE_HUNDRED_PERCENT = 100L * 10_000L;
+    
+    private ExpenseSplitCalculator() {}
+    
+    /**
+     * Allocates {@code totalCents} in proportion to {@code weights} using the largest-remainder
+     * method: everyone gets the floor of their exact quota, and the cents left over go one each
+     * to the largest fractional remainders, earlier participants first on ties. The result always
+     * sums to {@code totalCents} and no share is more than one cent away from its exact quota.
+     */
+    public static long[] allocate(long totalCents, long[] weights) {
+        int count = weights.length;
+        if (count == 0) {
+            throw new RuntimeException("Cannot split expense with no participants");
+        }
+        long weightTotal = 0;
+        for (long weight : weights) {
+            if (weight < 0) {
+                throw new RuntimeException("Split weights cannot be negative");
+            }
+            weightTotal = Math.addExact(weightTotal, weight);
+        }
+        if (weightTotal == 0) {
+            throw new RuntimeException("Split weights must not all be zero");
+        }
+        
+        // One pass computes each quota's floor and remainder; remainders share the
+        // denominator weightTotal, so they can be ranked as plain longs
+        long[] shares = new long[count];
+        long[] remainders = new long[count];
+        long allocated = 0;
+        for (int i = 0; i < count; i++) {
+            long weight = weights[i];
+            long product = totalCents * weight;
+            if (Math.multiplyHigh(totalCents, weight) == 0 && product >= 0) {
+                shares[i] = product / weightTotal;
+                remainders[i] = product % weightTotal;
+            } else {
+                BigInteger[] quotient = BigInteger.valueOf(totalCents).multiply(BigInteger.valueOf(weight))
+                        .divideAndRemainder(BigInteger.valueOf(weightTotal));
+                shares[i] = quotient[0].longValueExact();
+                remainders[i] = quotient[1].longValueExact();
+            }
+            allocated += shares[i];
+        }
+        
+        // Fewer than count cents are left over, since each floor loses less than one cent
+        int leftover = (int) (totalCents - allocated);
+        if (leftover > 0) {
+            int[] order = new int[count];
+            for (int i = 0; i < count; i++) {
+                order[i] = i;
+            }
+            IndexSort.sortDescending(order, count, remainders, new int[count]);
+            for (int i = 0; i < leftover; i++) {
+                shares[order[i]]++;
+            }
+        }
+        return shares;
+    }
+    
+    /**
+     * Splits an amount equally between members followed by pending members. Shares differ
+     * by at most one cent; the leftover cents go to the first participants.
+     *
+     * @return share amounts in cents, members first, then pending members
+     */
+    public static long[] splitEqually(BigDecimal amount, int memberCount, int pendingCount) {
+        int totalParticipants = memberCount + pendingCount;
+        if (totalParticipants == 0) {
+            throw new RuntimeException("Cannot split expense with no participants");
+        }
+        long[] weights = new long[totalParticipants];
+        Arrays.fill(weights, 1L);
+        return allocate(MoneyUtils.toCents(amount), weights);
+    }
+    
+    /**
+     * Splits an amount by the percent, weight or item amount on each member and pending share,
+     * depending on the split type. Percentages must add up to 100; weights and item amounts are
+     * relative, so tax and tip on an itemized bill are spread in proportion to each subtotal.
+     *
+     * @return share amounts in cents, members first, then pending members
+     */
+    public static long[] splitProportionally(BigDecimal amount, Expense.SplitType splitType,
+                                             List<ExpenseRequest.ExpenseShareRequest> shareRequests,
+                                             List<ExpenseRequest.PendingShareRequest> pendingShareRequests) {
+        int memberCount = shareRequests != null ? shareRequests.size() : 0;
+        int pendingCount = pendingShareRequests != null ? pendingShareRequests.size() : 0;
+        if (memberCount + pendingCount == 0) {
+            throw new RuntimeException("Shares must be provided for " + splitType.name().toLowerCase() + " split type");
+        }
+        
+        long[] weights = new long[memberCount + pendingCount];
+        for (int i = 0; i < memberCount; i++) {
+            ExpenseRequest.ExpenseShareRequest share = shareRequests.get(i);
+            weights[i] = weightOf(splitType, share.getPercent(), share.getWeight(), share.getItemAmount());
+        }
+        for (int i = 0; i < pendingCount; i++) {
+            ExpenseRequest.PendingShareRequest share = pendingShareRequests.get(i);
+            weights[memberCount + i] = weightOf(splitType, share.getPercent(), share.getWeight(), share.getItemAmount());
+        }
+        
+        if (splitType == Expense.SplitType.PERCENT) {
+            long percentTotal = 0;
+            for (long weight : weights) {
+                percentTotal = Math.addExact(percentTotal, weight);
+            }
+            if (percentTotal != ONE_HUNDRED_PERCENT) {
+                throw new RuntimeException("Sum of percentages must equal 100");
+            }
+        }
+        return allocate(MoneyUtils.toCents(amount), weights);
+    }
+    
+    private static long weightOf(Expense.SplitType splitType, BigDecimal percent, BigDecimal weight, BigDecimal itemAmount) {
+        if (splitType == Expense.SplitType.PERCENT) {
+            return scaledUnits(percent, WEIGHT_SCALE, "Percent");
+        } else if (splitType == Expense.SplitType.WEIGHTED) {
+            return scaledUnits(weight, WEIGHT_SCALE, "Weight");
+        } else if (splitType == Expense.SplitType.ITEMIZED) {
+            return scaledUnits(itemAmount, 2, "Item amount");
+        }
+        throw new RuntimeException("Split type " + splitType + " is not proportional");
+    }
+    
+    private static long scaledUnits(BigDecimal value, int scale, String field) {
+        if (value == null) {
+            throw new RuntimeException(field + " is required for every share");
+        }
+        if (value.signum() < 0) {
+            throw new RuntimeException(field + " cannot be negative");
+        }
+        try {
+            return value.setScale(scale, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            throw new RuntimeException(field + " can have at most " + scale + " decimal places");
+        }
+    }
+    
+    /**
+     * Checks that custom member and pending shares are present, are whole cents and add up
+     * to the expense amount.
+     */
+    public static void validateCustomShares(BigDecimal amount,
+                                            List<ExpenseRequest.ExpenseShareRequest> shareRequests,
+                                            List<ExpenseRequest.PendingShareRequest> pendingShareRequests) {
+        if ((shareRequests == null || shareRequests.isEmpty()) && 
+            (pendingShareRequests == null || pendingShareRequests.isEmpty())) {
+            throw new RuntimeException("Custom shares must be provided for custom split type");
+        }
+        
+        BigDecimal totalShares = BigDecimal.ZERO;
+        if (shareRequests != null) {
+            for (ExpenseRequest.ExpenseShareRequest shareRequest : shareRequests) {
+                totalShares = addCustomShare(totalShares, shareRequest.getAmountOwed());
+            }
+        }
+        if (pendingShareRequests != null) {
+            for (ExpenseRequest.PendingShareRequest pendingShareRequest : pendingShareRequests) {
+                totalShares = addCustomShare(totalShares, pendingShareRequest.getAmountOwed());
+            }
+        }
+        
+        if (totalShares.compareTo(amount) != 0) {
+            throw new RuntimeException("Sum of custom shares must equal the expense amount");
+        }
+    }
+    
+    // Sub-cent amounts would otherwise only fail when the ledger converts them to cents
+    private static BigDecimal addCustomShare(BigDecimal total, BigDecimal amountOwed) {
+        if (amountOwed == null) {
+            throw new RuntimeException("Amount owed must be provided for every custom share");
+        }
+        if (amountOwed.stripTrailingZeros().scale() > 2) {
+            throw new RuntimeException("Custom share amounts must have at most 2 decimal places");
+        }
+        return total.add(amountOwed);
+    }
+}
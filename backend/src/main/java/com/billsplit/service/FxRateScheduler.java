@@ -0,0 +1,54 @@
+package com.billsplit.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * Refreshes exchange rates at startup and every app.fx.refresh-interval-ms. If the source
+ * cannot be read, the snapshot is still reloaded from the rates last stored in fx_rates.
+ */
+@Component
+public class FxRateScheduler {
+    
+    private static final Logger logger = LoggerFactory.getLogger(FxRateScheduler.class);
+    
+    @Autowired
+    private FxRateService fxRateService;
+    
+    @Value("${app.fx.refresh.enabled:true}")
+    private boolean enabled;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        refreshRates();
+    }
+    
+    @Scheduled(fixedDelayString = "${app.fx.refresh.interval-ms:3600000}",
+            initialDelayString = "${app.fx.refresh.interval-ms:3600000}")
+    public void refreshRates() {
+        if (enabled) {
+            try {
+                Map<String, BigDecimal> rates = fxRateService.fetchRates();
+                fxRateService.saveRates(rates);
+            } catch (Exception e) {
+                logger.error("Failed to refresh exchange rates: {}", e.getMessage(), e);
+            }
+        }
+        
+        try {
+            fxRateService.reload();
+        } catch (Exception e) {
+            // Keep serving the previous snapshot
+            logger.error("Failed to reload exchange rates: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.billsplit.service;
+
+import com.billsplit.entity.FxRate;
+import com.billsplit.repository.FxRateRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Pattern;
+
+/**
+ * Exchange rates. The fx_rates table is refreshed from app.fx.rates-source (a classpath,
+ * file or http(s) location of a {"base": ..., "rates": {...}} document) and held in memory
+ * as an immutable FxRateSnapshot that is replaced atomically when a reload finds new rates,
+ * so balance aggregation never queries rates and never sees a half-applied refresh.
+ */
+@Service
+public class FxRateService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(FxRateService.class);
+    
+    private static final Pattern CURRENCY_CODE = Pattern.compile("[A-Z]{3}");
+    
+    // fx_rates.units_per_pivot is NUMERIC(18,6)
+    private static final BigDecimal MAX_RATE = BigDecimal.TEN.pow(12);
+    
+    @Autowired
+    private FxRateRepository fxRateRepository;
+    
+    @Autowired
+    private ResourceLoader resourceLoader;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Value("${app.fx.pivot-currency:USD}")
+    private String pivotCurrency;
+    
+    @Value("${app.fx.rates-source:classpath:fx-rates.json}")
+    private String ratesSource;
+    
+    private final RestTemplate restTemplate = createRestTemplate();
+    
+    private final AtomicLong snapshotVersions = new AtomicLong();
+    
+    private final AtomicReference<FxRateSnapshot> snapshot = new AtomicReference<>();
+    
+    // Bounded so a hanging rates endpoint cannot pin the scheduler thread
+    private static RestTemplate createRestTemplate() {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(5000);
+        requestFactory.setReadTimeout(15000);
+        return new RestTemplate(requestFactory);
+    }
+    
+    /**
+     * The current snapshot. Callers converting several amounts should read it once and
+     * use that instance throughout.
+     */
+    public FxRateSnapshot current() {
+        FxRateSnapshot current = snapshot.get();
+        return current != null ? current : reload();
+    }
+    
+    /**
+     * Reads the rates document from app.fx.rates-source and returns its rates as units per
+     * unit of the pivot currency.
+     */
+    public Map<String, BigDecimal> fetchRates() {
+        JsonNode document;
+        try {
+            if (ratesSource.startsWith("http://") || ratesSource.startsWith("https://")) {
+                document = objectMapper.readTree(restTemplate.getForObject(ratesSource, String.class));
+            } else {
+                Resource resource = resourceLoader.getResource(ratesSource);
+                try (InputStream input = resource.getInputStream()) {
+                    document = objectMapper.readTree(input);
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read exchange rates from " + ratesSource + ": " + e.getMessage());
+        }
+        return parseRates(document);
+    }
+    
+    /**
+     * Rebases a rates document onto the pivot currency. The document's base is one unit
+     * of itself, and the pivot must be either the base or one of the listed rates.
+     */
+    Map<String, BigDecimal> parseRates(JsonNode document) {
+        if (document == null || !document.path("base").isTextual() || !document.path("rates").isObject()) {
+            throw new RuntimeException("Exchange rates must have a base currency and a rates object");
+        }
+        String base = document.get("base").asText().toUpperCase(Locale.ROOT);
+        Map<String, BigDecimal> perBase = new HashMap<>();
+        perBase.put(base, BigDecimal.ONE);
+        Iterator<Map.Entry<String, JsonNode>> fields = document.get("rates").fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            String currency = field.getKey().toUpperCase(Locale.ROOT);
+            if (!CURRENCY_CODE.matcher(currency).matches() || !field.getValue().isNumber()
+                    || field.getValue().decimalValue().signum() <= 0) {
+                throw new RuntimeException("Invalid exchange rate for " + field.getKey());
+            }
+            perBase.put(currency, field.getValue().decimalValue());
+        }
+        
+        BigDecimal pivotPerBase = perBase.get(pivotCurrency);
+        if (pivotPerBase == null) {
+            throw new RuntimeException("Exchange rates do not include the pivot currency " + pivotCurrency);
+        }
+        Map<String, BigDecimal> perPivot = new HashMap<>();
+        for (Map.Entry<String, BigDecimal> entry : perBase.entrySet()) {
+            BigDecimal rate = entry.getValue().divide(pivotPerBase, MathContext.DECIMAL64)
+                    .setScale(FxRateSnapshot.RATE_SCALE, RoundingMode.HALF_UP);
+            if (rate.signum() <= 0 || rate.compareTo(MAX_RATE) >= 0) {
+                throw new RuntimeException("Exchange rate for " + entry.getKey() + " is out of range");
+            }
+            perPivot.put(entry.getKey(), rate);
+        }
+        return perPivot;
+    }
+    
+    @Transactional
+    public void saveRates(Map<String, BigDecimal> unitsPerPivot) {
+        fxRateRepository.upsertRates(unitsPerPivot);
+    }
+    
+    /**
+     * Builds a new snapshot from the fx_rates table and swaps it in. Computations already
+     * holding the old snapshot finish on it. If the rates have not changed, the current
+     * snapshot is kept, so its version (part of the settlement plan cache key) stays too.
+     */
+    public FxRateSnapshot reload() {
+        Map<String, BigDecimal> rates = new HashMap<>();
+        for (FxRate rate : fxRateRepository.findAll()) {
+            rates.put(rate.getCurrency(), rate.getUnitsPerPivot());
+        }
+        FxRateSnapshot current = snapshot.get();
+        FxRateSnapshot loaded = new FxRateSnapshot(snapshotVersions.incrementAndGet(), pivotCurrency, rates, LocalDateTime.now());
+        if (current != null && current.hasSameRates(loaded)) {
+            logger.debug("Exchange rates unchanged, keeping snapshot {}", current.getVersion());
+            return current;
+        }
+        snapshot.set(loaded);
+        logger.info("Loaded exchange rates for {} currencies (snapshot {})", rates.size(), loaded.getVersion());
+        return loaded;
+    }
+}
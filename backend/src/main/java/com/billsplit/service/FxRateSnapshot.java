@@ -0,0 +1,189 @@
+package com.billsplit.service;
+
+import com.billsplit.util.IndexSort;
+import com.billsplit.util.MoneyUtils;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * An immutable set of exchange rates, read without locking by balance aggregation.
+ * FxRateService swaps in a new snapshot on refresh, so a computation that holds one
+ * snapshot converts every amount at the same rates.
+ *
+ * Rates are units of a currency per unit of the pivot currency, stored as longs scaled
+ * by 10^RATE_SCALE; converting cents is then integer arithmetic with no BigDecimal per value.
+ */
+public final class FxRateSnapshot {
+    
+    static final int RATE_SCALE = 6;
+    
+    private final long version;
+    private final String pivotCurrency;
+    private final Map<String, Long> scaledRates;
+    private final LocalDateTime loadedAt;
+    
+    FxRateSnapshot(long version, String pivotCurrency, Map<String, BigDecimal> unitsPerPivot, LocalDateTime loadedAt) {
+        Map<String, Long> rates = new HashMap<>();
+        for (Map.Entry<String, BigDecimal> entry : unitsPerPivot.entrySet()) {
+            long scaled = entry.getValue().setScale(RATE_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+            if (scaled <= 0) {
+                throw new RuntimeException("Invalid exchange rate for " + entry.getKey());
+            }
+            rates.put(entry.getKey(), scaled);
+        }
+        // The pivot is one unit of itself by definition, whatever the source says
+        rates.put(pivotCurrency, BigDecimal.ONE.movePointRight(RATE_SCALE).longValueExact());
+        this.version = version;
+        this.pivotCurrency = pivotCurrency;
+        this.scaledRates = Collections.unmodifiableMap(rates);
+        this.loadedAt = loadedAt;
+    }
+    
+    /**
+     * True if both snapshots convert every currency identically.
+     */
+    boolean hasSameRates(FxRateSnapshot other) {
+        return pivotCurrency.equals(other.pivotCurrency) && scaledRates.equals(other.scaledRates);
+    }
+    
+    public long getVersion() {
+        return version;
+    }
+    
+    public String getPivotCurrency() {
+        return pivotCurrency;
+    }
+    
+    public LocalDateTime getLoadedAt() {
+        return loadedAt;
+    }
+    
+    public boolean supports(String currency) {
+        return scaledRates.containsKey(currency);
+    }
+    
+    /**
+     * Normalizes a requested currency code, or returns defaultCurrency if none was given.
+     * Throws if there is no rate for the currency.
+     */
+    public String resolveCurrency(String currency, String defaultCurrency) {
+        if (currency == null || currency.isBlank()) {
+            return defaultCurrency;
+        }
+        String code = currency.trim().toUpperCase(Locale.ROOT);
+        if (!supports(code)) {
+            throw new RuntimeException("Unsupported currency: " + currency.trim());
+        }
+        return code;
+    }
+    
+    public Set<String> getCurrencies() {
+        return new TreeSet<>(scaledRates.keySet());
+    }
+    
+    public BigDecimal getUnitsPerPivot(String currency) {
+        return BigDecimal.valueOf(scaledRate(currency), RATE_SCALE);
+    }
+    
+    /**
+     * Converts one amount in cents, rounding half up.
+     */
+    public long convert(long cents, String fromCurrency, String toCurrency) {
+        if (fromCurrency.equals(toCurrency)) {
+            return cents;
+        }
+        long fromRate = scaledRate(fromCurrency);
+        long toRate = scaledRate(toCurrency);
+        long[] quotient = new long[2];
+        divideFloor(cents, toRate, fromRate, quotient);
+        return quotient[0] + (quotient[1] >= fromRate - quotient[1] ? 1 : 0);
+    }
+    
+    public BigDecimal convert(BigDecimal amount, String fromCurrency, String toCurrency) {
+        return MoneyUtils.fromCents(convert(MoneyUtils.toCents(amount), fromCurrency, toCurrency));
+    }
+    
+    /**
+     * Converts {@code cents[0..length)} from one currency to another in place. The converted
+     * total is the exact total rounded half up, and the rounding is spread with the
+     * largest-remainder method, so a set of balances summing to zero still sums to zero and
+     * no value is more than one cent from its exact conversion.
+     */
+    public void convertInPlace(long[] cents, int length, String fromCurrency, String toCurrency) {
+        if (fromCurrency.equals(toCurrency) || length == 0) {
+            return;
+        }
+        long fromRate = scaledRate(fromCurrency);
+        long toRate = scaledRate(toCurrency);
+        
+        // Remainders share the denominator fromRate, so they rank as plain longs. Their sum is
+        // tracked as whole cents plus a remainder below fromRate, so it cannot overflow
+        long[] remainders = new long[length];
+        long[] quotient = new long[2];
+        long carriedCents = 0;
+        long remainderSum = 0;
+        for (int i = 0; i < length; i++) {
+            divideFloor(cents[i], toRate, fromRate, quotient);
+            cents[i] = quotient[0];
+            remainders[i] = quotient[1];
+            if (remainderSum >= fromRate - quotient[1]) {
+                remainderSum -= fromRate - quotient[1];
+                carriedCents++;
+            } else {
+                remainderSum += quotient[1];
+            }
+        }
+        
+        // At most one cent per value with a non-zero remainder is left over
+        long leftover = carriedCents + (remainderSum >= fromRate - remainderSum ? 1 : 0);
+        if (leftover > 0) {
+            int[] order = new int[length];
+            for (int i = 0; i < length; i++) {
+                order[i] = i;
+            }
+            IndexSort.sortDescending(order, length, remainders, new int[length]);
+            for (int i = 0; i < leftover; i++) {
+                cents[order[i]]++;
+            }
+        }
+    }
+    
+    private long scaledRate(String currency) {
+        Long rate = scaledRates.get(currency);
+        if (rate == null) {
+            throw new RuntimeException("Unsupported currency: " + currency);
+        }
+        return rate;
+    }
+    
+    /**
+     * Stores floor(value * multiplier / divisor) and the non-negative remainder in result.
+     */
+    private static void divideFloor(long value, long multiplier, long divisor, long[] result) {
+        long product = value * multiplier;
+        if (Math.multiplyHigh(value, multiplier) == (product >> 63)) {
+            result[0] = Math.floorDiv(product, divisor);
+            result[1] = Math.floorMod(product, divisor);
+        } else {
+            BigInteger[] quotient = BigInteger.valueOf(value).multiply(BigInteger.valueOf(multiplier))
+                    .divideAndRemainder(BigInteger.valueOf(divisor));
+            long floor = quotient[0].longValueExact();
+            long remainder = quotient[1].longValueExact();
+            if (remainder < 0) {
+                floor--;
+                remainder += divisor;
+            }
+            result[0] = floor;
+            result[1] = remainder;
+        }
+    }
+}
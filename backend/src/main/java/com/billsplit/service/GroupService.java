@@ -1,23 +1,33 @@
 package com.billsplit.service;
 
+import com.billsplit.dto.CurrencyAmount;
 import com.billsplit.dto.GroupInvitationDTO;
 import com.billsplit.dto.GroupRequest;
+import com.billsplit.dto.PendingMemberBalance;
 import com.billsplit.entity.Group;
 import com.billsplit.entity.GroupMember;
 import com.billsplit.entity.PendingGroupMember;
 import com.billsplit.entity.User;
 import com.billsplit.repository.GroupMemberRepository;
 import com.billsplit.repository.GroupRepository;
+import com.billsplit.repository.PendingExpenseShareRepository;
 import com.billsplit.repository.PendingGroupMemberRepository;
 import com.billsplit.repository.UserRepository;
 import com.billsplit.util.EmailNameExtractor;
+import com.billsplit.util.MoneyUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -33,6 +43,9 @@ public class GroupService {
     @Autowired
     private GroupMemberRepository groupMemberRepository;
     
+    @Autowired
+    private MembershipService membershipService;
+    
     @Autowired
     private UserRepository userRepository;
     
@@ -45,11 +58,22 @@ public class GroupService {
     @Autowired
     private PendingGroupMemberRepository pendingGroupMemberRepository;
     
+    @Autowired
+    private BalanceLedgerService balanceLedgerService;
+    
+    @Autowired
+    private PendingExpenseShareRepository pendingExpenseShareRepository;
+    
+    @Autowired
+    private FxRateService fxRateService;
+    
     public Group createGroup(GroupRequest groupRequest) {
         User currentUser = authService.getCurrentUser();
         
         Group group = new Group();
         group.setName(groupRequest.getName());
+        FxRateSnapshot rates = fxRateService.current();
+        group.setBaseCurrency(rates.resolveCurrency(groupRequest.getBaseCurrency(), rates.getPivotCurrency()));
         group.setCreatedBy(currentUser);
         
         Group savedGroup = groupRepository.save(group);
@@ -57,6 +81,7 @@ public class GroupService {
         // Add creator as admin
         GroupMember adminMember = new GroupMember(savedGroup, currentUser, GroupMember.GroupRole.ADMIN);
         groupMemberRepository.save(adminMember);
+        membershipService.evict(currentUser.getId(), savedGroup.getId());
         
         // Add other members if provided
         if (groupRequest.getMemberEmails() != null && !groupRequest.getMemberEmails().isEmpty()) {
@@ -92,7 +117,7 @@ public class GroupService {
     }
     
     public List<Group> getUserGroups() {
-        User currentUser = authService.getCurrentUser();
+        User currentUser = authService.getCurrentUserReference();
         List<Group> groups = groupRepository.findByUser(currentUser);
         // Eagerly load createdBy to ensure it's serialized
         groups.forEach(group -> {
@@ -118,10 +143,7 @@ public class GroupService {
         User currentUser = authService.getCurrentUser();
         
         // Check if current user is admin
-        GroupMember currentUserMember = groupMemberRepository.findByGroupAndUser(group, currentUser)
-                .orElseThrow(() -> new RuntimeException("User is not a member of this group"));
-        
-        if (currentUserMember.getRole() != GroupMember.GroupRole.ADMIN) {
+        if (membershipService.requireRole(currentUser.getId(), group.getId()) != GroupMember.GroupRole.ADMIN) {
             throw new RuntimeException("Only group admins can add members");
         }
         
@@ -160,6 +182,27 @@ public class GroupService {
         }
     }
     
+    /**
+     * What each pending member owes, converted into the group's base currency.
+     */
+    public List<PendingMemberBalance> getPendingMemberBalances(Long groupId) {
+        Group group = getGroupById(groupId);
+        Long currentUserId = authService.getCurrentUserId();
+        membershipService.requireRole(currentUserId, group.getId());
+        
+        FxRateSnapshot rates = fxRateService.current();
+        String baseCurrency = group.getBaseCurrency();
+        Map<Long, PendingMemberTotal> totals = new LinkedHashMap<>();
+        for (PendingMemberBalance balance : pendingExpenseShareRepository.getPendingMemberBalances(groupId)) {
+            PendingMemberTotal total = totals.computeIfAbsent(balance.getPendingMemberId(), id ->
+                    new PendingMemberTotal(id, balance.getEmail(), balance.getName(), baseCurrency));
+            if (balance.getCurrency() != null) {
+                total.owedCents += rates.convert(MoneyUtils.toCents(balance.getOwedAmount()), balance.getCurrency(), baseCurrency);
+            }
+        }
+        return new ArrayList<>(totals.values());
+    }
+    
     public List<PendingGroupMember> getPendingMembers(Long groupId) {
         Group group = getGroupById(groupId);
         List<PendingGroupMember> pendingMembers = pendingGroupMemberRepository.findByGroup(group);
@@ -178,15 +221,12 @@ public class GroupService {
     
     public void removeMemberFromGroup(Long groupId, Long userId) {
         Group group = getGroupById(groupId);
-        User currentUser = authService.getCurrentUser();
+        Long currentUserId = authService.getCurrentUserId();
         User userToRemove = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
         
         // Check if current user is admin
-        GroupMember currentUserMember = groupMemberRepository.findByGroupAndUser(group, currentUser)
-                .orElseThrow(() -> new RuntimeException("User is not a member of this group"));
-        
-        if (currentUserMember.getRole() != GroupMember.GroupRole.ADMIN) {
+        if (membershipService.requireRole(currentUserId, group.getId()) != GroupMember.GroupRole.ADMIN) {
             throw new RuntimeException("Only group admins can remove members");
         }
         
@@ -194,17 +234,16 @@ public class GroupService {
                 .orElseThrow(() -> new RuntimeException("User is not a member of this group"));
         
         groupMemberRepository.delete(memberToRemove);
+        membershipService.evict(userToRemove.getId(), groupId);
+        balanceLedgerService.bumpVersion(groupId);
     }
     
     public void removePendingMemberFromGroup(Long groupId, Long pendingMemberId) {
         Group group = getGroupById(groupId);
-        User currentUser = authService.getCurrentUser();
+        Long currentUserId = authService.getCurrentUserId();
         
         // Check if current user is admin
-        GroupMember currentUserMember = groupMemberRepository.findByGroupAndUser(group, currentUser)
-                .orElseThrow(() -> new RuntimeException("User is not a member of this group"));
-        
-        if (currentUserMember.getRole() != GroupMember.GroupRole.ADMIN) {
+        if (membershipService.requireRole(currentUserId, group.getId()) != GroupMember.GroupRole.ADMIN) {
             throw new RuntimeException("Only group admins can remove pending members");
         }
         
@@ -221,7 +260,7 @@ public class GroupService {
     
     public void leaveGroup(Long groupId) {
         Group group = getGroupById(groupId);
-        User currentUser = authService.getCurrentUser();
+        User currentUser = authService.getCurrentUserReference();
         
         GroupMember member = groupMemberRepository.findByGroupAndUser(group, currentUser)
                 .orElseThrow(() -> new RuntimeException("User is not a member of this group"));
@@ -235,17 +274,16 @@ public class GroupService {
         }
         
         groupMemberRepository.delete(member);
+        membershipService.evict(currentUser.getId(), groupId);
+        balanceLedgerService.bumpVersion(groupId);
     }
     
     public Group updateGroup(Long groupId, com.billsplit.dto.UpdateGroupRequest updateRequest) {
         Group group = getGroupById(groupId);
-        User currentUser = authService.getCurrentUser();
+        Long currentUserId = authService.getCurrentUserId();
         
         // Check if current user is admin
-        GroupMember currentUserMember = groupMemberRepository.findByGroupAndUser(group, currentUser)
-                .orElseThrow(() -> new RuntimeException("User is not a member of this group"));
-        
-        if (currentUserMember.getRole() != GroupMember.GroupRole.ADMIN) {
+        if (membershipService.requireRole(currentUserId, group.getId()) != GroupMember.GroupRole.ADMIN) {
             throw new RuntimeException("Only group admins can update group");
         }
         
@@ -257,6 +295,15 @@ public class GroupService {
             group.setImageUrl(updateRequest.getImageUrl().trim().isEmpty() ? null : updateRequest.getImageUrl().trim());
         }
         
+        if (updateRequest.getBaseCurrency() != null) {
+            String baseCurrency = fxRateService.current().resolveCurrency(updateRequest.getBaseCurrency(), group.getBaseCurrency());
+            if (!baseCurrency.equals(group.getBaseCurrency())) {
+                group.setBaseCurrency(baseCurrency);
+                // Cached settlement plans are in the old currency
+                balanceLedgerService.bumpVersion(groupId);
+            }
+        }
+        
         return groupRepository.save(group);
     }
     
@@ -307,7 +354,8 @@ public class GroupService {
         
         // Check if user is already a member (edge case)
         if (groupMemberRepository.existsByGroupAndUser(group, currentUser)) {
-            // User is already a member, just remove the pending invitation
+            // User is already a member, just carry over any pending shares and remove the invitation
+            convertPendingShares(pendingMember, group, currentUser);
             pendingGroupMemberRepository.delete(pendingMember);
             return;
         }
@@ -315,11 +363,25 @@ public class GroupService {
         // Add user as a member
         GroupMember member = new GroupMember(group, currentUser, GroupMember.GroupRole.MEMBER);
         groupMemberRepository.save(member);
+        membershipService.evict(currentUser.getId(), group.getId());
+        
+        // Must run before the pending member is deleted, which cascades to its pending shares
+        convertPendingShares(pendingMember, group, currentUser);
         
         // Remove pending member entry
         pendingGroupMemberRepository.delete(pendingMember);
     }
     
+    private void convertPendingShares(PendingGroupMember pendingMember, Group group, User user) {
+        Map<String, BigDecimal> convertedTotals = new HashMap<>();
+        for (CurrencyAmount total : pendingExpenseShareRepository.getConvertibleTotals(pendingMember.getId(), user.getId())) {
+            convertedTotals.put(total.getCurrency(), total.getAmount());
+        }
+        pendingExpenseShareRepository.convertToExpenseShares(pendingMember.getId(), user.getId(), LocalDateTime.now());
+        // Also bumps the ledger version, which the new membership needs anyway
+        balanceLedgerService.recordPendingSharesConverted(group.getId(), user.getId(), convertedTotals);
+    }
+    
     public void rejectInvitation(Long invitationId) {
         User currentUser = authService.getCurrentUser();
         String normalizedEmail = currentUser.getEmail().trim().toLowerCase();
@@ -341,35 +403,68 @@ public class GroupService {
         // Remove pending member entry
         pendingGroupMemberRepository.delete(pendingMember);
         
-        // Send notification to inviter (optional - if email is configured)
-        try {
-            if (inviter != null && inviter.getEmail() != null) {
-                emailService.sendInvitationRejectionNotification(
-                        inviter.getEmail(),
-                        groupName,
-                        rejecterName
-                );
-            }
-        } catch (Exception e) {
-            // Log but don't fail if email sending fails
-            logger.error("Failed to send rejection notification: {}", e.getMessage(), e);
+        // Notify the inviter (queued in the email outbox, if email is configured)
+        if (inviter != null && inviter.getEmail() != null) {
+            emailService.sendInvitationRejectionNotification(
+                    inviter.getEmail(),
+                    groupName,
+                    rejecterName
+            );
         }
     }
     
     public void deleteGroup(Long groupId) {
         Group group = getGroupById(groupId);
-        User currentUser = authService.getCurrentUser();
+        Long currentUserId = authService.getCurrentUserId();
         
         // Check if current user is admin
-        GroupMember currentUserMember = groupMemberRepository.findByGroupAndUser(group, currentUser)
-                .orElseThrow(() -> new RuntimeException("User is not a member of this group"));
-        
-        if (currentUserMember.getRole() != GroupMember.GroupRole.ADMIN) {
+        if (membershipService.requireRole(currentUserId, group.getId()) != GroupMember.GroupRole.ADMIN) {
             throw new RuntimeException("Only group admins can delete the group");
         }
         
         // Delete the group (cascade will handle related entities)
         groupRepository.delete(group);
+        membershipService.evictGroup(groupId);
+    }
+    
+    private static class PendingMemberTotal implements PendingMemberBalance {
+        
+        private final Long pendingMemberId;
+        private final String email;
+        private final String name;
+        private final String currency;
+        private long owedCents;
+        
+        private PendingMemberTotal(Long pendingMemberId, String email, String name, String currency) {
+            this.pendingMemberId = pendingMemberId;
+            this.email = email;
+            this.name = name;
+            this.currency = currency;
+        }
+        
+        @Override
+        public Long getPendingMemberId() {
+            return pendingMemberId;
+        }
+        
+        @Override
+        public String getEmail() {
+            return email;
+        }
+        
+        @Override
+        public String getName() {
+            return name;
+        }
+        
+        @Override
+        public String getCurrency() {
+            return currency;
+        }
+        
+        @Override
+        public BigDecimal getOwedAmount() {
+            return MoneyUtils.fromCents(owedCents);
+        }
     }
 }
-
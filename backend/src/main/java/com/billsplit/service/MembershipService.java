@@ -0,0 +1,131 @@
+package com.billsplit.service;
+
+import com.billsplit.entity.Group;
+import com.billsplit.entity.GroupMember;
+import com.billsplit.entity.User;
+import com.billsplit.repository.GroupMemberRepository;
+import com.billsplit.repository.GroupRepository;
+import com.billsplit.util.BoundedCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Answers "is this user a member of this group, and with which role" from a bounded
+ * cache keyed by (userId, groupId). Registered as the "membership" bean so controllers
+ * can check access declaratively with {@code @PreAuthorize("@membership.isMember(#groupId)")}.
+ *
+ * GroupService evicts entries whenever a membership changes. Evictions run after the
+ * change commits, and a lookup that raced with an eviction does not cache its result.
+ *
+ * Evictions only reach this instance's cache. On other instances a removed member keeps
+ * access, and a new member is refused, until their cached entry expires, so
+ * app.membership.cache.ttl-seconds bounds how long membership changes take everywhere.
+ */
+@Service("membership")
+public class MembershipService {
+    
+    @Autowired
+    private GroupMemberRepository groupMemberRepository;
+    
+    @Autowired
+    private GroupRepository groupRepository;
+    
+    @Autowired
+    private AuthService authService;
+    
+    private final BoundedCache<MembershipKey, Optional<GroupMember.GroupRole>> cache;
+    
+    // Incremented by every eviction; a lookup only caches what it read if no eviction happened meanwhile
+    private final AtomicLong evictions = new AtomicLong();
+    
+    public MembershipService(@Value("${app.membership.cache.max-entries:10000}") int maxEntries,
+                             @Value("${app.membership.cache.ttl-seconds:60}") long ttlSeconds) {
+        this.cache = new BoundedCache<>(maxEntries, ttlSeconds * 1000L);
+    }
+    
+    public Optional<GroupMember.GroupRole> getRole(Long userId, Long groupId) {
+        MembershipKey key = new MembershipKey(userId, groupId);
+        Optional<GroupMember.GroupRole> role = cache.get(key);
+        if (role == null) {
+            long evictionsBefore = evictions.get();
+            role = groupMemberRepository.findRole(groupId, userId);
+            if (evictions.get() == evictionsBefore) {
+                cache.put(key, role);
+            }
+        }
+        return role;
+    }
+    
+    public boolean isMember(Long groupId) {
+        return getRole(authService.getCurrentUserId(), groupId).isPresent();
+    }
+    
+    public boolean isAdmin(Long groupId) {
+        return getRole(authService.getCurrentUserId(), groupId)
+                .filter(role -> role == GroupMember.GroupRole.ADMIN)
+                .isPresent();
+    }
+    
+    /**
+     * Returns the user's role in the group, or throws if the user is not a member.
+     */
+    public GroupMember.GroupRole requireRole(Long userId, Long groupId) {
+        return getRole(userId, groupId)
+                .orElseThrow(() -> new RuntimeException("User is not a member of this group"));
+    }
+    
+    /**
+     * Loads a group after checking that the user belongs to it.
+     */
+    public Group getGroupForMember(User user, Long groupId) {
+        requireRole(user.getId(), groupId);
+        return groupRepository.findById(groupId)
+                .orElseThrow(() -> new RuntimeException("Group not found"));
+    }
+    
+    public void evict(Long userId, Long groupId) {
+        afterCommit(() -> cache.invalidate(new MembershipKey(userId, groupId)));
+    }
+    
+    public void evictGroup(Long groupId) {
+        afterCommit(() -> cache.invalidateIf(key -> key.groupId().equals(groupId)));
+    }
+    
+    public long getHits() {
+        return cache.getHits();
+    }
+    
+    public long getMisses() {
+        return cache.getMisses();
+    }
+    
+    public int size() {
+        return cache.size();
+    }
+    
+    private void afterCommit(Runnable eviction) {
+        Runnable counted = () -> {
+            evictions.incrementAndGet();
+            eviction.run();
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Evicting before commit would let a concurrent lookup re-cache the old membership
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    counted.run();
+                }
+            });
+        } else {
+            counted.run();
+        }
+    }
+    
+    private record MembershipKey(Long userId, Long groupId) {}
+}
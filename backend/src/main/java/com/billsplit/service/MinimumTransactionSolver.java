@@ -0,0 +1,108 @@
+package com.billsplit.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Finds the partition of non-zero balances into the largest number of zero-sum
+ * subsets. Settling each subset independently takes (subset size - 1) transfers,
+ * so maximising the number of subsets minimises the total number of transfers.
+ *
+ * Uses a bitmask DP over all subsets (O(n * 2^n)), so it is only attempted for up
+ * to {@code maxBalances} balances and within a wall-clock budget.
+ */
+@Component
+public class MinimumTransactionSolver {
+    
+    private static final int DEADLINE_CHECK_INTERVAL = 1 << 12;
+    
+    @Value("${app.settlement.exact.max-balances:20}")
+    private int maxBalances;
+    
+    @Value("${app.settlement.exact.time-budget-ms:200}")
+    private long timeBudgetMs;
+    
+    public MinimumTransactionSolver() {}
+    
+    public MinimumTransactionSolver(int maxBalances, long timeBudgetMs) {
+        this.maxBalances = maxBalances;
+        this.timeBudgetMs = timeBudgetMs;
+    }
+    
+    /**
+     * @param cents non-zero balances in cents
+     * @return groups of indices into {@code cents}, each summing to zero except possibly
+     *         the last one (when the balances do not sum to zero overall), or null if
+     *         the input is too large or the time budget ran out
+     */
+    public List<int[]> partition(long[] cents) {
+        int n = cents.length;
+        if (n == 0) {
+            return new ArrayList<>();
+        }
+        if (n > maxBalances || n > 30) {
+            return null;
+        }
+        
+        long start = System.nanoTime();
+        long budgetNanos = TimeUnit.MILLISECONDS.toNanos(timeBudgetMs);
+        int full = (1 << n) - 1;
+        long[] sums = new long[full + 1];
+        byte[] groups = new byte[full + 1];
+        
+        for (int mask = 1; mask <= full; mask++) {
+            if ((mask & (DEADLINE_CHECK_INTERVAL - 1)) == 0 && System.nanoTime() - start > budgetNanos) {
+                return null;
+            }
+            int lowest = Integer.numberOfTrailingZeros(mask);
+            sums[mask] = sums[mask & (mask - 1)] + cents[lowest];
+            
+            int best = 0;
+            for (int rest = mask; rest != 0; rest &= rest - 1) {
+                int bit = rest & -rest;
+                if (groups[mask ^ bit] > best) {
+                    best = groups[mask ^ bit];
+                }
+            }
+            groups[mask] = (byte) (sums[mask] == 0 ? best + 1 : best);
+        }
+        
+        // Walk back from the full set, removing one element at a time along an optimal path.
+        // Read in reverse, that path builds the set up and hits a zero sum at every group boundary.
+        int[] removed = new int[n];
+        int[] masks = new int[n];
+        int mask = full;
+        for (int k = 0; k < n; k++) {
+            int target = groups[mask] - (sums[mask] == 0 ? 1 : 0);
+            int chosen = -1;
+            for (int rest = mask; rest != 0; rest &= rest - 1) {
+                int bit = rest & -rest;
+                if (groups[mask ^ bit] == target) {
+                    chosen = Integer.numberOfTrailingZeros(bit);
+                    break;
+                }
+            }
+            removed[k] = chosen;
+            masks[k] = mask;
+            mask ^= 1 << chosen;
+        }
+        
+        List<int[]> result = new ArrayList<>();
+        List<Integer> current = new ArrayList<>();
+        for (int k = n - 1; k >= 0; k--) {
+            current.add(removed[k]);
+            if (sums[masks[k]] == 0) {
+                result.add(current.stream().mapToInt(Integer::intValue).toArray());
+                current.clear();
+            }
+        }
+        if (!current.isEmpty()) {
+            result.add(current.stream().mapToInt(Integer::intValue).toArray());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,72 @@
+package com.billsplit.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Posts due recurring expense occurrences across all groups in batches of
+ * app.expense.recurring.batch-size groups, one transaction per group claiming up to
+ * that many of its templates, then queues a single digest email per recipient for
+ * the whole run.
+ */
+@Component
+public class RecurringExpenseScheduler {
+    
+    private static final Logger logger = LoggerFactory.getLogger(RecurringExpenseScheduler.class);
+    
+    @Autowired
+    private RecurringExpenseService recurringExpenseService;
+    
+    @Value("${app.expense.recurring.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${app.expense.recurring.batch-size:100}")
+    private int batchSize;
+    
+    @Scheduled(fixedDelayString = "${app.expense.recurring.poll-interval-ms:600000}")
+    public void postDueOccurrences() {
+        if (!enabled) {
+            return;
+        }
+        
+        LocalDate today = LocalDate.now();
+        LocalDateTime runStartedAt = LocalDateTime.now();
+        int posted = 0;
+        Map<String, List<RecurringExpenseService.DigestEntry>> digest = new LinkedHashMap<>();
+        RecurringExpenseService.RunBatch batch;
+        do {
+            try {
+                batch = recurringExpenseService.postDueOccurrences(today, batchSize, runStartedAt);
+            } catch (Exception e) {
+                logger.error("Failed to post recurring expenses: {}", e.getMessage(), e);
+                break;
+            }
+            posted += batch.posted();
+            batch.digest().forEach((email, entries) ->
+                    digest.computeIfAbsent(email, key -> new ArrayList<>()).addAll(entries));
+            // Stops when another instance holds every remaining template
+        } while (batch.groups() == batchSize && batch.claimed() > 0);
+        
+        if (!digest.isEmpty()) {
+            try {
+                recurringExpenseService.sendDigest(digest);
+            } catch (Exception e) {
+                logger.error("Failed to queue recurring expense digest emails: {}", e.getMessage(), e);
+            }
+        }
+        if (posted > 0) {
+            logger.info("Posted {} recurring expense occurrences", posted);
+        }
+    }
+}
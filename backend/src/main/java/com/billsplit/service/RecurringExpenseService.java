@@ -0,0 +1,283 @@
+package com.billsplit.service;
+
+import com.billsplit.dto.ExpenseRequest;
+import com.billsplit.dto.RecurringExpenseRequest;
+import com.billsplit.entity.Group;
+import com.billsplit.entity.GroupMember;
+import com.billsplit.entity.RecurringExpense;
+import com.billsplit.entity.User;
+import com.billsplit.repository.RecurringExpenseRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Recurring expense templates and the posting of their occurrences. Occurrences go
+ * through the bulk import's prepare and batched insert path, one insert batch and
+ * transaction per group, so they are validated and split exactly like imported rows.
+ */
+@Service
+public class RecurringExpenseService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(RecurringExpenseService.class);
+    
+    private static final int MAX_DESCRIPTION_LENGTH = 200;
+    
+    @Autowired
+    private RecurringExpenseRepository recurringExpenseRepository;
+    
+    @Autowired
+    private ExpenseImportService expenseImportService;
+    
+    @Autowired
+    private MembershipService membershipService;
+    
+    @Autowired
+    private AuthService authService;
+    
+    @Autowired
+    private EmailService emailService;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Value("${app.expense.recurring.catch-up-limit:31}")
+    private int catchUpLimit;
+    
+    @Transactional
+    public RecurringExpense createRecurringExpense(RecurringExpenseRequest request) {
+        User currentUser = authService.getCurrentUser();
+        ExpenseRequest expenseRequest = request.getExpense();
+        Group group = membershipService.getGroupForMember(currentUser, expenseRequest.getGroupId());
+        
+        LocalDate startDate = request.getStartDate() != null ? request.getStartDate() : LocalDate.now();
+        if (request.getEndDate() != null && request.getEndDate().isBefore(startDate)) {
+            throw new RuntimeException("End date cannot be before the start date");
+        }
+        
+        // Rejects a template now rather than on its first occurrence, and pins its currency
+        // so a later change of the group's base currency does not change its occurrences
+        ExpenseImportService.PreparedRow template = expenseImportService.prepare(
+                expenseImportService.loadScope(group, currentUser), expenseRequest, 0);
+        expenseRequest.setCurrency(template.getExpense().getCurrency());
+        
+        RecurringExpense recurringExpense = new RecurringExpense();
+        recurringExpense.setGroup(group);
+        recurringExpense.setCreatedBy(currentUser);
+        recurringExpense.setDescription(expenseRequest.getDescription());
+        recurringExpense.setAmount(expenseRequest.getAmount());
+        recurringExpense.setCurrency(expenseRequest.getCurrency());
+        recurringExpense.setSplitType(expenseRequest.getSplitType());
+        recurringExpense.setExpenseTemplate(writeTemplate(expenseRequest));
+        recurringExpense.setFrequency(request.getFrequency());
+        recurringExpense.setIntervalCount(request.getInterval());
+        recurringExpense.setStartDate(startDate);
+        recurringExpense.setEndDate(request.getEndDate());
+        recurringExpense.setNextRunDate(startDate);
+        return recurringExpenseRepository.save(recurringExpense);
+    }
+    
+    @Transactional(readOnly = true)
+    public List<RecurringExpense> getGroupRecurringExpenses(Long groupId) {
+        User currentUser = authService.getCurrentUserReference();
+        Group group = membershipService.getGroupForMember(currentUser, groupId);
+        return recurringExpenseRepository.findByGroupWithCreator(group);
+    }
+    
+    /**
+     * Stops a template; expenses it already posted are kept. Only its creator or a
+     * group admin can stop it.
+     */
+    @Transactional
+    public RecurringExpense stopRecurringExpense(Long groupId, Long recurringExpenseId) {
+        User currentUser = authService.getCurrentUserReference();
+        Group group = membershipService.getGroupForMember(currentUser, groupId);
+        RecurringExpense recurringExpense = recurringExpenseRepository.findByIdAndGroup(recurringExpenseId, group)
+                .orElseThrow(() -> new RuntimeException("Recurring expense not found"));
+        
+        boolean isCreator = recurringExpense.getCreatedBy().getId().equals(currentUser.getId());
+        boolean isAdmin = membershipService.getRole(currentUser.getId(), groupId)
+                .filter(role -> role == GroupMember.GroupRole.ADMIN)
+                .isPresent();
+        if (!isCreator && !isAdmin) {
+            throw new RuntimeException("Only the creator or a group admin can stop a recurring expense");
+        }
+        recurringExpense.setActive(false);
+        return recurringExpense;
+    }
+    
+    /**
+     * Posts due occurrences for up to limit groups, each group in its own transaction, so
+     * a group whose insert fails does not roll back or block the others. Groups whose
+     * insert failed during this run are skipped until the next run.
+     */
+    public RunBatch postDueOccurrences(LocalDate today, int limit, LocalDateTime runStartedAt) {
+        List<Long> groupIds = recurringExpenseRepository.findGroupIdsWithDue(today, runStartedAt, limit);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        
+        int claimed = 0;
+        int posted = 0;
+        Map<String, List<DigestEntry>> digest = new LinkedHashMap<>();
+        for (Long groupId : groupIds) {
+            try {
+                RunBatch batch = transactionTemplate.execute(status -> postGroupOccurrences(groupId, today, runStartedAt, limit));
+                claimed += batch.claimed();
+                posted += batch.posted();
+                batch.digest().forEach((email, entries) ->
+                        digest.computeIfAbsent(email, key -> new ArrayList<>()).addAll(entries));
+            } catch (RuntimeException e) {
+                // The group's transaction rolled back, so its templates stay due and are retried on the next run
+                logger.error("Failed to post recurring expenses for group {}: {}", groupId, e.getMessage(), e);
+                claimed += transactionTemplate.execute(status -> recordFailure(groupId, today, runStartedAt, limit, e));
+            }
+        }
+        return new RunBatch(groupIds.size(), claimed, posted, digest);
+    }
+    
+    /**
+     * Claims up to limit due templates of one group and posts their due occurrences, at
+     * most catch-up-limit per template, advancing each template in the caller's
+     * transaction. A template whose occurrence fails validation is stopped with the error
+     * recorded, since it would fail the same way on every run.
+     */
+    private RunBatch postGroupOccurrences(Long groupId, LocalDate today, LocalDateTime runStartedAt, int limit) {
+        List<RecurringExpense> claimed = recurringExpenseRepository.findDueInGroupForUpdate(groupId, today, runStartedAt, limit);
+        LocalDateTime now = LocalDateTime.now();
+        
+        // Members are loaded once per creator; rows are inserted in one batch
+        Map<Long, ExpenseImportService.ImportScope> scopes = new HashMap<>();
+        ExpenseImportService.ImportScope groupScope = null;
+        List<ExpenseImportService.PreparedRow> groupRows = new ArrayList<>();
+        for (RecurringExpense recurringExpense : claimed) {
+            Group group = recurringExpense.getGroup();
+            User creator = recurringExpense.getCreatedBy();
+            ExpenseImportService.ImportScope scope = scopes.computeIfAbsent(creator.getId(),
+                    key -> expenseImportService.loadScope(group, creator));
+            
+            List<ExpenseImportService.PreparedRow> rows = new ArrayList<>();
+            try {
+                if (!scope.hasMember(creator.getId())) {
+                    throw new RuntimeException("Creator is no longer a member of this group");
+                }
+                while (recurringExpense.isActive() && rows.size() < catchUpLimit
+                        && !recurringExpense.getNextRunDate().isAfter(today)) {
+                    ExpenseRequest request = readTemplate(recurringExpense.getExpenseTemplate());
+                    request.setDescription(occurrenceDescription(request.getDescription(), recurringExpense.getNextRunDate()));
+                    rows.add(expenseImportService.prepare(scope, request, recurringExpense.getOccurrences() + 1));
+                    advance(recurringExpense);
+                }
+                recurringExpense.setLastError(null);
+                if (groupScope == null) {
+                    groupScope = scope;
+                }
+                groupRows.addAll(rows);
+            } catch (RuntimeException e) {
+                logger.warn("Stopping recurring expense {} in group {}: {}", recurringExpense.getId(), groupId, e.getMessage());
+                recurringExpense.setActive(false);
+                recurringExpense.setLastError(e.getMessage());
+            }
+            recurringExpense.setLastRunAt(now);
+        }
+        
+        Map<String, List<DigestEntry>> digest = new LinkedHashMap<>();
+        if (groupRows.isEmpty()) {
+            return new RunBatch(1, claimed.size(), 0, digest);
+        }
+        expenseImportService.insertBatch(groupScope.getGroup(), groupRows);
+        for (User member : groupScope.getMembers()) {
+            List<DigestEntry> entries = digest.computeIfAbsent(member.getEmail(), key -> new ArrayList<>());
+            for (ExpenseImportService.PreparedRow row : groupRows) {
+                entries.add(new DigestEntry(groupScope.getGroup().getName(),
+                        row.getExpense().getDescription(), row.getExpense().getCurrency(), row.getExpense().getAmount()));
+            }
+        }
+        return new RunBatch(1, claimed.size(), groupRows.size(), digest);
+    }
+    
+    /**
+     * Records a failed insert on the group's due templates without stopping them, since
+     * the failure may be transient. The error also keeps them out of the rest of this run.
+     */
+    private int recordFailure(Long groupId, LocalDate today, LocalDateTime runStartedAt, int limit, RuntimeException error) {
+        List<RecurringExpense> claimed = recurringExpenseRepository.findDueInGroupForUpdate(groupId, today, runStartedAt, limit);
+        LocalDateTime now = LocalDateTime.now();
+        for (RecurringExpense recurringExpense : claimed) {
+            recurringExpense.setLastError("Posting failed: " + error.getMessage());
+            recurringExpense.setLastRunAt(now);
+        }
+        return claimed.size();
+    }
+    
+    /**
+     * Queues one digest email per recipient for everything posted in a run.
+     */
+    @Transactional
+    public void sendDigest(Map<String, List<DigestEntry>> digest) {
+        for (Map.Entry<String, List<DigestEntry>> entry : digest.entrySet()) {
+            emailService.sendRecurringExpenseDigest(entry.getKey(), entry.getValue());
+        }
+    }
+    
+    private static void advance(RecurringExpense recurringExpense) {
+        recurringExpense.setOccurrences(recurringExpense.getOccurrences() + 1);
+        LocalDate next = recurringExpense.occurrenceDate(recurringExpense.getOccurrences());
+        recurringExpense.setNextRunDate(next);
+        if (recurringExpense.getEndDate() != null && next.isAfter(recurringExpense.getEndDate())) {
+            recurringExpense.setActive(false);
+        }
+    }
+    
+    /**
+     * Appends the occurrence date, so catch-up occurrences posted together stay distinguishable.
+     */
+    private static String occurrenceDescription(String description, LocalDate date) {
+        String suffix = " (" + date + ")";
+        if (description.length() + suffix.length() > MAX_DESCRIPTION_LENGTH) {
+            description = description.substring(0, MAX_DESCRIPTION_LENGTH - suffix.length());
+        }
+        return description + suffix;
+    }
+    
+    private String writeTemplate(ExpenseRequest expenseRequest) {
+        try {
+            return objectMapper.writeValueAsString(expenseRequest);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to store recurring expense: " + e.getOriginalMessage());
+        }
+    }
+    
+    private ExpenseRequest readTemplate(String template) {
+        try {
+            return objectMapper.readValue(template, ExpenseRequest.class);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Invalid recurring expense template: " + e.getOriginalMessage());
+        }
+    }
+    
+    /**
+     * Outcome of one batch: groups visited, templates claimed, occurrences posted and
+     * the digest entries for each recipient's email.
+     */
+    public record RunBatch(int groups, int claimed, int posted, Map<String, List<DigestEntry>> digest) {}
+    
+    public record DigestEntry(String groupName, String description, String currency, BigDecimal amount) {}
+}
@@ -0,0 +1,116 @@
+package com.billsplit.service;
+
+import com.billsplit.util.IndexSort;
+
+/**
+ * Greedy settlement over balances in cents: repeatedly pairs the largest remaining
+ * creditor with the largest remaining debtor.
+ *
+ * Balances are addressed by position, so callers keep their own parallel arrays of
+ * user ids and names and only convert to BigDecimal / SettlementTransaction when
+ * building the response. All working arrays are sized up front; the pairing loop
+ * itself does not allocate.
+ */
+public final class SettlementEngine {
+    
+    private SettlementEngine() {}
+    
+    /**
+     * @param cents balances by position; positive = owed money, negative = owes money
+     * @return the transfers, as positions into {@code cents}
+     */
+    public static Plan settleGreedy(long[] cents) {
+        int n = cents.length;
+        long[] remaining = new long[n];
+        long[] magnitude = new long[n];
+        int[] creditors = new int[n];
+        int[] debtors = new int[n];
+        int creditorCount = 0;
+        int debtorCount = 0;
+        
+        for (int i = 0; i < n; i++) {
+            remaining[i] = cents[i];
+            magnitude[i] = Math.abs(cents[i]);
+            if (cents[i] > 0) {
+                creditors[creditorCount++] = i;
+            } else if (cents[i] < 0) {
+                debtors[debtorCount++] = i;
+            }
+        }
+        
+        // Largest creditors first and largest debtors first, ties in input order
+        int[] buffer = new int[n];
+        IndexSort.sortDescending(creditors, creditorCount, magnitude, buffer);
+        IndexSort.sortDescending(debtors, debtorCount, magnitude, buffer);
+        
+        // Every transfer settles at least one side, so there are fewer transfers than balances
+        int capacity = Math.max(creditorCount + debtorCount - 1, 0);
+        int[] from = new int[capacity];
+        int[] to = new int[capacity];
+        long[] amounts = new long[capacity];
+        int size = 0;
+        
+        int creditorIndex = 0;
+        int debtorIndex = 0;
+        while (creditorIndex < creditorCount && debtorIndex < debtorCount) {
+            int creditor = creditors[creditorIndex];
+            int debtor = debtors[debtorIndex];
+            long amount = Math.min(remaining[creditor], -remaining[debtor]);
+            
+            if (amount > 0) {
+                from[size] = debtor;
+                to[size] = creditor;
+                amounts[size] = amount;
+                size++;
+                
+                remaining[creditor] -= amount;
+                remaining[debtor] += amount;
+                
+                if (remaining[creditor] == 0) {
+                    creditorIndex++;
+                }
+                if (remaining[debtor] == 0) {
+                    debtorIndex++;
+                }
+            } else {
+                creditorIndex++;
+                debtorIndex++;
+            }
+        }
+        
+        return new Plan(size, from, to, amounts);
+    }
+    
+    public static final class Plan {
+        
+        private final int size;
+        private final int[] from;
+        private final int[] to;
+        private final long[] amounts;
+        
+        private Plan(int size, int[] from, int[] to, long[] amounts) {
+            this.size = size;
+            this.from = from;
+            this.to = to;
+            this.amounts = amounts;
+        }
+        
+        public int size() {
+            return size;
+        }
+        
+        /** Position of the paying (debtor) balance of transfer {@code i}. */
+        public int from(int i) {
+            return from[i];
+        }
+        
+        /** Position of the receiving (creditor) balance of transfer {@code i}. */
+        public int to(int i) {
+            return to[i];
+        }
+        
+        public long amountCents(int i) {
+            return amounts[i];
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.billsplit.service;
+
+import com.billsplit.dto.SettlementTransaction;
+import com.billsplit.util.BoundedCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Caches computed settlement plans keyed by (groupId, ledger version, strategy, rates
+ * snapshot version). Any expense, settlement or membership write bumps the group's
+ * ledger version and every rates reload creates a new snapshot, so a stale plan is
+ * never served and writes need not evict anything; entries for old versions simply
+ * age out through the LRU bound and TTL.
+ */
+@Component
+public class SettlementPlanCache {
+    
+    private final BoundedCache<PlanKey, List<SettlementTransaction>> cache;
+    
+    public SettlementPlanCache(@Value("${app.settlement.cache.max-entries:1000}") int maxEntries,
+                               @Value("${app.settlement.cache.ttl-seconds:600}") long ttlSeconds) {
+        this.cache = new BoundedCache<>(maxEntries, ttlSeconds * 1000L);
+    }
+    
+    public List<SettlementTransaction> get(Long groupId, long version, SettlementStrategy strategy, long ratesVersion) {
+        return cache.get(new PlanKey(groupId, version, strategy, ratesVersion));
+    }
+    
+    public void put(Long groupId, long version, SettlementStrategy strategy, long ratesVersion, List<SettlementTransaction> plan) {
+        cache.put(new PlanKey(groupId, version, strategy, ratesVersion), List.copyOf(plan));
+    }
+    
+    public long getHits() {
+        return cache.getHits();
+    }
+    
+    public long getMisses() {
+        return cache.getMisses();
+    }
+    
+    public int size() {
+        return cache.size();
+    }
+    
+    private record PlanKey(Long groupId, long version, SettlementStrategy strategy, long ratesVersion) {}
+}
@@ -1,29 +1,40 @@
 package com.billsplit.service;
 
+import com.billsplit.dto.CursorPage;
+import com.billsplit.dto.SettleAllRequest;
 import com.billsplit.dto.SettleUpRequest;
+import com.billsplit.dto.SettlementPlan;
 import com.billsplit.dto.SettlementTransaction;
 import com.billsplit.entity.*;
 import com.billsplit.repository.ExpenseShareRepository;
 import com.billsplit.repository.GroupMemberRepository;
 import com.billsplit.repository.SettlementRepository;
 import com.billsplit.repository.UserRepository;
+import com.billsplit.util.KeysetCursor;
+import com.billsplit.util.MoneyUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
 import java.util.*;
 
 @Service
 @Transactional
 public class SettlementService {
     
+    static final int MAX_HISTORY_PAGE_SIZE = 100;
+    
     @Autowired
     private ExpenseShareRepository expenseShareRepository;
     
     @Autowired
     private GroupMemberRepository groupMemberRepository;
     
+    @Autowired
+    private MembershipService membershipService;
+    
     @Autowired
     private AuthService authService;
     
@@ -36,120 +47,148 @@ public class SettlementService {
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private BalanceLedgerService balanceLedgerService;
+    
+    @Autowired
+    private MinimumTransactionSolver minimumTransactionSolver;
+    
+    @Autowired
+    private SettlementPlanCache settlementPlanCache;
+    
+    @Autowired
+    private FxRateService fxRateService;
+    
     public List<SettlementTransaction> calculateSettlements(Long groupId) {
-        User currentUser = authService.getCurrentUser();
-        Group group = groupMemberRepository.findByUser(currentUser).stream()
-                .map(GroupMember::getGroup)
-                .filter(g -> g.getId().equals(groupId))
-                .findFirst()
-                .orElseThrow(() -> new RuntimeException("User is not a member of this group"));
-        
-        List<GroupMember> members = groupMemberRepository.findByGroup(group);
-        Map<Long, BigDecimal> balances = calculateBalances(group, members);
-        
-        return optimizeSettlements(balances, members);
-    }
-    
-    private Map<Long, BigDecimal> calculateBalances(Group group, List<GroupMember> members) {
-        Map<Long, BigDecimal> balances = new HashMap<>();
-        
-        // First, calculate base balances from expenses
-        for (GroupMember member : members) {
-            User user = member.getUser();
-            BigDecimal totalOwed = expenseShareRepository.getTotalOwedByUserInGroup(group, user);
-            BigDecimal totalPaid = expenseShareRepository.getTotalPaidByUserInGroup(group, user);
-            BigDecimal balance = totalPaid.subtract(totalOwed);
-            balances.put(user.getId(), balance);
-        }
-        
-        // Then, adjust balances based on existing settlements
-        List<Settlement> settlements = settlementRepository.findByGroupOrderBySettledAtDesc(group);
-        for (Settlement settlement : settlements) {
-            Long fromUserId = settlement.getFromUser().getId();
-            Long toUserId = settlement.getToUser().getId();
-            BigDecimal amount = settlement.getAmount();
-            
-            // Debtor (fromUser) paid, so their balance increases (less negative)
-            if (balances.containsKey(fromUserId)) {
-                balances.put(fromUserId, balances.get(fromUserId).add(amount));
-            }
-            // Creditor (toUser) received, so their balance decreases (less positive)
-            if (balances.containsKey(toUserId)) {
-                balances.put(toUserId, balances.get(toUserId).subtract(amount));
-            }
+        return calculateSettlements(groupId, SettlementStrategy.GREEDY);
+    }
+    
+    public List<SettlementTransaction> calculateSettlements(Long groupId, SettlementStrategy strategy) {
+        return calculateSettlementPlan(groupId, strategy).getTransactions();
+    }
+    
+    public SettlementPlan calculateSettlementPlan(Long groupId, SettlementStrategy strategy) {
+        User currentUser = authService.getCurrentUserReference();
+        Group group = membershipService.getGroupForMember(currentUser, groupId);
+        
+        // Read the version before the balances: a concurrent write can then only make
+        // the cached plan newer than its key, never older
+        long version = balanceLedgerService.getVersion(groupId);
+        return new SettlementPlan(version, group.getBaseCurrency(), getPlan(group, version, strategy));
+    }
+    
+    private List<SettlementTransaction> getPlan(Group group, long version, SettlementStrategy strategy) {
+        // One snapshot for the whole computation; plans are cached per snapshot, since the
+        // same ledger version converts to a different plan once rates change
+        FxRateSnapshot rates = fxRateService.current();
+        List<SettlementTransaction> cachedPlan = settlementPlanCache.get(group.getId(), version, strategy, rates.getVersion());
+        if (cachedPlan != null) {
+            return cachedPlan;
         }
         
-        return balances;
+        List<SettlementTransaction> plan = computeSettlementPlan(group, strategy, rates);
+        settlementPlanCache.put(group.getId(), version, strategy, rates.getVersion(), plan);
+        return plan;
     }
     
-    private List<SettlementTransaction> optimizeSettlements(Map<Long, BigDecimal> balances, List<GroupMember> members) {
-        List<SettlementTransaction> transactions = new ArrayList<>();
+    private List<SettlementTransaction> computeSettlementPlan(Group group, SettlementStrategy strategy, FxRateSnapshot rates) {
+        List<GroupMember> members = groupMemberRepository.findByGroupWithUser(group);
         
-        // Create lists of creditors (positive balance) and debtors (negative balance)
-        List<Map.Entry<Long, BigDecimal>> creditors = new ArrayList<>();
-        List<Map.Entry<Long, BigDecimal>> debtors = new ArrayList<>();
+        // Parallel arrays indexed by member position. Greedy breaks ties between equal balances
+        // by this order, so two plans for the same balances can differ if the rows come back
+        // in a different order; both settle every balance with the same number of transfers
+        Map<Long, String> userNames = new HashMap<>();
+        long[] userIds = new long[members.size()];
+        for (int i = 0; i < members.size(); i++) {
+            User user = members.get(i).getUser();
+            userIds[i] = user.getId();
+            userNames.put(user.getId(), user.getName());
+        }
+        long[] cents = calculateBalances(group, userIds, rates);
         
-        for (Map.Entry<Long, BigDecimal> entry : balances.entrySet()) {
-            if (entry.getValue().compareTo(BigDecimal.ZERO) > 0) {
-                creditors.add(entry);
-            } else if (entry.getValue().compareTo(BigDecimal.ZERO) < 0) {
-                debtors.add(entry);
+        if (strategy == SettlementStrategy.EXACT) {
+            return optimizeSettlementsExact(userIds, cents, userNames);
+        }
+        return optimizeSettlements(userIds, cents, userNames);
+    }
+    
+    /**
+     * Net balance of each user in the group's base currency, in cents. The ledger holds one
+     * balance per user and currency, so conversion works on one column of member balances
+     * per currency, however many expenses the group has, and never reads rates from the
+     * database. Rounding is spread so that a currency's balances that net to zero still
+     * net to zero after conversion.
+     */
+    private long[] calculateBalances(Group group, long[] userIds, FxRateSnapshot rates) {
+        // Read the incrementally maintained ledger; users who are no longer members are ignored
+        Map<String, Map<Long, Long>> ledger = balanceLedgerService.getBalances(group.getId());
+        long[] balances = new long[userIds.length];
+        long[] column = new long[userIds.length];
+        for (Map.Entry<String, Map<Long, Long>> currency : ledger.entrySet()) {
+            Map<Long, Long> currencyCents = currency.getValue();
+            for (int i = 0; i < userIds.length; i++) {
+                column[i] = currencyCents.getOrDefault(userIds[i], 0L);
+            }
+            rates.convertInPlace(column, userIds.length, currency.getKey(), group.getBaseCurrency());
+            for (int i = 0; i < userIds.length; i++) {
+                balances[i] += column[i];
+            }
+        }
+        return balances;
+    }
+    
+    List<SettlementTransaction> optimizeSettlementsExact(long[] userIds, long[] cents, Map<Long, String> userNames) {
+        int nonZero = 0;
+        for (long balance : cents) {
+            if (balance != 0) {
+                nonZero++;
+            }
+        }
+        long[] nonZeroUserIds = new long[nonZero];
+        long[] nonZeroCents = new long[nonZero];
+        for (int i = 0, j = 0; i < cents.length; i++) {
+            if (cents[i] != 0) {
+                nonZeroUserIds[j] = userIds[i];
+                nonZeroCents[j] = cents[i];
+                j++;
             }
         }
         
-        // Sort by absolute balance
-        creditors.sort((a, b) -> b.getValue().compareTo(a.getValue()));
-        debtors.sort((a, b) -> a.getValue().compareTo(b.getValue()));
+        List<int[]> subsets = minimumTransactionSolver.partition(nonZeroCents);
+        if (subsets == null) {
+            // Too many non-zero balances or out of time budget
+            return optimizeSettlements(userIds, cents, userNames);
+        }
         
-        // Create a map for user names
-        Map<Long, String> userNames = new HashMap<>();
-        for (GroupMember member : members) {
-            userNames.put(member.getUser().getId(), member.getUser().getName());
-        }
-        
-        // Optimize transactions
-        int creditorIndex = 0;
-        int debtorIndex = 0;
-        
-        while (creditorIndex < creditors.size() && debtorIndex < debtors.size()) {
-            Map.Entry<Long, BigDecimal> creditor = creditors.get(creditorIndex);
-            Map.Entry<Long, BigDecimal> debtor = debtors.get(debtorIndex);
-            
-            BigDecimal creditorAmount = creditor.getValue();
-            BigDecimal debtorAmount = debtor.getValue().abs();
-            BigDecimal debtorOriginalValue = debtor.getValue();
-            
-            BigDecimal transactionAmount = creditorAmount.min(debtorAmount);
-            
-            if (transactionAmount.compareTo(BigDecimal.ZERO) > 0) {
-                SettlementTransaction transaction = new SettlementTransaction(
-                        debtor.getKey(),
-                        userNames.get(debtor.getKey()),
-                        creditor.getKey(),
-                        userNames.get(creditor.getKey()),
-                        transactionAmount
-                );
-                transactions.add(transaction);
-                
-                // Update balances
-                creditor.setValue(creditorAmount.subtract(transactionAmount));
-                BigDecimal debtorNewValue = debtorOriginalValue.add(transactionAmount);
-                debtor.setValue(debtorNewValue);
-                
-                // Move to next if balance is effectively zero (using epsilon for floating point precision)
-                BigDecimal EPSILON = new BigDecimal("0.01");
-                if (creditor.getValue().abs().compareTo(EPSILON) < 0) {
-                    creditorIndex++;
-                }
-                if (debtor.getValue().abs().compareTo(EPSILON) < 0) {
-                    debtorIndex++;
-                }
-            } else {
-                creditorIndex++;
-                debtorIndex++;
+        // Settle each zero-sum subset on its own; greedy needs exactly (size - 1) transfers for each
+        List<SettlementTransaction> transactions = new ArrayList<>();
+        for (int[] subset : subsets) {
+            long[] subsetUserIds = new long[subset.length];
+            long[] subsetCents = new long[subset.length];
+            for (int i = 0; i < subset.length; i++) {
+                subsetUserIds[i] = nonZeroUserIds[subset[i]];
+                subsetCents[i] = nonZeroCents[subset[i]];
             }
+            transactions.addAll(optimizeSettlements(subsetUserIds, subsetCents, userNames));
         }
+        return transactions;
+    }
+    
+    static List<SettlementTransaction> optimizeSettlements(long[] userIds, long[] cents, Map<Long, String> userNames) {
+        SettlementEngine.Plan plan = SettlementEngine.settleGreedy(cents);
         
+        List<SettlementTransaction> transactions = new ArrayList<>(plan.size());
+        for (int i = 0; i < plan.size(); i++) {
+            long fromUserId = userIds[plan.from(i)];
+            long toUserId = userIds[plan.to(i)];
+            transactions.add(new SettlementTransaction(
+                    fromUserId,
+                    userNames.get(fromUserId),
+                    toUserId,
+                    userNames.get(toUserId),
+                    MoneyUtils.fromCents(plan.amountCents(i))
+            ));
+        }
         return transactions;
     }
     
@@ -162,11 +201,7 @@ public class SettlementService {
     
     public Settlement recordSettlement(Long groupId, SettleUpRequest settleUpRequest) {
         User currentUser = authService.getCurrentUser();
-        Group group = groupMemberRepository.findByUser(currentUser).stream()
-                .map(GroupMember::getGroup)
-                .filter(g -> g.getId().equals(groupId))
-                .findFirst()
-                .orElseThrow(() -> new RuntimeException("User is not a member of this group"));
+        Group group = membershipService.getGroupForMember(currentUser, groupId);
         
         // Verify the current user is the one who owes
         if (!currentUser.getId().equals(settleUpRequest.getToUserId())) {
@@ -188,43 +223,140 @@ public class SettlementService {
                 settleUpRequest.getImageUrl()
         );
         
-        return settlementRepository.save(settlement);
+        Settlement savedSettlement = settlementRepository.save(settlement);
+        balanceLedgerService.recordSettlement(savedSettlement);
+        return savedSettlement;
     }
     
-    public List<Settlement> getSettlementHistory(Long groupId) {
-        User currentUser = authService.getCurrentUser();
-        Group group = groupMemberRepository.findByUser(currentUser).stream()
-                .map(GroupMember::getGroup)
-                .filter(g -> g.getId().equals(groupId))
-                .findFirst()
-                .orElseThrow(() -> new RuntimeException("User is not a member of this group"));
-        
-        List<Settlement> settlements = settlementRepository.findByGroupOrderBySettledAtDesc(group);
-        // Eagerly load users to ensure they're serialized
-        settlements.forEach(settlement -> {
-            if (settlement.getFromUser() != null) {
-                settlement.getFromUser().getName();
+    /**
+     * Records every transfer of a settlement plan in one transaction. The plan must be
+     * the one calculated at request.version; if the group's balances or the exchange rates
+     * have moved on since, nothing is recorded and the caller should recalculate. Transfers
+     * are recorded in the group's base currency.
+     */
+    public List<Settlement> settleAll(Long groupId, SettleAllRequest request) {
+        User currentUser = authService.getCurrentUserReference();
+        Group group = membershipService.getGroupForMember(currentUser, groupId);
+        
+        // Recording transfers on behalf of other members is an admin action
+        if (membershipService.requireRole(currentUser.getId(), group.getId()) != GroupMember.GroupRole.ADMIN) {
+            throw new RuntimeException("Only group admins can settle all balances");
+        }
+        
+        long version = request.getVersion();
+        if (balanceLedgerService.getVersion(groupId) != version) {
+            throw new RuntimeException("Group balances have changed since the settlement plan was calculated");
+        }
+        SettlementStrategy strategy = request.getStrategy() != null ? request.getStrategy() : SettlementStrategy.GREEDY;
+        List<SettlementTransaction> plan = getPlan(group, version, strategy);
+        if (!isSamePlan(plan, request.getTransactions())) {
+            throw new RuntimeException("Transactions do not match the current settlement plan for this version");
+        }
+        
+        Set<Long> userIds = new HashSet<>();
+        for (SettlementTransaction transaction : plan) {
+            userIds.add(transaction.getFromUserId());
+            userIds.add(transaction.getToUserId());
+        }
+        Map<Long, User> usersById = new HashMap<>();
+        for (User user : userRepository.findAllById(userIds)) {
+            usersById.put(user.getId(), user);
+        }
+        
+        List<Settlement> settlements = new ArrayList<>(plan.size());
+        for (SettlementTransaction transaction : plan) {
+            settlements.add(new Settlement(
+                    group,
+                    usersById.get(transaction.getFromUserId()),
+                    usersById.get(transaction.getToUserId()),
+                    transaction.getAmount(),
+                    request.getMessage(),
+                    null
+            ));
+        }
+        List<Settlement> savedSettlements = settlementRepository.saveAll(settlements);
+        balanceLedgerService.recordSettlements(groupId, savedSettlements, version);
+        
+        // Queued in the outbox with the settlements, so notifications go out only if they commit
+        emailService.sendSettlementsRecordedNotifications(groupId, plan);
+        return savedSettlements;
+    }
+    
+    private static boolean isSamePlan(List<SettlementTransaction> plan, List<SettlementTransaction> submitted) {
+        if (submitted == null || plan.size() != submitted.size()) {
+            return false;
+        }
+        // Compare as multisets of (from, to, cents); order and names are not significant
+        Map<List<Long>, Integer> remaining = new HashMap<>();
+        for (SettlementTransaction transaction : plan) {
+            remaining.merge(transactionKey(transaction), 1, Integer::sum);
+        }
+        for (SettlementTransaction transaction : submitted) {
+            if (transaction == null || transaction.getFromUserId() == null
+                    || transaction.getToUserId() == null || transaction.getAmount() == null) {
+                return false;
             }
-            if (settlement.getToUser() != null) {
-                settlement.getToUser().getName();
+            List<Long> key = transactionKey(transaction);
+            Integer count = remaining.get(key);
+            if (count == null) {
+                return false;
             }
-        });
-        return settlements;
+            if (count == 1) {
+                remaining.remove(key);
+            } else {
+                remaining.put(key, count - 1);
+            }
+        }
+        return remaining.isEmpty();
+    }
+    
+    private static List<Long> transactionKey(SettlementTransaction transaction) {
+        return List.of(transaction.getFromUserId(), transaction.getToUserId(), MoneyUtils.toCents(transaction.getAmount()));
+    }
+    
+    @Transactional(readOnly = true)
+    public List<Settlement> getSettlementHistory(Long groupId) {
+        User currentUser = authService.getCurrentUserReference();
+        Group group = membershipService.getGroupForMember(currentUser, groupId);
+        
+        return settlementRepository.findByGroupWithUsers(group);
+    }
+    
+    /**
+     * Returns one page of settlement history, newest first. Pages are keyed on
+     * (settledAt, id) so the cost per page does not grow with the group's history.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<Settlement> getSettlementHistoryPage(Long groupId, String after, int limit) {
+        User currentUser = authService.getCurrentUserReference();
+        Group group = membershipService.getGroupForMember(currentUser, groupId);
+        
+        int pageSize = Math.max(1, Math.min(limit, MAX_HISTORY_PAGE_SIZE));
+        // Fetch one extra row to know whether another page exists without a COUNT query
+        Pageable pageable = PageRequest.of(0, pageSize + 1);
+        List<Settlement> rows;
+        if (after == null || after.isBlank()) {
+            rows = settlementRepository.findFirstPageByGroup(group, pageable);
+        } else {
+            KeysetCursor cursor = KeysetCursor.decode(after);
+            rows = settlementRepository.findPageByGroupAfter(group, cursor.getTimestamp(), cursor.getId(), pageable);
+        }
+        
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            Settlement last = rows.get(pageSize - 1);
+            nextCursor = new KeysetCursor(last.getSettledAt(), last.getId()).encode();
+        }
+        return new CursorPage<>(rows, nextCursor);
     }
     
     public void deleteSettlement(Long groupId, Long settlementId) {
-        User currentUser = authService.getCurrentUser();
-        Group group = groupMemberRepository.findByUser(currentUser).stream()
-                .map(GroupMember::getGroup)
-                .filter(g -> g.getId().equals(groupId))
-                .findFirst()
-                .orElseThrow(() -> new RuntimeException("User is not a member of this group"));
+        User currentUser = authService.getCurrentUserReference();
+        Group group = membershipService.getGroupForMember(currentUser, groupId);
         
         // Check if current user is admin
-        GroupMember currentUserMember = groupMemberRepository.findByGroupAndUser(group, currentUser)
-                .orElseThrow(() -> new RuntimeException("User is not a member of this group"));
-        
-        if (currentUserMember.getRole() != GroupMember.GroupRole.ADMIN) {
+        if (membershipService.requireRole(currentUser.getId(), group.getId()) != GroupMember.GroupRole.ADMIN) {
             throw new RuntimeException("Only group admins can delete settlements");
         }
         
@@ -236,6 +368,7 @@ public class SettlementService {
             throw new RuntimeException("Settlement does not belong to this group");
         }
         
+        balanceLedgerService.reverseSettlement(settlement);
         settlementRepository.delete(settlement);
     }
 }
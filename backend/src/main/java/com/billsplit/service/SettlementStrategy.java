@@ -0,0 +1,8 @@
+package com.billsplit.service;
+
+public enum SettlementStrategy {
+    /** Largest creditor / largest debtor pairing. Fast, but may use more transfers than needed. */
+    GREEDY,
+    /** Minimum number of transfers via zero-sum subset partitioning; falls back to GREEDY for large groups. */
+    EXACT
+}
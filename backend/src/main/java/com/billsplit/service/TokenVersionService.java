@@ -0,0 +1,87 @@
+package com.billsplit.service;
+
+import com.billsplit.repository.UserRepository;
+import com.billsplit.util.BoundedCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tells JwtAuthenticationFilter whether a token's version is still the user's current one,
+ * from a bounded cache keyed by user id. A token is revoked by bumping users.token_version
+ * and evicting the user here; evictions run after the bump commits, and a lookup that raced
+ * with an eviction does not cache its result.
+ *
+ * On other instances a revoked token keeps working until their cached entry expires,
+ * so app.auth.token-version-cache.ttl-seconds bounds how long revocation takes.
+ */
+@Service
+public class TokenVersionService {
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    private final BoundedCache<Long, Long> cache;
+    
+    // Incremented by every eviction; a lookup only caches what it read if no eviction happened meanwhile
+    private final AtomicLong evictions = new AtomicLong();
+    
+    public TokenVersionService(@Value("${app.auth.token-version-cache.max-entries:10000}") int maxEntries,
+                               @Value("${app.auth.token-version-cache.ttl-seconds:60}") long ttlSeconds) {
+        this.cache = new BoundedCache<>(maxEntries, ttlSeconds * 1000L);
+    }
+    
+    /**
+     * Returns false if the user no longer exists or has revoked tokens of this version.
+     */
+    public boolean isCurrent(Long userId, long tokenVersion) {
+        Long current = cache.get(userId);
+        if (current == null) {
+            long evictionsBefore = evictions.get();
+            Optional<Long> loaded = userRepository.findTokenVersionById(userId);
+            if (loaded.isEmpty()) {
+                return false;
+            }
+            current = loaded.get();
+            if (evictions.get() == evictionsBefore) {
+                cache.put(userId, current);
+            }
+        }
+        return current == tokenVersion;
+    }
+    
+    public void evict(Long userId) {
+        Runnable counted = () -> {
+            evictions.incrementAndGet();
+            cache.invalidate(userId);
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Evicting before commit would let a concurrent lookup re-cache the old version
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    counted.run();
+                }
+            });
+        } else {
+            counted.run();
+        }
+    }
+    
+    public long getHits() {
+        return cache.getHits();
+    }
+    
+    public long getMisses() {
+        return cache.getMisses();
+    }
+    
+    public int size() {
+        return cache.size();
+    }
+}
@@ -0,0 +1,102 @@
+package com.billsplit.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * Small in-process cache with least-recently-used eviction once {@code maxEntries}
+ * is reached and a fixed time-to-live per entry. Tracks hit and miss counts.
+ */
+public class BoundedCache<K, V> {
+    
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final LinkedHashMap<K, Entry<V>> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    
+    public BoundedCache(int maxEntries, long ttlMillis) {
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > BoundedCache.this.maxEntries;
+            }
+        };
+    }
+    
+    public V get(K key) {
+        long now = System.currentTimeMillis();
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null && entry.expiresAt > now) {
+                hits.increment();
+                return entry.value;
+            }
+            if (entry != null) {
+                entries.remove(key);
+            }
+        }
+        misses.increment();
+        return null;
+    }
+    
+    public void put(K key, V value) {
+        put(key, value, ttlMillis);
+    }
+    
+    /**
+     * Stores a value that expires after {@code ttlMillis} or the cache-wide TTL, whichever is shorter.
+     */
+    public void put(K key, V value, long ttlMillis) {
+        long expiresAt = System.currentTimeMillis() + Math.min(ttlMillis, this.ttlMillis);
+        synchronized (entries) {
+            entries.put(key, new Entry<>(value, expiresAt));
+        }
+    }
+    
+    public void invalidate(K key) {
+        synchronized (entries) {
+            entries.remove(key);
+        }
+    }
+    
+    public void invalidateIf(Predicate<K> predicate) {
+        synchronized (entries) {
+            Iterator<K> keys = entries.keySet().iterator();
+            while (keys.hasNext()) {
+                if (predicate.test(keys.next())) {
+                    keys.remove();
+                }
+            }
+        }
+    }
+    
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+    
+    public long getHits() {
+        return hits.sum();
+    }
+    
+    public long getMisses() {
+        return misses.sum();
+    }
+    
+    private static class Entry<V> {
+        private final V value;
+        private final long expiresAt;
+        
+        Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.billsplit.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class CsvLine {
+    
+    /**
+     * Splits one CSV record into fields. Fields may be double-quoted, with "" as an
+     * escaped quote inside a quoted field. Records spanning several lines are not supported.
+     */
+    public static List<String> split(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new RuntimeException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,39 @@
+package com.billsplit.util;
+
+public class IndexSort {
+    
+    /**
+     * Stable sort of {@code indices[0..length)} by {@code keys[index]}, largest key first.
+     * Works on primitive arrays only; {@code buffer} must be at least {@code length} long.
+     */
+    public static void sortDescending(int[] indices, int length, long[] keys, int[] buffer) {
+        // Bottom-up merge sort: stable and free of per-element allocation
+        int[] source = indices;
+        int[] target = buffer;
+        for (int width = 1; width < length; width <<= 1) {
+            for (int left = 0; left < length; left += width << 1) {
+                int middle = Math.min(left + width, length);
+                int right = Math.min(left + (width << 1), length);
+                int i = left;
+                int j = middle;
+                int k = left;
+                while (i < middle && j < right) {
+                    // Take from the left run on ties to keep the sort stable
+                    target[k++] = keys[source[j]] > keys[source[i]] ? source[j++] : source[i++];
+                }
+                while (i < middle) {
+                    target[k++] = source[i++];
+                }
+                while (j < right) {
+                    target[k++] = source[j++];
+                }
+            }
+            int[] swap = source;
+            source = target;
+            target = swap;
+        }
+        if (source != indices) {
+            System.arraycopy(source, 0, indices, 0, length);
+        }
+    }
+}
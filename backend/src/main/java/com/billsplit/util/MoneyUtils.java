@@ -0,0 +1,25 @@
+package com.billsplit.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+public class MoneyUtils {
+    
+    /**
+     * Converts a monetary amount with at most two decimal places to whole cents.
+     * Throws ArithmeticException if the amount has sub-cent precision.
+     */
+    public static long toCents(BigDecimal amount) {
+        if (amount == null) {
+            return 0L;
+        }
+        return amount.setScale(2, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+    }
+    
+    /**
+     * Converts whole cents back to a two-decimal amount.
+     */
+    public static BigDecimal fromCents(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+}
@@ -0,0 +1,29 @@
+CREATE TABLE group_balances (
+    group_id BIGINT NOT NULL REFERENCES groups(id) ON DELETE CASCADE,
+    user_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    net_cents BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (group_id, user_id)
+);
+
+CREATE INDEX idx_group_balances_user_id ON group_balances(user_id);
+
+-- Backfill from existing expenses, shares and settlements
+INSERT INTO group_balances (group_id, user_id, net_cents)
+SELECT b.group_id, b.user_id, SUM(b.cents)
+FROM (
+    SELECT e.group_id, e.paid_by AS user_id, ROUND(e.amount * 100)::BIGINT AS cents
+    FROM expenses e
+    WHERE e.deleted_at IS NULL
+    UNION ALL
+    SELECT e.group_id, es.user_id, -ROUND(es.amount_owed * 100)::BIGINT
+    FROM expense_shares es
+    JOIN expenses e ON e.id = es.expense_id
+    WHERE e.deleted_at IS NULL
+    UNION ALL
+    SELECT s.group_id, s.from_user_id, ROUND(s.amount * 100)::BIGINT
+    FROM settlements s
+    UNION ALL
+    SELECT s.group_id, s.to_user_id, -ROUND(s.amount * 100)::BIGINT
+    FROM settlements s
+) b
+GROUP BY b.group_id, b.user_id;
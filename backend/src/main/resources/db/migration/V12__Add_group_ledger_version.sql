@@ -0,0 +1,2 @@
+-- Bumped by every expense, settlement and membership write so cached settlement plans can be keyed by it
+ALTER TABLE groups ADD COLUMN ledger_version BIGINT NOT NULL DEFAULT 0;
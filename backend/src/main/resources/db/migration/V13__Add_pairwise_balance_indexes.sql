@@ -0,0 +1,4 @@
+-- Support index-only scans for the per-counterparty balance aggregation (GET /balances/me)
+CREATE INDEX idx_expense_shares_user_expense ON expense_shares(user_id, expense_id) INCLUDE (amount_owed);
+CREATE INDEX idx_expense_shares_expense_user ON expense_shares(expense_id) INCLUDE (user_id, amount_owed);
+CREATE INDEX idx_expenses_paid_by_active ON expenses(paid_by) INCLUDE (group_id, amount) WHERE deleted_at IS NULL;
@@ -0,0 +1,6 @@
+-- Keyset pagination for settlement history: WHERE group_id = ? AND (settled_at, id) < (?, ?)
+-- ORDER BY settled_at DESC, id DESC LIMIT ? is a single index range scan.
+CREATE INDEX idx_settlements_group_settled_at ON settlements(group_id, settled_at DESC, id DESC);
+
+-- Covered by the leading column of the composite index above
+DROP INDEX IF EXISTS idx_settlements_group_id;
@@ -0,0 +1,24 @@
+-- Per-group balance checkpoints. A checkpoint holds the net effect of every expense,
+-- expense share and settlement with an id at or below its watermark ids; rows above
+-- the watermark are replayed on top of it.
+CREATE TABLE balance_checkpoints (
+    group_id BIGINT PRIMARY KEY REFERENCES groups(id) ON DELETE CASCADE,
+    max_expense_id BIGINT NOT NULL DEFAULT 0,
+    max_expense_share_id BIGINT NOT NULL DEFAULT 0,
+    max_settlement_id BIGINT NOT NULL DEFAULT 0,
+    watermark_at TIMESTAMP NOT NULL
+);
+
+CREATE TABLE balance_checkpoint_entries (
+    group_id BIGINT NOT NULL REFERENCES groups(id) ON DELETE CASCADE,
+    user_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    net_cents BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (group_id, user_id)
+);
+
+-- Shares can be added to an existing expense, so they need their own creation time for the watermark
+ALTER TABLE expense_shares ADD COLUMN created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP;
+
+-- Range scans for "rows in this group above the watermark"
+CREATE INDEX idx_expenses_group_id_id ON expenses(group_id, id);
+CREATE INDEX idx_settlements_group_id_id ON settlements(group_id, id);
@@ -0,0 +1,13 @@
+-- Expenses, expense shares and settlements are now allocated ids in blocks of 50
+-- (Hibernate pooled optimizer: nextval returns the top of the block). Restart each
+-- sequence so the first block lies entirely above the existing ids. The column
+-- defaults stay: a plain nextval() takes a whole block for a single row, which
+-- never overlaps a block handed to the application.
+ALTER SEQUENCE expenses_id_seq INCREMENT BY 50;
+SELECT setval('expenses_id_seq', COALESCE((SELECT MAX(id) FROM expenses), 0) + 50, false);
+
+ALTER SEQUENCE expense_shares_id_seq INCREMENT BY 50;
+SELECT setval('expense_shares_id_seq', COALESCE((SELECT MAX(id) FROM expense_shares), 0) + 50, false);
+
+ALTER SEQUENCE settlements_id_seq INCREMENT BY 50;
+SELECT setval('settlements_id_seq', COALESCE((SELECT MAX(id) FROM settlements), 0) + 50, false);
@@ -0,0 +1,31 @@
+-- Shares owed by invited members who have not joined yet. Replaces the
+-- " (Pending shares: email:amount, ...)" suffix that was appended to expense descriptions.
+CREATE TABLE pending_expense_shares (
+    id BIGSERIAL PRIMARY KEY,
+    expense_id BIGINT NOT NULL REFERENCES expenses(id) ON DELETE CASCADE,
+    pending_member_id BIGINT NOT NULL REFERENCES pending_group_members(id) ON DELETE CASCADE,
+    amount DECIMAL(10,2) NOT NULL CHECK (amount >= 0),
+    UNIQUE(expense_id, pending_member_id)
+);
+
+-- Same pooled allocation as the other share ids (see V16)
+ALTER SEQUENCE pending_expense_shares_id_seq INCREMENT BY 50;
+SELECT setval('pending_expense_shares_id_seq', 50, false);
+
+CREATE INDEX idx_pending_expense_shares_member ON pending_expense_shares(pending_member_id) INCLUDE (expense_id, amount);
+
+-- Move existing encoded shares into the table. Entries for invitations that no longer
+-- exist (accepted, rejected or removed) were already ignored by the balance view.
+INSERT INTO pending_expense_shares (expense_id, pending_member_id, amount)
+SELECT e.id, pgm.id, SUM(CAST(parts[2] AS DECIMAL(10,2)))
+FROM expenses e
+CROSS JOIN LATERAL regexp_split_to_table(
+    substring(e.description from '\(Pending shares: ([^)]*)\)'), ',') AS pair
+CROSS JOIN LATERAL regexp_match(pair, '^\s*(.+):\s*([0-9]+(\.[0-9]+)?)\s*$') AS parts
+JOIN pending_group_members pgm ON pgm.group_id = e.group_id AND pgm.email = LOWER(TRIM(parts[1]))
+WHERE e.description LIKE '%(Pending shares:%'
+GROUP BY e.id, pgm.id;
+
+UPDATE expenses
+SET description = regexp_replace(description, '\s*\(Pending shares: [^)]*\)', '')
+WHERE description LIKE '%(Pending shares:%';
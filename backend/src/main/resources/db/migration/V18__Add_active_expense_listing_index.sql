@@ -0,0 +1,8 @@
+-- Keyset pagination for a group's expense list: WHERE group_id = ? AND deleted_at IS NULL
+-- AND (created_at, id) < (?, ?) ORDER BY created_at DESC, id DESC LIMIT ? is a single
+-- range scan over live rows only.
+CREATE INDEX idx_expenses_group_active_created_at ON expenses(group_id, created_at DESC, id DESC)
+    WHERE deleted_at IS NULL;
+
+-- Covered by the leading column of idx_expenses_group_id_id
+DROP INDEX IF EXISTS idx_expenses_group_id;
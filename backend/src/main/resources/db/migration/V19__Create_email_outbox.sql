@@ -0,0 +1,22 @@
+-- Notification emails are written here in the transaction that triggers them and
+-- delivered by a background dispatcher, so no request waits on the mail API.
+CREATE TABLE email_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    to_email VARCHAR(255) NOT NULL,
+    subject VARCHAR(500) NOT NULL,
+    text_content TEXT NOT NULL,
+    html_content TEXT,
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+    attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    last_error TEXT,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    sent_at TIMESTAMP
+);
+
+-- Expense notifications insert one row per member, so ids are allocated in blocks (see V16)
+ALTER SEQUENCE email_outbox_id_seq INCREMENT BY 50;
+SELECT setval('email_outbox_id_seq', 50, false);
+
+-- The dispatcher polls due PENDING rows in next_attempt_at order
+CREATE INDEX idx_email_outbox_due ON email_outbox(next_attempt_at) WHERE status = 'PENDING';
@@ -0,0 +1,27 @@
+-- Recurring expense templates. The expense request is stored as JSON and posted again
+-- on every occurrence; next_run_date is always the start date plus a whole number of
+-- intervals, so monthly templates starting on the 31st do not drift.
+CREATE TABLE recurring_expenses (
+    id BIGSERIAL PRIMARY KEY,
+    group_id BIGINT NOT NULL REFERENCES groups(id) ON DELETE CASCADE,
+    created_by BIGINT NOT NULL REFERENCES users(id),
+    description VARCHAR(200) NOT NULL,
+    amount DECIMAL(10,2) NOT NULL CHECK (amount > 0),
+    split_type VARCHAR(20) NOT NULL,
+    expense_template TEXT NOT NULL,
+    frequency VARCHAR(20) NOT NULL,
+    interval_count INT NOT NULL DEFAULT 1 CHECK (interval_count > 0),
+    start_date DATE NOT NULL,
+    end_date DATE,
+    next_run_date DATE NOT NULL,
+    occurrences INT NOT NULL DEFAULT 0,
+    active BOOLEAN NOT NULL DEFAULT TRUE,
+    last_run_at TIMESTAMP,
+    last_error TEXT,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- The scheduler claims active templates in next_run_date order
+CREATE INDEX idx_recurring_expenses_due ON recurring_expenses(next_run_date) WHERE active;
+CREATE INDEX idx_recurring_expenses_group_id ON recurring_expenses(group_id);
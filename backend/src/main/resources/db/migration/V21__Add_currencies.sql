@@ -0,0 +1,24 @@
+-- Per-expense currency and per-group base currency. Existing rows predate currencies
+-- and are taken to be USD. Amounts keep two decimal places in every currency.
+ALTER TABLE groups ADD COLUMN base_currency VARCHAR(3) NOT NULL DEFAULT 'USD';
+ALTER TABLE expenses ADD COLUMN currency VARCHAR(3) NOT NULL DEFAULT 'USD';
+ALTER TABLE settlements ADD COLUMN currency VARCHAR(3) NOT NULL DEFAULT 'USD';
+ALTER TABLE recurring_expenses ADD COLUMN currency VARCHAR(3) NOT NULL DEFAULT 'USD';
+
+-- Ledger and checkpoint rows are kept per currency and converted only when read
+ALTER TABLE group_balances ADD COLUMN currency VARCHAR(3) NOT NULL DEFAULT 'USD';
+ALTER TABLE group_balances DROP CONSTRAINT group_balances_pkey;
+ALTER TABLE group_balances ADD PRIMARY KEY (group_id, user_id, currency);
+
+ALTER TABLE balance_checkpoint_entries ADD COLUMN currency VARCHAR(3) NOT NULL DEFAULT 'USD';
+ALTER TABLE balance_checkpoint_entries DROP CONSTRAINT balance_checkpoint_entries_pkey;
+ALTER TABLE balance_checkpoint_entries ADD PRIMARY KEY (group_id, user_id, currency);
+
+-- Units of each currency per one unit of the pivot currency (app.fx.pivot-currency)
+CREATE TABLE fx_rates (
+    currency VARCHAR(3) PRIMARY KEY,
+    units_per_pivot NUMERIC(18,6) NOT NULL CHECK (units_per_pivot > 0),
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+INSERT INTO fx_rates (currency, units_per_pivot) VALUES ('USD', 1);
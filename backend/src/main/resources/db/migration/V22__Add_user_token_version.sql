@@ -0,0 +1,2 @@
+-- Incremented on password and profile changes; tokens carrying an older version are rejected
+ALTER TABLE users ADD COLUMN token_version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,10 @@
+-- Email lookups compare LOWER(email), which the plain index from V1 cannot serve.
+-- Not unique: rows written before emails were normalized may differ only in case.
+CREATE INDEX idx_users_email_lower ON users (LOWER(email));
+
+-- Kept on the index itself so it shows up in \di+
+COMMENT ON INDEX idx_users_email_lower IS
+    'Serves UserRepository.findByEmail/existsByEmail: WHERE LOWER(email) = LOWER(:email). Keep LOWER(email) on the column side or the lookup falls back to a sequential scan.';
+
+-- Exact matches on email are still served by the index behind its UNIQUE constraint
+DROP INDEX IF EXISTS idx_users_email;
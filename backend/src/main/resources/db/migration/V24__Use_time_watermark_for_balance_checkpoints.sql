@@ -0,0 +1,26 @@
+-- Pooled ids (V16) are handed out in per-instance blocks, so with several instances a row
+-- inserted later can get a lower id than rows already folded into a checkpoint, and an id
+-- watermark would never replay it. Checkpoints now hold every row created before
+-- watermark_at and replay the rest. Existing checkpoints used the id watermark, so they
+-- are dropped; the next scheduled run rebuilds them.
+DELETE FROM balance_checkpoint_entries;
+DELETE FROM balance_checkpoints;
+
+ALTER TABLE balance_checkpoints DROP COLUMN max_expense_id;
+ALTER TABLE balance_checkpoints DROP COLUMN max_expense_share_id;
+ALTER TABLE balance_checkpoints DROP COLUMN max_settlement_id;
+
+-- Range scans for "rows in this group created since the watermark"; settlements use
+-- idx_settlements_group_settled_at (V14). Also covers the group_id lookups that
+-- idx_expenses_group_id_id served.
+CREATE INDEX idx_expenses_group_id_created_at ON expenses(group_id, created_at);
+
+-- Shares can be created long after their expense (a pending member accepting), so the
+-- expense's created_at cannot bound them. Recent shares are found by their own created_at
+-- and checked against the group through the expense's primary key, which reads the rows
+-- created since the watermark instead of the group's whole share history.
+CREATE INDEX idx_expense_shares_created_at ON expense_shares(created_at) INCLUDE (expense_id, user_id, amount_owed);
+
+-- Only the id watermark read these
+DROP INDEX IF EXISTS idx_expenses_group_id_id;
+DROP INDEX IF EXISTS idx_settlements_group_id_id;
@@ -0,0 +1,384 @@
+package com.billsplit.controller;
+
+import com.billsplit.entity.Expense;
+import com.billsplit.entity.ExpenseShare;
+import com.billsplit.entity.Group;
+import com.billsplit.entity.GroupMember;
+import com.billsplit.entity.PendingGroupMember;
+import com.billsplit.entity.User;
+import com.billsplit.repository.ExpenseRepository;
+import com.billsplit.repository.ExpenseShareRepository;
+import com.billsplit.repository.GroupMemberRepository;
+import com.billsplit.repository.GroupRepository;
+import com.billsplit.repository.PendingExpenseShareRepository;
+import com.billsplit.repository.PendingGroupMemberRepository;
+import com.billsplit.repository.UserRepository;
+import com.billsplit.security.JwtTokenProvider;
+import com.billsplit.security.UserPrincipal;
+import com.billsplit.service.BalanceLedgerService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Records the SQL behind each authenticated endpoint, reads and writes, and checks that
+ * the current user is looked up at most once per request, however many services ask
+ * for it. A lookup is a statement reading the users table directly with the current
+ * user's id or email bound; lookups of other users do not count.
+ *
+ * Runs the whole application against an in-memory H2 database in PostgreSQL mode; the
+ * schema comes from the entities, since the Flyway migrations are PostgreSQL-only. The
+ * balance ledger and the conversion of pending shares are stubbed, because they use
+ * ON CONFLICT clauses H2 does not support; both work on user ids and never read users.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:query-count;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.hikari.data-source-properties.reWriteBatchedInserts=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.flyway.enabled=false",
+        "jwt.secret=query-count-test-secret-query-count-test-secret-query-count-test-secret-0123",
+        "app.fx.refresh.enabled=false",
+        "app.email.outbox.enabled=false",
+        "app.expense.recurring.enabled=false",
+        "app.ledger.checkpoint.enabled=false",
+        "app.ledger.verify.enabled=false"
+})
+@AutoConfigureMockMvc
+class CurrentUserQueryCountTest {
+    
+    // A statement that reads the users table directly, as opposed to joining it in
+    private static final Pattern USER_LOOKUP = Pattern.compile("^select .* from users \\w+ where .*", Pattern.DOTALL);
+    
+    // The filter's token version check reads users too, but only the version column
+    private static final Pattern TOKEN_VERSION_LOOKUP = Pattern.compile("^select \\w+\\.token_version from users .*", Pattern.DOTALL);
+    
+    private static final StatementRecorder STATEMENTS = new StatementRecorder();
+    
+    @TestConfiguration
+    static class StatementRecordingConfig {
+        
+        @Bean
+        static BeanPostProcessor statementRecordingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? new RecordingDataSource(dataSource) : bean;
+                }
+            };
+        }
+    }
+    
+    @MockBean
+    private BalanceLedgerService balanceLedgerService;
+    
+    @SpyBean
+    private PendingExpenseShareRepository pendingExpenseShareRepository;
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private GroupRepository groupRepository;
+    
+    @Autowired
+    private GroupMemberRepository groupMemberRepository;
+    
+    @Autowired
+    private ExpenseRepository expenseRepository;
+    
+    @Autowired
+    private ExpenseShareRepository expenseShareRepository;
+    
+    @Autowired
+    private PendingGroupMemberRepository pendingGroupMemberRepository;
+    
+    private String token;
+    private User ann;
+    private User bob;
+    private User carol;
+    private Long groupId;
+    private Long otherGroupId;
+    private Long invitationId;
+    private Long expenseId;
+    
+    @BeforeEach
+    void setUp() {
+        // Columns the migrations default and the entities never insert
+        jdbcTemplate.execute("ALTER TABLE users ALTER COLUMN token_version SET DEFAULT 0");
+        jdbcTemplate.execute("ALTER TABLE groups ALTER COLUMN ledger_version SET DEFAULT 0");
+        
+        jdbcTemplate.execute("DELETE FROM pending_expense_shares");
+        jdbcTemplate.execute("DELETE FROM expense_shares");
+        jdbcTemplate.execute("DELETE FROM settlements");
+        jdbcTemplate.execute("DELETE FROM recurring_expenses");
+        jdbcTemplate.execute("DELETE FROM expenses");
+        jdbcTemplate.execute("DELETE FROM pending_group_members");
+        jdbcTemplate.execute("DELETE FROM group_members");
+        jdbcTemplate.execute("DELETE FROM email_outbox");
+        jdbcTemplate.execute("DELETE FROM groups");
+        jdbcTemplate.execute("DELETE FROM users");
+        
+        ann = userRepository.save(new User("Ann", "ann@example.com", "hash"));
+        bob = userRepository.save(new User("Bob", "bob@example.com", "hash"));
+        carol = userRepository.save(new User("Carol", "carol@example.com", "hash"));
+        userRepository.save(new User("Dave", "dave@example.com", "hash"));
+        
+        Group group = groupRepository.save(new Group("Trip", ann));
+        groupMemberRepository.save(new GroupMember(group, ann, GroupMember.GroupRole.ADMIN));
+        groupMemberRepository.save(new GroupMember(group, bob, GroupMember.GroupRole.MEMBER));
+        groupMemberRepository.save(new GroupMember(group, carol, GroupMember.GroupRole.MEMBER));
+        pendingGroupMemberRepository.save(new PendingGroupMember(group, "pat@example.com", "Pat", ann));
+        
+        // Ann is a plain member of one of Bob's groups and invited to another
+        Group otherGroup = groupRepository.save(new Group("Flat", bob));
+        groupMemberRepository.save(new GroupMember(otherGroup, bob, GroupMember.GroupRole.ADMIN));
+        groupMemberRepository.save(new GroupMember(otherGroup, ann, GroupMember.GroupRole.MEMBER));
+        Group invitingGroup = groupRepository.save(new Group("Club", bob));
+        groupMemberRepository.save(new GroupMember(invitingGroup, bob, GroupMember.GroupRole.ADMIN));
+        PendingGroupMember invitation = pendingGroupMemberRepository.save(
+                new PendingGroupMember(invitingGroup, "ann@example.com", "Ann", bob));
+        
+        Expense expense = new Expense(group, "Dinner", new BigDecimal("30.00"), ann, Expense.SplitType.EQUAL);
+        expense.setCurrency("USD");
+        expense = expenseRepository.save(expense);
+        expenseShareRepository.save(new ExpenseShare(expense, ann, new BigDecimal("15.00")));
+        expenseShareRepository.save(new ExpenseShare(expense, bob, new BigDecimal("15.00")));
+        
+        doReturn(0).when(pendingExpenseShareRepository).convertToExpenseShares(any(), any(), any());
+        
+        // What the ledger holds for that expense, so the group has a settlement plan
+        when(balanceLedgerService.getBalances(group.getId()))
+                .thenReturn(Map.of("USD", Map.of(ann.getId(), 1500L, bob.getId(), -1500L)));
+        
+        groupId = group.getId();
+        otherGroupId = otherGroup.getId();
+        invitationId = invitation.getId();
+        expenseId = expense.getId();
+        token = "Bearer " + jwtTokenProvider.generateToken(UserPrincipal.create(ann, 0L));
+    }
+    
+    @Test
+    void readEndpointsLookUpTheCurrentUserAtMostOnce() throws Exception {
+        Map<String, RequestBuilder> requests = new LinkedHashMap<>();
+        for (String endpoint : List.of(
+                "/auth/me",
+                "/groups",
+                "/groups/" + groupId,
+                "/groups/" + groupId + "/members",
+                "/groups/" + groupId + "/pending-members",
+                "/groups/" + groupId + "/pending-balances",
+                "/groups/invitations",
+                "/expenses/group/" + groupId,
+                "/expenses/group/" + groupId + "?limit=10",
+                "/expenses/group/" + groupId + "/with-shares",
+                "/expenses/group/" + groupId + "/recurring",
+                "/expenses/" + expenseId,
+                "/expenses/" + expenseId + "/shares",
+                "/balances/me",
+                "/settlements/group/" + groupId,
+                "/settlements/group/" + groupId + "/history",
+                "/settlements/group/" + groupId + "/history?limit=10")) {
+            requests.put("GET " + endpoint, authenticated(get(endpoint)));
+        }
+        assertAtMostOneLookupEach(requests);
+    }
+    
+    @Test
+    void writeEndpointsLookUpTheCurrentUserAtMostOnce() throws Exception {
+        String expenseJson = "{\"groupId\": " + groupId + ", \"description\": \"Groceries\", \"amount\": 45.00, \"splitType\": \"EQUAL\"}";
+        
+        // Run in order: each request leaves the state the next one needs
+        Map<String, RequestBuilder> requests = new LinkedHashMap<>();
+        requests.put("POST /expenses", authenticated(post("/expenses"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(expenseJson));
+        requests.put("POST /expenses/recurring", authenticated(post("/expenses/recurring"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"expense\": " + expenseJson + ", \"frequency\": \"MONTHLY\"}"));
+        requests.put("POST /expenses/group/{id}/import", authenticated(post("/expenses/group/" + groupId + "/import"))
+                .contentType("text/csv")
+                .content("description,amount\nTaxi,12.50\nMuseum,30.00\n"));
+        requests.put("POST /settlements/group/{id}/settle", authenticated(post("/settlements/group/" + groupId + "/settle"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"toUserId\": " + bob.getId() + ", \"amount\": 5.00}"));
+        requests.put("POST /settlements/group/{id}/settle-all", authenticated(post("/settlements/group/" + groupId + "/settle-all"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"version\": 0, \"transactions\": [{\"fromUserId\": " + bob.getId()
+                        + ", \"toUserId\": " + ann.getId() + ", \"amount\": 15.00}]}"));
+        requests.put("POST /groups/{id}/members", authenticated(post("/groups/" + groupId + "/members"))
+                .param("email", "dave@example.com"));
+        requests.put("DELETE /groups/{id}/members/{userId}", authenticated(delete("/groups/" + groupId + "/members/" + carol.getId())));
+        requests.put("POST /groups/{id}/leave", authenticated(post("/groups/" + otherGroupId + "/leave")));
+        requests.put("POST /groups/invitations/{id}/accept", authenticated(post("/groups/invitations/" + invitationId + "/accept")));
+        requests.put("DELETE /expenses/{id}", authenticated(delete("/expenses/" + expenseId)));
+        assertAtMostOneLookupEach(requests);
+    }
+    
+    private MockHttpServletRequestBuilder authenticated(MockHttpServletRequestBuilder request) {
+        return request.header("Authorization", token);
+    }
+    
+    private void assertAtMostOneLookupEach(Map<String, RequestBuilder> requests) throws Exception {
+        List<String> failures = new ArrayList<>();
+        for (Map.Entry<String, RequestBuilder> request : requests.entrySet()) {
+            STATEMENTS.start();
+            mockMvc.perform(request.getValue()).andExpect(status().isOk());
+            List<RecordedStatement> statements = STATEMENTS.stop();
+            
+            long userLookups = statements.stream().filter(this::isCurrentUserLookup).count();
+            if (userLookups > 1) {
+                failures.add(request.getKey() + " looked up the user " + userLookups + " times in " + statements.size() + " statements");
+            }
+        }
+        assertTrue(failures.isEmpty(), String.join("\n", failures));
+    }
+    
+    private boolean isCurrentUserLookup(RecordedStatement statement) {
+        String sql = statement.sql().toLowerCase(Locale.ROOT).replaceAll("\\s+", " ").trim();
+        if (!USER_LOOKUP.matcher(sql).matches() || TOKEN_VERSION_LOOKUP.matcher(sql).matches()) {
+            return false;
+        }
+        for (Object parameter : statement.parameters().values()) {
+            if (ann.getId().equals(parameter) || ann.getEmail().equalsIgnoreCase(String.valueOf(parameter))) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    record RecordedStatement(String sql, Map<Integer, Object> parameters) {}
+    
+    /**
+     * Keeps the statements executed on the recording thread, so scheduled jobs running
+     * meanwhile are not counted.
+     */
+    static class StatementRecorder {
+        
+        private final ThreadLocal<List<RecordedStatement>> recorded = new ThreadLocal<>();
+        
+        void start() {
+            recorded.set(new ArrayList<>());
+        }
+        
+        List<RecordedStatement> stop() {
+            List<RecordedStatement> statements = recorded.get();
+            recorded.remove();
+            return statements;
+        }
+        
+        void record(String sql, Map<Integer, Object> parameters) {
+            List<RecordedStatement> statements = recorded.get();
+            if (statements != null) {
+                statements.add(new RecordedStatement(sql, new HashMap<>(parameters)));
+            }
+        }
+    }
+    
+    /**
+     * Wraps each connection so prepared statements report their SQL and bound parameters
+     * when they execute. Hibernate binds every parameter, so the parameters tell whose
+     * row a lookup reads.
+     */
+    static class RecordingDataSource extends DelegatingDataSource {
+        
+        RecordingDataSource(DataSource dataSource) {
+            super(dataSource);
+        }
+        
+        @Override
+        public Connection getConnection() throws SQLException {
+            return recording(super.getConnection());
+        }
+        
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return recording(super.getConnection(username, password));
+        }
+        
+        private static Connection recording(Connection connection) {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] {Connection.class},
+                    (proxy, method, args) -> {
+                        Object result = invoke(connection, method, args);
+                        if (method.getName().equals("prepareStatement") && result instanceof PreparedStatement statement) {
+                            return recording(statement, (String) args[0]);
+                        }
+                        return result;
+                    });
+        }
+        
+        private static PreparedStatement recording(PreparedStatement statement, String sql) {
+            Map<Integer, Object> parameters = new HashMap<>();
+            return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(), new Class<?>[] {PreparedStatement.class},
+                    (proxy, method, args) -> {
+                        String name = method.getName();
+                        if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                            parameters.put(index, args[1]);
+                        } else if (name.equals("clearParameters")) {
+                            parameters.clear();
+                        } else if (name.startsWith("execute") && (args == null || args.length == 0)) {
+                            STATEMENTS.record(sql, parameters);
+                        }
+                        return invoke(statement, method, args);
+                    });
+        }
+        
+        private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.billsplit.controller;
+
+import com.billsplit.entity.Group;
+import com.billsplit.entity.GroupMember;
+import com.billsplit.entity.User;
+import com.billsplit.repository.GroupMemberRepository;
+import com.billsplit.repository.GroupRepository;
+import com.billsplit.repository.UserRepository;
+import com.billsplit.security.JwtTokenProvider;
+import com.billsplit.security.UserPrincipal;
+import com.billsplit.service.BalanceLedgerService;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Counts the SQL statements Hibernate prepares to create an expense with many
+ * participants. Pooled sequence ids let the expense's shares go out as one JDBC batch,
+ * so the share insert is prepared once however many participants there are, and custom
+ * splits load every participant with one query.
+ *
+ * Runs against an in-memory H2 database like CurrentUserQueryCountTest. The balance
+ * ledger is mocked, since its upsert uses ON CONFLICT DO UPDATE, which H2 does not
+ * support; it adds one statement per currency, not per participant.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:expense-create;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.hikari.data-source-properties.reWriteBatchedInserts=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.flyway.enabled=false",
+        "jwt.secret=expense-create-test-secret-expense-create-test-secret-expense-create-test-0123",
+        "app.fx.refresh.enabled=false",
+        "app.email.outbox.enabled=false",
+        "app.expense.recurring.enabled=false",
+        "app.ledger.checkpoint.enabled=false",
+        "app.ledger.verify.enabled=false"
+})
+@AutoConfigureMockMvc
+class ExpenseCreateQueryCountTest {
+    
+    private static final int PARTICIPANTS = 60;
+    
+    private static final RecordingStatementInspector STATEMENTS = new RecordingStatementInspector();
+    
+    @TestConfiguration
+    static class StatementRecordingConfig {
+        
+        @Bean
+        HibernatePropertiesCustomizer statementRecorder() {
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, STATEMENTS);
+        }
+    }
+    
+    @MockBean
+    private BalanceLedgerService balanceLedgerService;
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private GroupRepository groupRepository;
+    
+    @Autowired
+    private GroupMemberRepository groupMemberRepository;
+    
+    @Test
+    void equalSplitInsertsAllSharesInOneBatch() throws Exception {
+        List<User> members = createGroupMembers("equal");
+        Long groupId = createGroup(members);
+        
+        List<String> statements = createExpense(members.get(0),
+                "{\"groupId\": " + groupId + ", \"description\": \"Dinner\", \"amount\": 600.00, \"splitType\": \"EQUAL\"}");
+        
+        assertEquals(1, count(statements, "insert into expenses "), String.join("\n", statements));
+        assertEquals(1, count(statements, "insert into expense_shares "), String.join("\n", statements));
+        assertFewerStatementsThanParticipants(statements);
+    }
+    
+    @Test
+    void customSplitLoadsParticipantsInOneQuery() throws Exception {
+        List<User> members = createGroupMembers("custom");
+        Long groupId = createGroup(members);
+        
+        StringBuilder shares = new StringBuilder();
+        for (User member : members) {
+            shares.append(shares.length() > 0 ? ", " : "")
+                    .append("{\"userId\": ").append(member.getId()).append(", \"amountOwed\": 10.00}");
+        }
+        List<String> statements = createExpense(members.get(0),
+                "{\"groupId\": " + groupId + ", \"description\": \"Dinner\", \"amount\": 600.00, "
+                        + "\"splitType\": \"CUSTOM\", \"shares\": [" + shares + "]}");
+        
+        assertEquals(1, count(statements, "insert into expense_shares "), String.join("\n", statements));
+        // The current user, then every participant at once; the token version check reads only its column
+        assertEquals(2, count(statements, " from users ") - count(statements, ".token_version from users "),
+                String.join("\n", statements));
+        assertFewerStatementsThanParticipants(statements);
+    }
+    
+    private List<User> createGroupMembers(String prefix) {
+        jdbcTemplate.execute("ALTER TABLE users ALTER COLUMN token_version SET DEFAULT 0");
+        jdbcTemplate.execute("ALTER TABLE groups ALTER COLUMN ledger_version SET DEFAULT 0");
+        
+        List<User> members = new ArrayList<>(PARTICIPANTS);
+        for (int i = 0; i < PARTICIPANTS; i++) {
+            members.add(userRepository.save(new User("User " + i, prefix + i + "@example.com", "hash")));
+        }
+        return members;
+    }
+    
+    private Long createGroup(List<User> members) {
+        Group group = groupRepository.save(new Group("Trip", members.get(0)));
+        groupMemberRepository.save(new GroupMember(group, members.get(0), GroupMember.GroupRole.ADMIN));
+        for (User member : members.subList(1, members.size())) {
+            groupMemberRepository.save(new GroupMember(group, member, GroupMember.GroupRole.MEMBER));
+        }
+        return group.getId();
+    }
+    
+    private List<String> createExpense(User payer, String body) throws Exception {
+        String token = "Bearer " + jwtTokenProvider.generateToken(UserPrincipal.create(payer, 0L));
+        STATEMENTS.start();
+        mockMvc.perform(post("/expenses")
+                        .header("Authorization", token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk());
+        return STATEMENTS.stop();
+    }
+    
+    // Sequence blocks and the notification emails add a few statements, never one per participant
+    private static void assertFewerStatementsThanParticipants(List<String> statements) {
+        assertTrue(statements.size() < PARTICIPANTS / 3,
+                statements.size() + " statements for " + PARTICIPANTS + " participants:\n" + String.join("\n", statements));
+    }
+    
+    private static long count(List<String> statements, String fragment) {
+        return statements.stream()
+                .map(sql -> sql.toLowerCase(Locale.ROOT).replaceAll("\\s+", " "))
+                .filter(sql -> sql.contains(fragment))
+                .count();
+    }
+    
+    /**
+     * Records the SQL that Hibernate prepares on the recording thread, so scheduled jobs
+     * running meanwhile are not counted.
+     */
+    static class RecordingStatementInspector implements StatementInspector {
+        
+        private final ThreadLocal<List<String>> recorded = new ThreadLocal<>();
+        
+        void start() {
+            recorded.set(new ArrayList<>());
+        }
+        
+        List<String> stop() {
+            List<String> statements = recorded.get();
+            recorded.remove();
+            return statements;
+        }
+        
+        @Override
+        public String inspect(String sql) {
+            List<String> statements = recorded.get();
+            if (statements != null) {
+                statements.add(sql);
+            }
+            return sql;
+        }
+    }
+}
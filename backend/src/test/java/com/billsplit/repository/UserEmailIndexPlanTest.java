@@ -0,0 +1,95 @@
+package com.billsplit.repository;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that PostgreSQL serves the case-insensitive email lookups from
+ * idx_users_email_lower (V23) on a 1M-user table. Opt-in, since it needs a real
+ * PostgreSQL: set PLAN_TEST_DATABASE_URL (and PLAN_TEST_DATABASE_USERNAME /
+ * PLAN_TEST_DATABASE_PASSWORD) to a database the test may create a schema in.
+ *
+ * The migrations run into a throwaway schema, which is dropped afterwards.
+ */
+@EnabledIfEnvironmentVariable(named = "PLAN_TEST_DATABASE_URL", matches = ".+")
+class UserEmailIndexPlanTest {
+    
+    private static final String SCHEMA = "user_email_index_plan_test";
+    
+    // The shape of the SQL Hibernate generates for UserRepository.findByEmail and existsByEmail
+    private static final String FIND_BY_EMAIL =
+            "SELECT u.id, u.email FROM users u WHERE lower(u.email) = lower('User500000@Example.com')";
+    private static final String EXISTS_BY_EMAIL =
+            "SELECT count(u.id) FROM users u WHERE lower(u.email) = lower('User500000@Example.com')";
+    
+    private static Connection connection;
+    
+    @BeforeAll
+    static void migrateAndFill() throws SQLException {
+        String url = System.getenv("PLAN_TEST_DATABASE_URL");
+        String username = System.getenv("PLAN_TEST_DATABASE_USERNAME");
+        String password = System.getenv("PLAN_TEST_DATABASE_PASSWORD");
+        Flyway.configure()
+                .dataSource(url, username, password)
+                .schemas(SCHEMA)
+                .load()
+                .migrate();
+        
+        connection = DriverManager.getConnection(url, username, password);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SET search_path TO " + SCHEMA);
+            statement.execute("INSERT INTO users (name, email, password_hash) " +
+                    "SELECT 'User ' || n, 'user' || n || '@example.com', 'hash' FROM generate_series(1, 1000000) n");
+            statement.execute("ANALYZE users");
+        }
+    }
+    
+    @AfterAll
+    static void dropSchema() throws SQLException {
+        if (connection == null) {
+            return;
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP SCHEMA " + SCHEMA + " CASCADE");
+        } finally {
+            connection.close();
+        }
+    }
+    
+    @Test
+    void findByEmailUsesLowerEmailIndex() throws SQLException {
+        String plan = explain(FIND_BY_EMAIL);
+        assertTrue(plan.contains("idx_users_email_lower"), plan);
+        assertFalse(plan.contains("Seq Scan"), plan);
+    }
+    
+    @Test
+    void existsByEmailUsesLowerEmailIndex() throws SQLException {
+        String plan = explain(EXISTS_BY_EMAIL);
+        assertTrue(plan.contains("idx_users_email_lower"), plan);
+        assertFalse(plan.contains("Seq Scan"), plan);
+    }
+    
+    private static String explain(String sql) throws SQLException {
+        StringBuilder plan = new StringBuilder();
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("EXPLAIN " + sql)) {
+            while (rows.next()) {
+                plan.append(rows.getString(1)).append('\n');
+            }
+        }
+        return plan.toString();
+    }
+}
@@ -0,0 +1,277 @@
+package com.billsplit.service;
+
+import com.billsplit.dto.ExpenseRequest;
+import com.billsplit.entity.Expense;
+import com.billsplit.util.MoneyUtils;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Invariants of the share computations: every split sums exactly to the expense amount,
+ * whatever is left after dividing goes out one cent at a time, and bad input is rejected
+ * before any share is written.
+ */
+class ExpenseSplitCalculatorTest {
+    
+    private static final long SEED = 20240601L;
+    
+    @Test
+    void allocateSumsToTotalAndStaysWithinOneCentOfEachQuota() {
+        Random random = new Random(SEED);
+        for (int run = 0; run < 20_000; run++) {
+            long totalCents = 1 + (long) (random.nextDouble() * 10_000_000_000L);
+            long[] weights = new long[1 + random.nextInt(30)];
+            for (int i = 0; i < weights.length; i++) {
+                // Zero weights are allowed as long as some weight is positive
+                weights[i] = random.nextInt(4) == 0 ? 0 : 1 + random.nextInt(1_000_000);
+            }
+            weights[random.nextInt(weights.length)] = 1 + random.nextInt(1_000_000);
+            
+            long[] shares = ExpenseSplitCalculator.allocate(totalCents, weights);
+            
+            assertEquals(totalCents, sum(shares), "shares sum to the total in run " + run);
+            assertWithinOneCentOfQuota(totalCents, weights, shares);
+        }
+    }
+    
+    @Test
+    void allocateGivesLeftoverCentsToLargestRemaindersThenEarlierParticipants() {
+        assertArrayEquals(new long[]{34, 33, 33}, ExpenseSplitCalculator.allocate(100, new long[]{1, 1, 1}));
+        assertArrayEquals(new long[]{1, 1, 0, 0}, ExpenseSplitCalculator.allocate(2, new long[]{1, 1, 1, 1}));
+        // Quotas 1.5, 3.5 and 2: both half-cent remainders tie, so the earlier one gets the cent
+        assertArrayEquals(new long[]{2, 3, 2}, ExpenseSplitCalculator.allocate(7, new long[]{3, 7, 4}));
+        assertArrayEquals(new long[]{0, 100, 0}, ExpenseSplitCalculator.allocate(100, new long[]{0, 5, 0}));
+    }
+    
+    @Test
+    void allocateHandlesProductsBeyondLongRange() {
+        long totalCents = 9_999_999_999L;
+        long[] weights = {Long.MAX_VALUE / 4, Long.MAX_VALUE / 4 - 1, 3};
+        
+        long[] shares = ExpenseSplitCalculator.allocate(totalCents, weights);
+        
+        assertEquals(totalCents, sum(shares));
+        assertWithinOneCentOfQuota(totalCents, weights, shares);
+    }
+    
+    @Test
+    void allocateRejectsNegativeZeroAndMissingWeights() {
+        assertThrows(RuntimeException.class, () -> ExpenseSplitCalculator.allocate(100, new long[]{1, -1}));
+        assertThrows(RuntimeException.class, () -> ExpenseSplitCalculator.allocate(100, new long[]{0, 0}));
+        assertThrows(RuntimeException.class, () -> ExpenseSplitCalculator.allocate(100, new long[0]));
+    }
+    
+    @Test
+    void equalSplitSumsToAmountWithSharesOneCentApart() {
+        Random random = new Random(SEED + 1);
+        for (int run = 0; run < 5_000; run++) {
+            BigDecimal amount = MoneyUtils.fromCents(1 + random.nextInt(10_000_000));
+            int memberCount = random.nextInt(12);
+            int pendingCount = (memberCount == 0 ? 1 : 0) + random.nextInt(4);
+            
+            long[] shares = ExpenseSplitCalculator.splitEqually(amount, memberCount, pendingCount);
+            
+            assertEquals(memberCount + pendingCount, shares.length);
+            assertEquals(MoneyUtils.toCents(amount), sum(shares), "shares sum to " + amount);
+            for (int i = 1; i < shares.length; i++) {
+                assertTrue(shares[i] <= shares[i - 1] && shares[0] - shares[i] <= 1, "leftover cents go to the first participants");
+            }
+        }
+        assertThrows(RuntimeException.class, () -> ExpenseSplitCalculator.splitEqually(new BigDecimal("10.00"), 0, 0));
+    }
+    
+    @Test
+    void equalSplitOfAmountThatDoesNotDivideEvenly() {
+        assertArrayEquals(new long[]{334, 333, 333}, ExpenseSplitCalculator.splitEqually(new BigDecimal("10.00"), 2, 1));
+        assertArrayEquals(new long[]{1, 0, 0}, ExpenseSplitCalculator.splitEqually(new BigDecimal("0.01"), 3, 0));
+    }
+    
+    @Test
+    void percentSplitSumsToAmount() {
+        Random random = new Random(SEED + 2);
+        for (int run = 0; run < 5_000; run++) {
+            // Percentages in ten-thousandths of a percent, adding up to exactly 100
+            int count = 1 + random.nextInt(10);
+            long[] units = randomPartition(random, 1_000_000L, count);
+            List<ExpenseRequest.ExpenseShareRequest> shares = new ArrayList<>();
+            for (long unit : units) {
+                ExpenseRequest.ExpenseShareRequest share = new ExpenseRequest.ExpenseShareRequest();
+                share.setPercent(BigDecimal.valueOf(unit, 4));
+                shares.add(share);
+            }
+            BigDecimal amount = MoneyUtils.fromCents(1 + random.nextInt(10_000_000));
+            
+            long[] allocated = ExpenseSplitCalculator.splitProportionally(amount, Expense.SplitType.PERCENT, shares, null);
+            
+            assertEquals(MoneyUtils.toCents(amount), sum(allocated), "shares sum to " + amount);
+        }
+    }
+    
+    @Test
+    void percentSplitWithThirdsRoundsToTheCent() {
+        List<ExpenseRequest.ExpenseShareRequest> shares = List.of(
+                percentShare("33.3333"), percentShare("33.3333"), percentShare("33.3334"));
+        
+        long[] allocated = ExpenseSplitCalculator.splitProportionally(new BigDecimal("100.00"), Expense.SplitType.PERCENT, shares, null);
+        
+        assertArrayEquals(new long[]{3333, 3333, 3334}, allocated);
+    }
+    
+    @Test
+    void percentSplitRejectsTotalOtherThanOneHundred() {
+        BigDecimal amount = new BigDecimal("50.00");
+        assertThrows(RuntimeException.class, () -> ExpenseSplitCalculator.splitProportionally(amount, Expense.SplitType.PERCENT,
+                List.of(percentShare("50"), percentShare("40")), null));
+        assertThrows(RuntimeException.class, () -> ExpenseSplitCalculator.splitProportionally(amount, Expense.SplitType.PERCENT,
+                List.of(percentShare("60"), percentShare("40.0001")), null));
+        assertThrows(RuntimeException.class, () -> ExpenseSplitCalculator.splitProportionally(amount, Expense.SplitType.PERCENT,
+                List.of(percentShare("33.33333"), percentShare("66.66667")), null));
+        assertThrows(RuntimeException.class, () -> ExpenseSplitCalculator.splitProportionally(amount, Expense.SplitType.PERCENT,
+                List.of(percentShare("120"), percentShare("-20")), null));
+    }
+    
+    @Test
+    void weightedSplitSumsToAmountAcrossMembersAndPendingMembers() {
+        Random random = new Random(SEED + 3);
+        for (int run = 0; run < 5_000; run++) {
+            List<ExpenseRequest.ExpenseShareRequest> shares = new ArrayList<>();
+            List<ExpenseRequest.PendingShareRequest> pendingShares = new ArrayList<>();
+            int memberCount = 1 + random.nextInt(8);
+            for (int i = 0; i < memberCount; i++) {
+                ExpenseRequest.ExpenseShareRequest share = new ExpenseRequest.ExpenseShareRequest();
+                share.setWeight(BigDecimal.valueOf(random.nextInt(50_000), 4));
+                shares.add(share);
+            }
+            shares.get(0).setWeight(BigDecimal.valueOf(1 + random.nextInt(50_000), 4));
+            for (int i = random.nextInt(3); i > 0; i--) {
+                ExpenseRequest.PendingShareRequest share = new ExpenseRequest.PendingShareRequest();
+                share.setWeight(BigDecimal.valueOf(random.nextInt(50_000), 4));
+                pendingShares.add(share);
+            }
+            BigDecimal amount = MoneyUtils.fromCents(1 + random.nextInt(10_000_000));
+            
+            long[] allocated = ExpenseSplitCalculator.splitProportionally(amount, Expense.SplitType.WEIGHTED, shares, pendingShares);
+            
+            assertEquals(shares.size() + pendingShares.size(), allocated.length);
+            assertEquals(MoneyUtils.toCents(amount), sum(allocated), "shares sum to " + amount);
+        }
+    }
+    
+    @Test
+    void weightedSplitRejectsNegativeAndAllZeroWeights() {
+        BigDecimal amount = new BigDecimal("10.00");
+        assertThrows(RuntimeException.class, () -> ExpenseSplitCalculator.splitProportionally(amount, Expense.SplitType.WEIGHTED,
+                List.of(weightShare("2"), weightShare("-1")), null));
+        assertThrows(RuntimeException.class, () -> ExpenseSplitCalculator.splitProportionally(amount, Expense.SplitType.WEIGHTED,
+                List.of(weightShare("0"), weightShare("0.0000")), null));
+        assertThrows(RuntimeException.class, () -> ExpenseSplitCalculator.splitProportionally(amount, Expense.SplitType.WEIGHTED,
+                List.of(weightShare("1"), new ExpenseRequest.ExpenseShareRequest()), null));
+        assertThrows(RuntimeException.class, () -> ExpenseSplitCalculator.splitProportionally(amount, Expense.SplitType.WEIGHTED,
+                List.of(), null));
+    }
+    
+    @Test
+    void weightedSplitGivesZeroWeightNothing() {
+        long[] allocated = ExpenseSplitCalculator.splitProportionally(new BigDecimal("10.00"), Expense.SplitType.WEIGHTED,
+                List.of(weightShare("2"), weightShare("0"), weightShare("1")), null);
+        
+        assertArrayEquals(new long[]{667, 0, 333}, allocated);
+    }
+    
+    @Test
+    void itemizedSplitSpreadsTaxAndTipInProportionToSubtotals() {
+        // 12.50 + 7.25 + 0.30 of items, 24.07 with tax and tip
+        List<ExpenseRequest.ExpenseShareRequest> shares = List.of(itemShare("12.50"), itemShare("7.25"));
+        ExpenseRequest.PendingShareRequest pending = new ExpenseRequest.PendingShareRequest();
+        pending.setItemAmount(new BigDecimal("0.30"));
+        
+        long[] allocated = ExpenseSplitCalculator.splitProportionally(new BigDecimal("24.07"), Expense.SplitType.ITEMIZED,
+                shares, List.of(pending));
+        
+        assertEquals(2407, sum(allocated));
+        assertArrayEquals(new long[]{1501, 870, 36}, allocated);
+        assertThrows(RuntimeException.class, () -> ExpenseSplitCalculator.splitProportionally(new BigDecimal("24.07"),
+                Expense.SplitType.ITEMIZED, List.of(itemShare("12.505")), null));
+    }
+    
+    @Test
+    void customSharesMustBeWholeCentsAndAddUpToAmount() {
+        BigDecimal amount = new BigDecimal("10.00");
+        List<ExpenseRequest.PendingShareRequest> pending = List.of(new ExpenseRequest.PendingShareRequest("p@example.com", new BigDecimal("2.50")));
+        
+        assertDoesNotThrow(() -> ExpenseSplitCalculator.validateCustomShares(amount,
+                List.of(customShare("3.33"), customShare("4.170")), pending));
+        assertThrows(RuntimeException.class, () -> ExpenseSplitCalculator.validateCustomShares(amount,
+                List.of(customShare("3.333"), customShare("6.667")), null));
+        assertThrows(RuntimeException.class, () -> ExpenseSplitCalculator.validateCustomShares(amount,
+                List.of(customShare("3.33"), customShare("6.66")), null));
+        assertThrows(RuntimeException.class, () -> ExpenseSplitCalculator.validateCustomShares(amount,
+                List.of(customShare("10.00"), customShare(null)), null));
+        assertThrows(RuntimeException.class, () -> ExpenseSplitCalculator.validateCustomShares(amount, List.of(), null));
+    }
+    
+    private static void assertWithinOneCentOfQuota(long totalCents, long[] weights, long[] shares) {
+        BigInteger weightTotal = BigInteger.ZERO;
+        for (long weight : weights) {
+            weightTotal = weightTotal.add(BigInteger.valueOf(weight));
+        }
+        for (int i = 0; i < weights.length; i++) {
+            // floor(quota) <= share <= floor(quota) + 1
+            BigInteger floor = BigInteger.valueOf(totalCents).multiply(BigInteger.valueOf(weights[i])).divide(weightTotal);
+            long difference = shares[i] - floor.longValueExact();
+            assertTrue(difference == 0 || difference == 1, "share " + i + " is " + shares[i] + ", quota floor " + floor);
+        }
+    }
+    
+    private static long[] randomPartition(Random random, long total, int parts) {
+        long[] result = new long[parts];
+        long remaining = total;
+        for (int i = 0; i < parts - 1; i++) {
+            result[i] = (long) (random.nextDouble() * (remaining + 1));
+            remaining -= result[i];
+        }
+        result[parts - 1] = remaining;
+        return result;
+    }
+    
+    private static long sum(long[] values) {
+        long total = 0;
+        for (long value : values) {
+            total += value;
+        }
+        return total;
+    }
+    
+    private static ExpenseRequest.ExpenseShareRequest percentShare(String percent) {
+        ExpenseRequest.ExpenseShareRequest share = new ExpenseRequest.ExpenseShareRequest();
+        share.setPercent(new BigDecimal(percent));
+        return share;
+    }
+    
+    private static ExpenseRequest.ExpenseShareRequest weightShare(String weight) {
+        ExpenseRequest.ExpenseShareRequest share = new ExpenseRequest.ExpenseShareRequest();
+        share.setWeight(new BigDecimal(weight));
+        return share;
+    }
+    
+    private static ExpenseRequest.ExpenseShareRequest itemShare(String itemAmount) {
+        ExpenseRequest.ExpenseShareRequest share = new ExpenseRequest.ExpenseShareRequest();
+        share.setItemAmount(new BigDecimal(itemAmount));
+        return share;
+    }
+    
+    private static ExpenseRequest.ExpenseShareRequest customShare(String amountOwed) {
+        return new ExpenseRequest.ExpenseShareRequest(1L, amountOwed != null ? new BigDecimal(amountOwed) : null);
+    }
+}
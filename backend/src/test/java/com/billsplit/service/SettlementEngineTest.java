@@ -0,0 +1,197 @@
+package com.billsplit.service;
+
+import com.billsplit.dto.SettlementTransaction;
+import com.billsplit.util.MoneyUtils;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Randomized checks of the cents-based settlement against the BigDecimal greedy pass it
+ * replaced. Both sides get balances in the same order, since the order of equal balances
+ * decides which of them is paired first.
+ */
+class SettlementEngineTest {
+    
+    private static final long SEED = 20240501L;
+    
+    @Test
+    void greedyMatchesPreviousBigDecimalImplementation() {
+        Random random = new Random(SEED);
+        for (int run = 0; run < 20_000; run++) {
+            long[] cents = randomBalances(random, 1 + random.nextInt(run % 10 == 0 ? 400 : 12), random.nextBoolean());
+            long[] userIds = userIds(cents.length);
+            
+            List<SettlementTransaction> expected = legacyGreedy(userIds, cents);
+            List<SettlementTransaction> actual = SettlementService.optimizeSettlements(userIds, cents, names(userIds));
+            
+            assertEquals(expected.size(), actual.size(), "transfer count for run " + run);
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.get(i).getFromUserId(), actual.get(i).getFromUserId(), "payer of transfer " + i + " in run " + run);
+                assertEquals(expected.get(i).getToUserId(), actual.get(i).getToUserId(), "payee of transfer " + i + " in run " + run);
+                assertEquals(0, expected.get(i).getAmount().compareTo(actual.get(i).getAmount()), "amount of transfer " + i + " in run " + run);
+            }
+        }
+    }
+    
+    @Test
+    void greedySettlesEveryZeroSumBalance() {
+        Random random = new Random(SEED + 1);
+        for (int run = 0; run < 5_000; run++) {
+            long[] cents = randomBalances(random, 1 + random.nextInt(50), true);
+            SettlementEngine.Plan plan = SettlementEngine.settleGreedy(cents);
+            
+            assertNetsToZero(cents, plan);
+            assertTrue(plan.size() <= Math.max(nonZero(cents) - 1, 0), "at most one transfer fewer than non-zero balances");
+        }
+    }
+    
+    @Test
+    void exactNeverUsesMoreTransfersThanGreedy() {
+        SettlementService service = new SettlementService();
+        ReflectionTestUtils.setField(service, "minimumTransactionSolver", new MinimumTransactionSolver(12, 10_000));
+        
+        Random random = new Random(SEED + 2);
+        for (int run = 0; run < 2_000; run++) {
+            // Small magnitudes make zero-sum subsets common, which is where exact can do better
+            long[] cents = randomBalances(random, 1 + random.nextInt(12), true, 1 + random.nextInt(20));
+            long[] userIds = userIds(cents.length);
+            Map<Long, String> names = names(userIds);
+            
+            List<SettlementTransaction> greedy = SettlementService.optimizeSettlements(userIds, cents, names);
+            List<SettlementTransaction> exact = service.optimizeSettlementsExact(userIds, cents, names);
+            
+            assertTrue(exact.size() <= greedy.size(), "exact used " + exact.size() + " transfers, greedy " + greedy.size());
+            assertNetsToZero(userIds, cents, exact);
+        }
+    }
+    
+    private static void assertNetsToZero(long[] cents, SettlementEngine.Plan plan) {
+        long[] remaining = cents.clone();
+        for (int i = 0; i < plan.size(); i++) {
+            assertTrue(plan.amountCents(i) > 0, "transfers are positive");
+            remaining[plan.from(i)] += plan.amountCents(i);
+            remaining[plan.to(i)] -= plan.amountCents(i);
+        }
+        for (long balance : remaining) {
+            assertEquals(0, balance);
+        }
+    }
+    
+    private static void assertNetsToZero(long[] userIds, long[] cents, List<SettlementTransaction> transactions) {
+        Map<Long, Long> remaining = new HashMap<>();
+        for (int i = 0; i < userIds.length; i++) {
+            remaining.put(userIds[i], cents[i]);
+        }
+        for (SettlementTransaction transaction : transactions) {
+            long amount = MoneyUtils.toCents(transaction.getAmount());
+            assertTrue(amount > 0, "transfers are positive");
+            remaining.merge(transaction.getFromUserId(), amount, Long::sum);
+            remaining.merge(transaction.getToUserId(), -amount, Long::sum);
+        }
+        for (long balance : remaining.values()) {
+            assertEquals(0, balance);
+        }
+    }
+    
+    private static long[] randomBalances(Random random, int count, boolean zeroSum) {
+        return randomBalances(random, count, zeroSum, 1 + random.nextInt(100_000));
+    }
+    
+    // Magnitudes are drawn from a small range often enough to produce ties and zero balances
+    private static long[] randomBalances(Random random, int count, boolean zeroSum, int maxMagnitude) {
+        long[] cents = new long[count];
+        long total = 0;
+        for (int i = 0; i < count; i++) {
+            cents[i] = random.nextInt(2 * maxMagnitude + 1) - maxMagnitude;
+            total += cents[i];
+        }
+        if (zeroSum) {
+            cents[count - 1] -= total;
+        }
+        return cents;
+    }
+    
+    private static int nonZero(long[] cents) {
+        int count = 0;
+        for (long balance : cents) {
+            if (balance != 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+    
+    private static long[] userIds(int count) {
+        long[] userIds = new long[count];
+        for (int i = 0; i < count; i++) {
+            userIds[i] = 1000L + i;
+        }
+        return userIds;
+    }
+    
+    private static Map<Long, String> names(long[] userIds) {
+        Map<Long, String> names = new HashMap<>();
+        for (long userId : userIds) {
+            names.put(userId, "User " + userId);
+        }
+        return names;
+    }
+    
+    // The greedy pass as it was before the cents engine, fed the balances in array order
+    private static List<SettlementTransaction> legacyGreedy(long[] userIds, long[] cents) {
+        Map<Long, BigDecimal> balances = new LinkedHashMap<>();
+        for (int i = 0; i < userIds.length; i++) {
+            balances.put(userIds[i], MoneyUtils.fromCents(cents[i]));
+        }
+        
+        List<SettlementTransaction> transactions = new ArrayList<>();
+        List<Map.Entry<Long, BigDecimal>> creditors = new ArrayList<>();
+        List<Map.Entry<Long, BigDecimal>> debtors = new ArrayList<>();
+        for (Map.Entry<Long, BigDecimal> entry : balances.entrySet()) {
+            if (entry.getValue().compareTo(BigDecimal.ZERO) > 0) {
+                creditors.add(entry);
+            } else if (entry.getValue().compareTo(BigDecimal.ZERO) < 0) {
+                debtors.add(entry);
+            }
+        }
+        creditors.sort((a, b) -> b.getValue().compareTo(a.getValue()));
+        debtors.sort((a, b) -> a.getValue().compareTo(b.getValue()));
+        
+        int creditorIndex = 0;
+        int debtorIndex = 0;
+        while (creditorIndex < creditors.size() && debtorIndex < debtors.size()) {
+            Map.Entry<Long, BigDecimal> creditor = creditors.get(creditorIndex);
+            Map.Entry<Long, BigDecimal> debtor = debtors.get(debtorIndex);
+            BigDecimal transactionAmount = creditor.getValue().min(debtor.getValue().abs());
+            
+            if (transactionAmount.compareTo(BigDecimal.ZERO) > 0) {
+                transactions.add(new SettlementTransaction(debtor.getKey(), null, creditor.getKey(), null, transactionAmount));
+                creditor.setValue(creditor.getValue().subtract(transactionAmount));
+                debtor.setValue(debtor.getValue().add(transactionAmount));
+                
+                BigDecimal epsilon = new BigDecimal("0.01");
+                if (creditor.getValue().abs().compareTo(epsilon) < 0) {
+                    creditorIndex++;
+                }
+                if (debtor.getValue().abs().compareTo(epsilon) < 0) {
+                    debtorIndex++;
+                }
+            } else {
+                creditorIndex++;
+                debtorIndex++;
+            }
+        }
+        return transactions;
+    }
+}
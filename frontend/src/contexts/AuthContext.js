@@ -76,6 +76,15 @@ export const AuthProvider = ({ children }) => {
     }
   };
 
+  // Password and profile changes revoke the current token and return its replacement
+  const storeReplacementToken = (response) => {
+    const accessToken = response.headers?.['x-access-token'];
+    if (accessToken) {
+      localStorage.setItem('token', accessToken);
+      api.defaults.headers.common['Authorization'] = `Bearer ${accessToken}`;
+    }
+  };
+
   const logout = () => {
     localStorage.removeItem('token');
     delete api.defaults.headers.common['Authorization'];
@@ -85,6 +94,7 @@ export const AuthProvider = ({ children }) => {
   const updateProfile = async (name, email) => {
     try {
       const response = await api.put('/auth/profile', { name, email });
+      storeReplacementToken(response);
       setUser(response.data);
       return { success: true };
     } catch (error) {
@@ -99,6 +109,7 @@ export const AuthProvider = ({ children }) => {
     register,
     logout,
     updateProfile,
+    storeReplacementToken,
     fetchUser,
     loading
   };
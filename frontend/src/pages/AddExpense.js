@@ -12,6 +12,7 @@ const AddExpense = () => {
   const [formData, setFormData] = useState({
     description: '',
     amount: '',
+    currency: '',
     splitType: 'EQUAL',
     paidBy: '',
     shares: [],
@@ -19,6 +20,7 @@ const AddExpense = () => {
   });
   const [members, setMembers] = useState([]);
   const [pendingMembers, setPendingMembers] = useState([]);
+  const [currencies, setCurrencies] = useState([]);
   const [loading, setLoading] = useState(false);
 
   const fetchMembers = useCallback(async () => {
@@ -47,6 +49,12 @@ const AddExpense = () => {
     fetchMembers();
   }, [groupId]);
 
+  useEffect(() => {
+    api.get('/currencies')
+      .then(res => setCurrencies(Object.keys(res.data?.rates || {})))
+      .catch(() => setCurrencies([]));
+  }, []);
+
   // Refresh on focus
   useEffect(() => {
     const handleFocus = () => {
@@ -64,14 +72,24 @@ const AddExpense = () => {
     });
   };
 
+  // Request field each split type reads from a share; the backend computes the amounts
+  // for the percent, weighted and itemized splits
+  const shareFields = {
+    CUSTOM: 'amountOwed',
+    PERCENT: 'percent',
+    WEIGHTED: 'weight',
+    ITEMIZED: 'itemAmount'
+  };
+  const shareField = shareFields[formData.splitType];
+
   const handleShareChange = (userId, amount) => {
     const shares = [...formData.shares];
     const existingIndex = shares.findIndex(share => share.userId === userId);
     
     if (existingIndex >= 0) {
-      shares[existingIndex].amountOwed = parseFloat(amount) || 0;
+      shares[existingIndex][shareField] = parseFloat(amount) || 0;
     } else {
-      shares.push({ userId, amountOwed: parseFloat(amount) || 0 });
+      shares.push({ userId, [shareField]: parseFloat(amount) || 0 });
     }
     
     setFormData({ ...formData, shares });
@@ -82,14 +100,26 @@ const AddExpense = () => {
     const existingIndex = pendingShares.findIndex(share => share.email === email);
     
     if (existingIndex >= 0) {
-      pendingShares[existingIndex].amountOwed = parseFloat(amount) || 0;
+      pendingShares[existingIndex][shareField] = parseFloat(amount) || 0;
     } else {
-      pendingShares.push({ email, amountOwed: parseFloat(amount) || 0 });
+      pendingShares.push({ email, [shareField]: parseFloat(amount) || 0 });
     }
     
     setFormData({ ...formData, pendingShares });
   };
 
+  const handleSplitTypeChange = (e) => {
+    // Values typed for one split type mean something else under another
+    setFormData({ ...formData, splitType: e.target.value, shares: [], pendingShares: [] });
+  };
+
+  const splitInputs = {
+    CUSTOM: { title: 'Custom Split', unit: '$', step: '0.01', placeholder: '0.00' },
+    PERCENT: { title: 'Split by Percentage (must total 100%)', unit: '%', step: '0.0001', placeholder: '0' },
+    WEIGHTED: { title: 'Split by Shares', unit: '×', step: '0.0001', placeholder: '0' },
+    ITEMIZED: { title: 'Split by Items (enter each person\'s item subtotal)', unit: '$', step: '0.01', placeholder: '0.00' }
+  };
+
   const calculateEqualShare = () => {
     const totalPeople = members.length + pendingMembers.length;
     if (totalPeople === 0) return 0;
@@ -105,9 +135,10 @@ const AddExpense = () => {
         groupId: parseInt(groupId),
         description: formData.description,
         amount: parseFloat(formData.amount),
+        currency: formData.currency || undefined,
         splitType: formData.splitType,
-        shares: formData.splitType === 'CUSTOM' ? formData.shares : [],
-        pendingShares: formData.splitType === 'CUSTOM' ? formData.pendingShares : []
+        shares: shareField ? formData.shares : [],
+        pendingShares: shareField ? formData.pendingShares : []
       };
 
       // Handle paid by
@@ -175,6 +206,24 @@ const AddExpense = () => {
             />
           </div>
 
+          <div>
+            <label htmlFor="currency" className="block text-sm font-medium text-gray-700 mb-2">
+              Currency
+            </label>
+            <select
+              id="currency"
+              name="currency"
+              className="w-full px-3 py-2 border border-gray-300 rounded-md focus:outline-none focus:ring-green-500 focus:border-green-500"
+              value={formData.currency}
+              onChange={handleChange}
+            >
+              <option value="">Group currency</option>
+              {currencies.map(code => (
+                <option key={code} value={code}>{code}</option>
+              ))}
+            </select>
+          </div>
+
           <div>
             <label htmlFor="paidBy" className="block text-sm font-medium text-gray-700 mb-2">
               Paid By
@@ -210,10 +259,13 @@ const AddExpense = () => {
               name="splitType"
               className="w-full px-3 py-2 border border-gray-300 rounded-md focus:outline-none focus:ring-green-500 focus:border-green-500"
               value={formData.splitType}
-              onChange={handleChange}
+              onChange={handleSplitTypeChange}
             >
               <option value="EQUAL">Equal Split</option>
               <option value="CUSTOM">Custom Split</option>
+              <option value="PERCENT">By Percentage</option>
+              <option value="WEIGHTED">By Shares</option>
+              <option value="ITEMIZED">By Items (tax &amp; tip split proportionally)</option>
             </select>
           </div>
 
@@ -221,14 +273,14 @@ const AddExpense = () => {
             <div className="bg-gray-50 p-4 rounded-md">
               <h3 className="font-medium text-gray-900 mb-2">Equal Split</h3>
               <p className="text-sm text-gray-600">
-                Each member will owe: <span className="font-semibold">${calculateEqualShare().toFixed(2)}</span>
+                Each member will owe: <span className="font-semibold">{formData.currency ? `${formData.currency} ` : ''}{calculateEqualShare().toFixed(2)}</span>
               </p>
             </div>
           )}
 
-          {formData.splitType === 'CUSTOM' && (
-            <div>
-              <h3 className="font-medium text-gray-900 mb-4">Custom Split</h3>
+          {shareField && (
+            <div key={formData.splitType}>
+              <h3 className="font-medium text-gray-900 mb-4">{splitInputs[formData.splitType].title}</h3>
               <div className="space-y-3">
                 {members.map((member) => (
                   <div key={member.id} className="flex items-center justify-between">
@@ -236,13 +288,13 @@ const AddExpense = () => {
                       {member.user.name} {member.user.id === user?.id && '(You)'}
                     </span>
                     <div className="flex items-center space-x-2">
-                      <span className="text-gray-500">$</span>
+                      <span className="text-gray-500">{splitInputs[formData.splitType].unit}</span>
                       <input
                         type="number"
-                        step="0.01"
+                        step={splitInputs[formData.splitType].step}
                         min="0"
                         className="w-24 px-2 py-1 border border-gray-300 rounded text-sm focus:outline-none focus:ring-green-500 focus:border-green-500"
-                        placeholder="0.00"
+                        placeholder={splitInputs[formData.splitType].placeholder}
                         onChange={(e) => handleShareChange(member.user.id, e.target.value)}
                       />
                     </div>
@@ -254,13 +306,13 @@ const AddExpense = () => {
                       {pending.name || pending.email} <span className="text-yellow-600 text-sm">(Pending)</span>
                     </span>
                     <div className="flex items-center space-x-2">
-                      <span className="text-gray-500">$</span>
+                      <span className="text-gray-500">{splitInputs[formData.splitType].unit}</span>
                       <input
                         type="number"
-                        step="0.01"
+                        step={splitInputs[formData.splitType].step}
                         min="0"
                         className="w-24 px-2 py-1 border border-gray-300 rounded text-sm focus:outline-none focus:ring-green-500 focus:border-green-500"
-                        placeholder="0.00"
+                        placeholder={splitInputs[formData.splitType].placeholder}
                         onChange={(e) => handlePendingShareChange(pending.email, e.target.value)}
                       />
                     </div>
@@ -57,11 +57,12 @@ const GroupDetail = () => {
     }
 
     try {
-      const [groupRes, membersRes, pendingRes, expensesRes] = await Promise.all([
+      const [groupRes, membersRes, pendingRes, expensesRes, pendingBalancesRes] = await Promise.all([
         api.get(`/groups/${groupId}`),
         api.get(`/groups/${groupId}/members`),
         api.get(`/groups/${groupId}/pending-members`).catch(() => ({ data: [] })),
-        api.get(`/expenses/group/${groupId}`)
+        api.get(`/expenses/group/${groupId}/with-shares`),
+        api.get(`/groups/${groupId}/pending-balances`).catch(() => ({ data: [] }))
       ]);
 
       setGroup(groupRes.data);
@@ -93,7 +94,8 @@ const GroupDetail = () => {
       }
       
       // Calculate balances - pass settlement history directly to avoid stale state
-      await calculateBalances(expensesData, membersData, Array.isArray(pendingRes.data) ? pendingRes.data : [], settlementHistoryData);
+      const pendingBalancesData = Array.isArray(pendingBalancesRes.data) ? pendingBalancesRes.data : [];
+      await calculateBalances(expensesData, membersData, Array.isArray(pendingRes.data) ? pendingRes.data : [], settlementHistoryData, pendingBalancesData);
     } catch (error) {
       const errorMessage = error.response?.data?.error || error.response?.data?.message || 'Failed to fetch group data';
       toast.error(errorMessage);
@@ -105,7 +107,7 @@ const GroupDetail = () => {
     }
   };
 
-  const calculateBalances = async (expensesData, membersData, pendingMembersData, settlementHistoryData = null) => {
+  const calculateBalances = async (expensesData, membersData, pendingMembersData, settlementHistoryData = null, pendingBalancesData = []) => {
     try {
       const balanceMap = {};
       
@@ -139,6 +141,14 @@ const GroupDetail = () => {
         };
       });
 
+      // Pending members' owed totals are aggregated by the backend
+      pendingBalancesData.forEach(pendingBalance => {
+        const pendingKey = `pending-${pendingBalance.email}`;
+        if (balanceMap[pendingKey]) {
+          balanceMap[pendingKey].owed += parseFloat(pendingBalance.owedAmount || 0);
+        }
+      });
+
       // Calculate paid amounts (exclude deleted expenses)
       expensesData.forEach(expense => {
         if (expense.deletedAt) return;
@@ -165,89 +175,17 @@ const GroupDetail = () => {
         }
       });
 
-      // Fetch shares and calculate owed amounts
-      const processedExpenseIds = new Set(); // Track processed expenses to avoid duplicates
-      
-      for (const expense of expensesData) {
-        if (expense.deletedAt) continue;
-      
-      // Skip if we've already processed this expense
-      if (processedExpenseIds.has(expense.id)) {
-        continue;
-      }
-      processedExpenseIds.add(expense.id);
-      
-      const description = expense.description || '';
-      
-      try {
-        const sharesRes = await api.get(`/expenses/${expense.id}/shares`);
-        const shares = Array.isArray(sharesRes.data) ? sharesRes.data : [];
-        
-        const expenseAmount = parseFloat(expense.amount || 0);
-        
-        // Check splitType case-insensitively
-        const splitType = (expense.splitType || '').toUpperCase();
+      // Shares come embedded in each expense, so no per-expense requests are needed
+      expensesData.forEach(expense => {
+        if (expense.deletedAt) return;
         
-        if (splitType === 'EQUAL') {
-          // For EQUAL splits, use the actual share amounts from ExpenseShare records
-          // This ensures we use the exact amounts calculated by the backend (including rounding adjustments)
-          
-          // Apply actual share amounts from ExpenseShare records
-          shares.forEach(share => {
-            const userId = share.user?.id;
-            const amountOwed = parseFloat(share.amountOwed || 0);
-            if (userId && balanceMap[userId] && amountOwed > 0) {
-              balanceMap[userId].owed += amountOwed;
-            }
-          });
-          
-          // Handle pending members from description (if any)
-          // Use the actual amounts stored in the description (from backend calculation)
-          const pendingSharesMatch = description.match(/\(Pending shares:\s*([^)]+)\)/i);
-          if (pendingSharesMatch) {
-            const pendingSharesStr = pendingSharesMatch[1];
-            const pendingSharePairs = pendingSharesStr.split(',').map(s => s.trim());
-            
-            pendingSharePairs.forEach(pair => {
-              const [email, amountStr] = pair.split(':').map(s => s.trim());
-              const amount = parseFloat(amountStr || 0);
-              if (email && amount > 0) {
-                const pendingKey = `pending-${email}`;
-                if (balanceMap[pendingKey]) {
-                  balanceMap[pendingKey].owed += amount;
-                }
-              }
-            });
+        (expense.shares || []).forEach(share => {
+          const userId = share.userId;
+          if (userId && balanceMap[userId]) {
+            balanceMap[userId].owed += parseFloat(share.amountOwed || 0);
           }
-        } else if (splitType === 'CUSTOM') {
-          const pendingSharesMatch = description.match(/\(Pending shares:\s*([^)]+)\)/i);
-          if (pendingSharesMatch) {
-            const pendingSharesStr = pendingSharesMatch[1];
-            const pendingSharePairs = pendingSharesStr.split(',').map(s => s.trim());
-            pendingSharePairs.forEach(pair => {
-              const [email, amountStr] = pair.split(':').map(s => s.trim());
-              const amount = parseFloat(amountStr || 0);
-              if (email && amount > 0) {
-                const pendingKey = `pending-${email}`;
-                if (balanceMap[pendingKey]) {
-                  balanceMap[pendingKey].owed += amount;
-                }
-              }
-            });
-          }
-          
-          shares.forEach(share => {
-            const userId = share.user?.id;
-            if (userId && balanceMap[userId]) {
-              const amountOwed = parseFloat(share.amountOwed || 0);
-              balanceMap[userId].owed += amountOwed;
-            }
-          });
-        }
-      } catch (error) {
-        console.error('Failed to fetch shares for expense:', expense.id, error);
-        }
-      }
+        });
+      });
 
       // Calculate final balances
       let totalPaid = 0;
@@ -561,13 +499,16 @@ const GroupDetail = () => {
     return userBalance.balance;
   };
 
+  // Amounts are labelled with their ISO currency code, e.g. "EUR 12.50"
+  const formatMoney = (amount, currency) => `${currency || group?.baseCurrency || 'USD'} ${amount.toFixed(2)}`;
+
   const formatBalance = (balance) => {
     if (balance === null || balance === undefined) return 'No balance';
     const amount = parseFloat(balance);
     const EPSILON = 0.01; // Tolerance for floating point comparison
     if (Math.abs(amount) < EPSILON) return 'All settled up!';
-    if (amount > 0) return `You are owed $${amount.toFixed(2)}`;
-    return `You owe $${Math.abs(amount).toFixed(2)}`;
+    if (amount > 0) return `You are owed ${formatMoney(amount)}`;
+    return `You owe ${formatMoney(Math.abs(amount))}`;
   };
 
   const getBalanceColor = (balance) => {
@@ -861,7 +802,7 @@ const GroupDetail = () => {
                                 <div className="flex items-center space-x-2 mb-1 line-through">
                                   <p className="font-semibold text-gray-500">{paidBy}</p>
                                   <span className="text-gray-400">paid</span>
-                                  <p className="font-semibold text-gray-500">${parseFloat(expense.amount || 0).toFixed(2)}</p>
+                                  <p className="font-semibold text-gray-500">{formatMoney(parseFloat(expense.amount || 0), expense.currency)}</p>
                                 </div>
                                 <p className="text-gray-500 mb-1 line-through">{cleanDescription || expense.description || 'No description'}</p>
                                 <div className="flex items-center space-x-2 text-sm text-gray-400">
@@ -873,7 +814,7 @@ const GroupDetail = () => {
                                 <div className="flex items-center space-x-2 mb-1">
                                   <p className="font-semibold text-gray-900">{paidBy}</p>
                                   <span className="text-gray-500">paid</span>
-                                  <p className="font-semibold text-gray-900">${parseFloat(expense.amount || 0).toFixed(2)}</p>
+                                  <p className="font-semibold text-gray-900">{formatMoney(parseFloat(expense.amount || 0), expense.currency)}</p>
                                 </div>
                                 <p className="text-gray-700 mb-1">{cleanDescription || 'No description'}</p>
                                 <div className="flex items-center space-x-2 text-sm text-gray-500">
@@ -1266,8 +1207,8 @@ const GroupDetail = () => {
                   <span className="text-gray-600 font-semibold">Your Balance</span>
                   <span className={`text-xl font-semibold ${getBalanceColor(currentUserBalance)}`}>
                     {currentUserBalance !== null ? (
-                      Math.abs(currentUserBalance) < 0.01 ? 'All settled up!' : `$${currentUserBalance.toFixed(2)}`
-                    ) : '$0.00'}
+                      Math.abs(currentUserBalance) < 0.01 ? 'All settled up!' : formatMoney(currentUserBalance)
+                    ) : formatMoney(0)}
                   </span>
                 </div>
               </div>
@@ -1506,7 +1447,7 @@ const GroupDetail = () => {
             <div className="mb-4 p-3 bg-gray-50 rounded-lg">
               <p className="text-sm text-gray-600 mb-1">You owe</p>
               <p className="text-xl font-semibold text-gray-900">{selectedSettlement.toUserName}</p>
-              <p className="text-2xl font-bold text-green-600 mt-2">${settleUpAmount}</p>
+              <p className="text-2xl font-bold text-green-600 mt-2">{group?.baseCurrency || 'USD'} {settleUpAmount}</p>
             </div>
             <form onSubmit={handleSettleUp}>
               <div className="mb-4">
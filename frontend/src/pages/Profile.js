@@ -5,7 +5,7 @@ import { toast } from 'react-toastify';
 import api from '../services/api';
 
 const Profile = () => {
-  const { user, updateProfile } = useAuth();
+  const { user, updateProfile, storeReplacementToken } = useAuth();
   const navigate = useNavigate();
   const [loading, setLoading] = useState(false);
   const [activeTab, setActiveTab] = useState('profile');
@@ -59,10 +59,11 @@ const Profile = () => {
     setLoading(true);
 
     try {
-      await api.put('/auth/password', {
+      const response = await api.put('/auth/password', {
         currentPassword: passwordData.currentPassword,
         newPassword: passwordData.newPassword,
       });
+      storeReplacementToken(response);
       toast.success('Password updated successfully!');
       setPasswordData({
         currentPassword: '',